@@ -0,0 +1,103 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.benchmarks;
+
+import io.appform.codeindex.models.Symbol;
+import io.appform.codeindex.models.SymbolKind;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Inputs shared by the benchmarks: bundled sample sources and deterministic synthetic symbols.
+ */
+final class BenchmarkData {
+    private static final SymbolKind[] MEMBER_KINDS = {
+            SymbolKind.METHOD, SymbolKind.FIELD, SymbolKind.VARIABLE, SymbolKind.REFERENCE
+    };
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Copies a sample from {@code src/main/resources/samples} into the given directory.
+     */
+    static Path copySample(String name, Path directory) throws IOException {
+        try (var in = Objects.requireNonNull(BenchmarkData.class.getResourceAsStream("/samples/" + name),
+                                             "Missing sample " + name)) {
+            final var target = directory.resolve(name);
+            Files.copy(in, target);
+            return target;
+        }
+    }
+
+    /**
+     * Builds {@code count} symbols starting at {@code offset}. Every class gets ten members and every
+     * package fifty classes, so names, packages and paths repeat the way they do in a real index.
+     */
+    static List<Symbol> symbols(int offset, int count) {
+        final var symbols = new ArrayList<Symbol>(count);
+        for (int i = offset; i < offset + count; i++) {
+            final var classIndex = i / 10;
+            final var packageName = "com.acme.module" + (classIndex / 50);
+            final var className = (classIndex % 3 == 0 ? "Order" : "Invoice") + "Service" + classIndex;
+            final var filePath = packageName.replace('.', '/') + "/" + className + ".java";
+            final var member = i % 10;
+            symbols.add(member == 0
+                        ? Symbol.builder()
+                                .name(className)
+                                .className(className)
+                                .packageName(packageName)
+                                .kind(SymbolKind.CLASS)
+                                .filePath(filePath)
+                                .line(1)
+                                .signature("class " + className)
+                                .build()
+                        : Symbol.builder()
+                                .name("process" + member)
+                                .className(className)
+                                .packageName(packageName)
+                                .kind(MEMBER_KINDS[member % MEMBER_KINDS.length])
+                                .filePath(filePath)
+                                .line(member * 5)
+                                .signature("process" + member + "(String)")
+                                .build());
+        }
+        return symbols;
+    }
+
+    static void deleteRecursively(Path directory) {
+        if (directory == null || !Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
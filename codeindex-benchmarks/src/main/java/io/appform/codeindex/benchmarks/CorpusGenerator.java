@@ -0,0 +1,197 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * Writes deterministic synthetic projects for indexing benchmarks.
+ *
+ * <p>Class {@code i} lives in package {@code i % packages}, and a Java package {@code p} in module
+ * {@code p % modules}. Its methods declare locals and call methods
+ * of other generated classes, so indexing exercises reference resolution and cross-file lookups, not
+ * just declaration extraction. Every file is generated from its own seed, so a file's content does not
+ * depend on how many files were generated before it.
+ */
+public final class CorpusGenerator {
+    public static final String JAVA_BASE_PACKAGE = "com.acme.gen";
+    public static final String PYTHON_BASE_PACKAGE = "gen";
+
+    private final CorpusSpec spec;
+
+    public CorpusGenerator(CorpusSpec spec) {
+        if (spec.getFiles() < 1 || spec.getPackages() < 1 || spec.getPackages() > spec.getFiles()) {
+            throw new IllegalArgumentException("Need at least one file per package and one package");
+        }
+        if (spec.getCrossPackageRatio() < 0 || spec.getCrossPackageRatio() > 1) {
+            throw new IllegalArgumentException("Cross package ratio must be between 0 and 1");
+        }
+        if (spec.getModules() < 1 || spec.getModules() > spec.getPackages()) {
+            throw new IllegalArgumentException("Need at least one package per module and one module");
+        }
+        this.spec = spec;
+    }
+
+    public static String className(int index) {
+        return "Component" + index;
+    }
+
+    public static String methodName(int index) {
+        return "operation" + index;
+    }
+
+    /**
+     * Generates the project under {@code root}, which is created if needed.
+     *
+     * @return total size of the generated sources in bytes
+     */
+    public long generate(Path root) throws IOException {
+        long bytes = 0;
+        for (int p = 0; p < spec.getPackages(); p++) {
+            final var directory = Files.createDirectories(root.resolve(packageDirectory(p)));
+            if (spec.getLanguage() == CorpusSpec.Language.PYTHON) {
+                Files.writeString(directory.resolve("__init__.py"), "");
+            }
+        }
+        if (spec.getLanguage() == CorpusSpec.Language.PYTHON) {
+            Files.writeString(root.resolve(PYTHON_BASE_PACKAGE).resolve("__init__.py"), "");
+        }
+        for (int i = 0; i < spec.getFiles(); i++) {
+            final var random = new Random(spec.getSeed() * 1_000_003L + i);
+            final var source = spec.getLanguage() == CorpusSpec.Language.JAVA
+                               ? javaSource(i, random)
+                               : pythonSource(i, random);
+            Files.writeString(root.resolve(packageDirectory(packageOf(i))).resolve(fileName(i)), source);
+            bytes += source.length();
+        }
+        return bytes;
+    }
+
+    private String javaSource(int index, Random random) {
+        final var pkg = packageOf(index);
+        final var imports = new TreeSet<String>();
+        final var body = new StringBuilder();
+        for (int m = 0; m < spec.getMethodsPerClass(); m++) {
+            body.append("\n    public int ").append(methodName(m)).append("(int input) {\n")
+                    .append("        int value = input + counter;\n");
+            for (int c = 0; c < spec.getCallsPerMethod(); c++) {
+                final var target = target(index, random);
+                if (packageOf(target) != pkg) {
+                    imports.add(javaPackage(packageOf(target)) + "." + className(target));
+                }
+                body.append("        final ").append(className(target)).append(" dependency").append(c)
+                        .append(" = new ").append(className(target)).append("();\n")
+                        .append("        value += dependency").append(c).append('.')
+                        .append(methodName(random.nextInt(spec.getMethodsPerClass()))).append("(value);\n");
+            }
+            body.append("        events.add(\"").append(methodName(m)).append("\");\n")
+                    .append("        return value;\n")
+                    .append("    }\n");
+        }
+        final var source = new StringBuilder()
+                .append("package ").append(javaPackage(pkg)).append(";\n\n");
+        imports.forEach(name -> source.append("import ").append(name).append(";\n"));
+        return source.append("import java.util.ArrayList;\n")
+                .append("import java.util.List;\n\n")
+                .append("public class ").append(className(index)).append(" {\n")
+                .append("    private final List<String> events = new ArrayList<>();\n")
+                .append("    private int counter;\n")
+                .append(body)
+                .append("}\n")
+                .toString();
+    }
+
+    private String pythonSource(int index, Random random) {
+        final var imports = new TreeSet<String>();
+        final var body = new StringBuilder();
+        for (int m = 0; m < spec.getMethodsPerClass(); m++) {
+            body.append("\n    def ").append(methodName(m)).append("(self, value):\n")
+                    .append("        total = value + self.counter\n");
+            for (int c = 0; c < spec.getCallsPerMethod(); c++) {
+                final var target = target(index, random);
+                if (target != index) {
+                    imports.add("from " + pythonPackage(packageOf(target)) + "." + moduleName(target)
+                                        + " import " + className(target));
+                }
+                body.append("        dependency").append(c).append(" = ").append(className(target)).append("()\n")
+                        .append("        total += dependency").append(c).append('.')
+                        .append(methodName(random.nextInt(spec.getMethodsPerClass()))).append("(total)\n");
+            }
+            body.append("        self.events.append(\"").append(methodName(m)).append("\")\n")
+                    .append("        return total\n");
+        }
+        final var source = new StringBuilder();
+        imports.forEach(line -> source.append(line).append('\n'));
+        return source.append("\n\nclass ").append(className(index)).append(":\n")
+                .append("    def __init__(self):\n")
+                .append("        self.events = []\n")
+                .append("        self.counter = 0\n")
+                .append(body)
+                .toString();
+    }
+
+    /**
+     * Picks the class called from {@code index}: one in another package with probability
+     * {@code crossPackageRatio}, otherwise one in the same package.
+     */
+    private int target(int index, Random random) {
+        final var packages = spec.getPackages();
+        final var own = packageOf(index);
+        var pkg = own;
+        if (packages > 1 && random.nextDouble() < spec.getCrossPackageRatio()) {
+            pkg = (own + 1 + random.nextInt(packages - 1)) % packages;
+        }
+        final var classesInPackage = (spec.getFiles() - pkg + packages - 1) / packages;
+        return pkg + packages * random.nextInt(classesInPackage);
+    }
+
+    private int packageOf(int index) {
+        return index % spec.getPackages();
+    }
+
+    private String packageDirectory(int pkg) {
+        if (spec.getLanguage() != CorpusSpec.Language.JAVA) {
+            return pythonPackage(pkg).replace('.', '/');
+        }
+        final var directory = javaPackage(pkg).replace('.', '/');
+        return spec.getModules() > 1
+               ? "module-" + pkg % spec.getModules() + "/src/main/java/" + directory
+               : directory;
+    }
+
+    private String fileName(int index) {
+        return spec.getLanguage() == CorpusSpec.Language.JAVA
+               ? className(index) + ".java"
+               : moduleName(index) + ".py";
+    }
+
+    private static String javaPackage(int pkg) {
+        return JAVA_BASE_PACKAGE + ".p" + pkg;
+    }
+
+    private static String pythonPackage(int pkg) {
+        return PYTHON_BASE_PACKAGE + ".p" + pkg;
+    }
+
+    private static String moduleName(int index) {
+        return "component_" + index;
+    }
+}
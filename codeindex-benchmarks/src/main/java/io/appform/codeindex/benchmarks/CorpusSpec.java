@@ -0,0 +1,73 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.benchmarks;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Shape of a synthetic project produced by {@link CorpusGenerator}. The same spec always produces the
+ * same files.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class CorpusSpec {
+    /**
+     * Language of the generated sources.
+     */
+    public enum Language {
+        JAVA,
+        PYTHON
+    }
+
+    @Builder.Default
+    private Language language = Language.JAVA;
+    /**
+     * Number of source files. Each file holds one class.
+     */
+    @Builder.Default
+    private int files = 1_000;
+    /**
+     * Number of packages the classes are spread over, round-robin.
+     */
+    @Builder.Default
+    private int packages = 20;
+    /**
+     * Number of build modules the packages of a Java project are spread over, round-robin. With more than
+     * one, each module keeps its sources under {@code module-N/src/main/java}.
+     */
+    @Builder.Default
+    private int modules = 1;
+    @Builder.Default
+    private int methodsPerClass = 8;
+    /**
+     * Calls into other generated classes made by each method. Every call also declares a local variable.
+     */
+    @Builder.Default
+    private int callsPerMethod = 3;
+    /**
+     * Fraction of calls that target a class in another package, and therefore need an import.
+     */
+    @Builder.Default
+    private double crossPackageRatio = 0.3;
+    @Builder.Default
+    private long seed = 42;
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.benchmarks;
+
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.symbolsolver.JavaSymbolSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.JavaParserTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
+import io.appform.codeindex.models.ResolutionMode;
+import io.appform.codeindex.models.Symbol;
+import io.appform.codeindex.parser.JavaSymbolExtractor;
+import io.appform.codeindex.parser.SharedTypeSolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares symbol extraction from one large, already parsed file: the single-pass
+ * {@link JavaSymbolExtractor} against the previous one-{@code findAll}-per-kind walk. Parsing is done
+ * once in setup, so only the AST walks and reference resolution are measured. With resolution
+ * {@code NONE} the walks themselves are compared.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExtractionBenchmark {
+    private static final String FILE = "Component0.java";
+
+    /**
+     * Methods in the measured class. Each method declares and calls three other classes.
+     */
+    @Param({"50", "500"})
+    private int methods;
+
+    @Param({"FULL", "NONE"})
+    private ResolutionMode resolution;
+
+    private Path root;
+    private CompilationUnit cu;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        root = Files.createTempDirectory("codeindex-extraction-bench");
+        new CorpusGenerator(CorpusSpec.builder()
+                .files(10)
+                .packages(2)
+                .methodsPerClass(methods)
+                .build()).generate(root);
+        final var typeSolver = new SharedTypeSolver(new ReflectionTypeSolver(), new JavaParserTypeSolver(root));
+        final var parser = new com.github.javaparser.JavaParser(new ParserConfiguration()
+                .setSymbolResolver(new JavaSymbolSolver(typeSolver)));
+        final var file = root.resolve(CorpusGenerator.JAVA_BASE_PACKAGE.replace('.', '/')).resolve("p0").resolve(FILE);
+        cu = parser.parse(file).getResult().orElseThrow();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkData.deleteRecursively(root);
+    }
+
+    @Benchmark
+    public List<Symbol> singlePass() {
+        return JavaSymbolExtractor.extract(cu, FILE, resolution);
+    }
+
+    @Benchmark
+    public List<Symbol> findAllPerKind() {
+        return FindAllExtraction.extract(cu, FILE, resolution != ResolutionMode.NONE);
+    }
+}
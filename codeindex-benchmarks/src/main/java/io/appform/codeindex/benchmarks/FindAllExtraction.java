@@ -0,0 +1,158 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.benchmarks;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.FieldDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.VariableDeclarator;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.expr.NameExpr;
+import com.github.javaparser.resolution.declarations.ResolvedMethodDeclaration;
+import com.github.javaparser.resolution.declarations.ResolvedValueDeclaration;
+import io.appform.codeindex.models.Symbol;
+import io.appform.codeindex.models.SymbolKind;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The extraction {@code JavaParser} used before {@code JavaSymbolExtractor}: one {@code findAll} walk
+ * per symbol kind, and an ancestor lookup for the enclosing class of every node. Kept only as the
+ * baseline for {@link ExtractionBenchmark}; it produces the same symbols grouped by kind. Without
+ * resolution the reference walks still run, but nothing is resolved or stored.
+ */
+final class FindAllExtraction {
+
+    private FindAllExtraction() {
+    }
+
+    static List<Symbol> extract(CompilationUnit cu, String filePath, boolean resolve) {
+        final var symbols = new ArrayList<Symbol>();
+        final var packageName = cu.getPackageDeclaration()
+                .map(pd -> pd.getName().asString())
+                .orElse(null);
+
+        cu.findAll(ClassOrInterfaceDeclaration.class).forEach(cid -> {
+            final var className = cid.getNameAsString();
+            symbols.add(Symbol.builder()
+                    .name(className)
+                    .className(className)
+                    .packageName(packageName)
+                    .kind(SymbolKind.CLASS)
+                    .filePath(filePath)
+                    .line(cid.getBegin().map(p -> p.line).orElse(-1))
+                    .signature(cid.getNameAsString())
+                    .build());
+        });
+
+        cu.findAll(MethodDeclaration.class).forEach(md -> symbols.add(Symbol.builder()
+                .name(md.getNameAsString())
+                .className(enclosingClass(md))
+                .packageName(packageName)
+                .kind(SymbolKind.METHOD)
+                .filePath(filePath)
+                .line(md.getBegin().map(p -> p.line).orElse(-1))
+                .signature(md.getSignature().asString())
+                .build()));
+
+        cu.findAll(FieldDeclaration.class).forEach(fd -> {
+            final var className = enclosingClass(fd);
+            fd.getVariables().forEach(v -> symbols.add(Symbol.builder()
+                    .name(v.getNameAsString())
+                    .className(className)
+                    .packageName(packageName)
+                    .kind(SymbolKind.FIELD)
+                    .filePath(filePath)
+                    .line(v.getBegin().map(p -> p.line).orElse(-1))
+                    .signature(v.getTypeAsString() + " " + v.getNameAsString())
+                    .build()));
+        });
+
+        cu.findAll(VariableDeclarator.class).forEach(vd -> {
+            if (vd.getParentNode().map(p -> p instanceof FieldDeclaration).orElse(false)) {
+                return;
+            }
+            symbols.add(Symbol.builder()
+                    .name(vd.getNameAsString())
+                    .className(enclosingClass(vd))
+                    .packageName(packageName)
+                    .kind(SymbolKind.VARIABLE)
+                    .filePath(filePath)
+                    .line(vd.getBegin().map(p -> p.line).orElse(-1))
+                    .signature(vd.getTypeAsString() + " " + vd.getNameAsString())
+                    .build());
+        });
+
+        cu.findAll(MethodCallExpr.class).forEach(mce -> {
+            final var className = enclosingClass(mce);
+            if (!resolve) {
+                return;
+            }
+            try {
+                final ResolvedMethodDeclaration resolved = mce.resolve();
+                symbols.add(Symbol.builder()
+                        .name(mce.getNameAsString())
+                        .className(className)
+                        .packageName(packageName)
+                        .kind(SymbolKind.REFERENCE)
+                        .filePath(filePath)
+                        .line(mce.getBegin().map(p -> p.line).orElse(-1))
+                        .signature(mce.toString())
+                        .referenceTo(resolved.getQualifiedName())
+                        .build());
+            }
+            catch (Exception e) {
+                // Unresolved calls are skipped, as in the parser
+            }
+        });
+
+        cu.findAll(NameExpr.class).forEach(ne -> {
+            final var className = enclosingClass(ne);
+            if (!resolve) {
+                return;
+            }
+            try {
+                final ResolvedValueDeclaration resolved = ne.resolve();
+                if (resolved.isVariable() || resolved.isField() || resolved.isEnumConstant()) {
+                    symbols.add(Symbol.builder()
+                            .name(ne.getNameAsString())
+                            .className(className)
+                            .packageName(packageName)
+                            .kind(SymbolKind.REFERENCE)
+                            .filePath(filePath)
+                            .line(ne.getBegin().map(p -> p.line).orElse(-1))
+                            .signature(ne.getNameAsString())
+                            .referenceTo(resolved.getName())
+                            .build());
+                }
+            }
+            catch (Exception e) {
+                // Unresolved names are skipped, as in the parser
+            }
+        });
+        return symbols;
+    }
+
+    private static String enclosingClass(Node node) {
+        return node.findAncestor(ClassOrInterfaceDeclaration.class)
+                .map(ClassOrInterfaceDeclaration::getNameAsString)
+                .orElse(null);
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.benchmarks;
+
+import io.appform.codeindex.models.Symbol;
+import io.appform.codeindex.parser.JavaParser;
+import io.appform.codeindex.python.parser.PythonParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses one realistic source file per invocation with each language parser. The Java parser runs with
+ * the symbol solver enabled, so the score includes reference resolution against the JDK.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark {
+    private Path sourceRoot;
+    private Path javaFile;
+    private Path pythonFile;
+    private JavaParser javaParser;
+    private PythonParser pythonParser;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        sourceRoot = Files.createTempDirectory("codeindex-parser-bench");
+        javaFile = BenchmarkData.copySample("OrderService.java", sourceRoot);
+        pythonFile = BenchmarkData.copySample("inventory.py", sourceRoot);
+        javaParser = new JavaParser();
+        javaParser.setup(sourceRoot, List.of());
+        pythonParser = new PythonParser();
+        pythonParser.setup(sourceRoot, List.of());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkData.deleteRecursively(sourceRoot);
+    }
+
+    @Benchmark
+    public List<Symbol> parseJava() {
+        return javaParser.parse(javaFile, sourceRoot);
+    }
+
+    @Benchmark
+    public List<Symbol> parsePython() {
+        return pythonParser.parse(pythonFile, sourceRoot);
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.benchmarks;
+
+import io.appform.codeindex.models.IndexRequest;
+import io.appform.codeindex.models.IndexingSummary;
+import io.appform.codeindex.models.ResolutionMode;
+import io.appform.codeindex.models.SearchRequest;
+import io.appform.codeindex.parser.ParserRegistry;
+import io.appform.codeindex.python.parser.PythonParser;
+import io.appform.codeindex.service.CodeIndexer;
+import io.appform.codeindex.storage.SQLiteStorage;
+import lombok.extern.slf4j.Slf4j;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
+
+/**
+ * Indexes generated corpora of increasing size and records how indexing time, heap, database size and
+ * search latency grow. Each size is indexed into a fresh database with fresh parsers. Results are
+ * printed and written as JSON so runs can be compared.
+ *
+ * <pre>
+ * java -cp codeindex-benchmarks/target/benchmarks.jar io.appform.codeindex.benchmarks.ScalingBenchmark \
+ *     --sizes 1000,10000,100000 --output scaling.json
+ * </pre>
+ */
+@Slf4j
+@Command(name = "scaling-benchmark", mixinStandardHelpOptions = true,
+        description = "Indexes synthetic projects of increasing size and records how indexing and search scale.")
+public class ScalingBenchmark implements Callable<Integer> {
+
+    @Option(names = {"--sizes"}, split = ",", description = "Corpus sizes in files (default: 1000,10000,100000)")
+    private List<Integer> sizes = List.of(1_000, 10_000, 100_000);
+
+    @Option(names = {"--language"}, description = "JAVA or PYTHON (default: JAVA)")
+    private CorpusSpec.Language language = CorpusSpec.Language.JAVA;
+
+    @Option(names = {"--files-per-package"}, description = "Classes per generated package (default: 50)")
+    private int filesPerPackage = 50;
+
+    @Option(names = {"--modules"}, description = "Build modules the Java packages are spread over (default: 1)")
+    private int modules = 1;
+
+    @Option(names = {"--methods"}, description = "Methods per class (default: 8)")
+    private int methodsPerClass = 8;
+
+    @Option(names = {"--calls"}, description = "Calls to other classes per method (default: 3)")
+    private int callsPerMethod = 3;
+
+    @Option(names = {"--cross-package"}, description = "Fraction of calls into other packages (default: 0.3)")
+    private double crossPackageRatio = 0.3;
+
+    @Option(names = {"--resolution"}, description = "Reference resolution: NONE, LAZY or FULL (default: FULL)")
+    private ResolutionMode resolution = ResolutionMode.FULL;
+
+    @Option(names = {"--type-cache-entries"}, description = "Maximum entries in each type resolution cache, 0 for no limit (default: 0)")
+    private int typeCacheEntries;
+
+    @Option(names = {"--searches"}, description = "Searches timed per size (default: 1000)")
+    private int searches = 1_000;
+
+    @Option(names = {"-t", "--threads"}, description = "Number of parser threads (defaults to the number of available processors)")
+    private Integer threads;
+
+    @Option(names = {"--work-dir"}, description = "Directory for generated projects and databases (default: a temporary directory)")
+    private Path workDir;
+
+    @Option(names = {"--keep"}, description = "Keep generated projects and databases")
+    private boolean keep;
+
+    @Option(names = {"-o", "--output"}, description = "JSON result file (default: scaling-results.json)")
+    private Path output = Path.of("scaling-results.json");
+
+    public static void main(String[] args) {
+        System.exit(new CommandLine(new ScalingBenchmark())
+                .setCaseInsensitiveEnumValuesAllowed(true)
+                .execute(args));
+    }
+
+    @Override
+    public Integer call() throws Exception {
+        final var directory = workDir != null
+                              ? Files.createDirectories(workDir)
+                              : Files.createTempDirectory("codeindex-scaling");
+        final var results = new ArrayList<ScalingResult>();
+        try {
+            for (int size : sizes) {
+                final var result = run(directory.resolve(language.name().toLowerCase() + "-" + size), size);
+                results.add(result);
+                System.out.printf("%-7s %,9d files  index %,9d ms  resolved %5.1f%%  failed %,7d ms  heap %,7d MB  db %,7d MB"
+                                          + "  search p50 %,8.1f us  p99 %,8.1f us%n",
+                                  result.getLanguage(), result.getFiles(), result.getIndexMillis(),
+                                  result.getResolutionSuccessRate() * 100, result.getFailedResolutionMillis(),
+                                  result.getPeakHeapBytes() >> 20, result.getDatabaseBytes() >> 20,
+                                  result.getSearchP50Micros(), result.getSearchP99Micros());
+                Files.writeString(output, toJson(results));
+            }
+        }
+        finally {
+            if (!keep) {
+                BenchmarkData.deleteRecursively(directory);
+            }
+        }
+        log.info("Results written to {}", output.toAbsolutePath());
+        return 0;
+    }
+
+    private ScalingResult run(Path directory, int files) throws Exception {
+        final var spec = CorpusSpec.builder()
+                .language(language)
+                .files(files)
+                .packages(Math.max(1, files / filesPerPackage))
+                .modules(modules)
+                .methodsPerClass(methodsPerClass)
+                .callsPerMethod(callsPerMethod)
+                .crossPackageRatio(crossPackageRatio)
+                .build();
+        final var project = directory.resolve("project");
+        final var sourceBytes = new CorpusGenerator(spec).generate(project);
+        final var dbPath = directory.resolve("index.db");
+
+        final var heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+        System.gc();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        final var registry = new ParserRegistry();
+        if (language == CorpusSpec.Language.PYTHON) {
+            // Only parsers in io.appform.codeindex.parser are discovered automatically
+            registry.register(new PythonParser());
+        }
+        final var start = System.nanoTime();
+        final IndexingSummary summary;
+        try (CodeIndexer indexer = new CodeIndexer(dbPath.toString(), registry)) {
+            summary = indexer.index(IndexRequest.builder()
+                    .projectPath(project.toString())
+                    .threads(threads != null ? threads : Runtime.getRuntime().availableProcessors())
+                    .resolution(resolution)
+                    .typeCacheEntries(typeCacheEntries)
+                    .build());
+        }
+        final var indexMillis = (System.nanoTime() - start) / 1_000_000;
+        final var peakHeap = heapPools.stream()
+                .mapToLong(pool -> pool.getPeakUsage().getUsed())
+                .sum();
+
+        final var latencies = searchLatencies(dbPath, spec);
+        Arrays.sort(latencies);
+        return ScalingResult.builder()
+                .language(language.name())
+                .files(files)
+                .sourceBytes(sourceBytes)
+                .indexMillis(indexMillis)
+                .filesIndexed(summary.getFilesIndexed())
+                .filesFailed(summary.getFilesFailed())
+                .symbols(summary.getSymbolsWritten())
+                .resolutionSuccessRate(summary.getResolution().getSuccessRate())
+                .failedResolutionMillis(summary.getResolution().getFailedMillis())
+                .peakHeapBytes(peakHeap)
+                .databaseBytes(databaseSize(dbPath))
+                .searches(latencies.length)
+                .searchP50Micros(percentile(latencies, 0.50))
+                .searchP99Micros(percentile(latencies, 0.99))
+                .build();
+    }
+
+    /**
+     * Times a fixed, seeded mix of class, method and {@code Class::member} searches on one connection,
+     * after a warm-up round of the same size.
+     */
+    private long[] searchLatencies(Path dbPath, CorpusSpec spec) throws Exception {
+        final var random = new Random(spec.getSeed());
+        final var queries = new ArrayList<String>(searches);
+        for (int i = 0; i < searches; i++) {
+            final var className = CorpusGenerator.className(random.nextInt(spec.getFiles()));
+            final var methodName = CorpusGenerator.methodName(random.nextInt(spec.getMethodsPerClass()));
+            final var query = switch (i % 3) {
+                case 0 -> className;
+                case 1 -> methodName;
+                default -> className + "::" + methodName;
+            };
+            queries.add(query);
+        }
+        final var latencies = new long[searches];
+        try (SQLiteStorage storage = new SQLiteStorage(dbPath.toString())) {
+            for (String query : queries) {
+                storage.search(SearchRequest.builder().query(query).build());
+            }
+            for (int i = 0; i < searches; i++) {
+                final var start = System.nanoTime();
+                storage.search(SearchRequest.builder().query(queries.get(i)).build());
+                latencies[i] = System.nanoTime() - start;
+            }
+        }
+        return latencies;
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        final var index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000.0;
+    }
+
+    private static long databaseSize(Path dbPath) throws IOException {
+        long size = 0;
+        for (String suffix : List.of("", "-wal", "-shm")) {
+            final var file = Path.of(dbPath + suffix);
+            if (Files.exists(file)) {
+                size += Files.size(file);
+            }
+        }
+        return size;
+    }
+
+    private static String toJson(List<ScalingResult> results) {
+        return results.stream()
+                .map(ScalingResult::toJson)
+                .collect(Collectors.joining(",\n  ", "[\n  ", "\n]\n"));
+    }
+}
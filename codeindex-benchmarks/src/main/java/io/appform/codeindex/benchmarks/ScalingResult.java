@@ -0,0 +1,73 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.benchmarks;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Measurements for one corpus size in a {@link ScalingBenchmark} run.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScalingResult {
+    private String language;
+    private int files;
+    private long sourceBytes;
+    private long indexMillis;
+    private int filesIndexed;
+    private int filesFailed;
+    private long symbols;
+    /**
+     * Fraction of the references the parsers tried to resolve that resolved.
+     */
+    private double resolutionSuccessRate;
+    /**
+     * Time spent on references that did not resolve.
+     */
+    private long failedResolutionMillis;
+    /**
+     * Sum of the peak usage of every heap memory pool while indexing, an upper bound on the peak heap.
+     */
+    private long peakHeapBytes;
+    private long databaseBytes;
+    private int searches;
+    private double searchP50Micros;
+    private double searchP99Micros;
+
+    public String toJson() {
+        return "{\"language\":\"" + language + "\""
+                + ",\"files\":" + files
+                + ",\"sourceBytes\":" + sourceBytes
+                + ",\"indexMillis\":" + indexMillis
+                + ",\"filesIndexed\":" + filesIndexed
+                + ",\"filesFailed\":" + filesFailed
+                + ",\"symbols\":" + symbols
+                + ",\"resolutionSuccessRate\":" + resolutionSuccessRate
+                + ",\"failedResolutionMillis\":" + failedResolutionMillis
+                + ",\"peakHeapBytes\":" + peakHeapBytes
+                + ",\"databaseBytes\":" + databaseBytes
+                + ",\"searches\":" + searches
+                + ",\"searchP50Micros\":" + searchP50Micros
+                + ",\"searchP99Micros\":" + searchP99Micros
+                + "}";
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.benchmarks;
+
+import io.appform.codeindex.models.SearchRequest;
+import io.appform.codeindex.models.Symbol;
+import io.appform.codeindex.models.SymbolKind;
+import io.appform.codeindex.storage.SQLiteStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs each kind of search against an index of synthetic symbols built once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+    private static final int BATCH = 10_000;
+
+    /**
+     * Shape of the search request.
+     */
+    public enum Shape {
+        /** Full-text prefix match on the name columns. */
+        FTS,
+        /** Full-text match narrowed by kind and package. */
+        FTS_FILTERED,
+        /** Substring match on the class name without a query. */
+        LIKE,
+        /** File path glob without a query. */
+        GLOB,
+        /** Full-text match for one member of one class, returning a single symbol. */
+        LOOKUP,
+        /** Full-text match on a word inside camelCase class names. */
+        SUBWORD
+    }
+
+    @Param({"100000"})
+    private int symbols;
+
+    @Param({"FTS", "FTS_FILTERED", "LIKE", "GLOB", "SUBWORD"})
+    private Shape shape;
+
+    private Path directory;
+    private SQLiteStorage storage;
+    private SearchRequest request;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException, SQLException {
+        directory = Files.createTempDirectory("codeindex-search-bench");
+        storage = new SQLiteStorage(directory.resolve("search.db").toString());
+        storage.beginBulkLoad();
+        for (int i = 0; i < symbols; i += BATCH) {
+            storage.saveSymbols(BenchmarkData.symbols(i, Math.min(BATCH, symbols - i)));
+        }
+        storage.finishBulkLoad();
+        request = request(shape);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        storage.close();
+        BenchmarkData.deleteRecursively(directory);
+    }
+
+    /**
+     * The request issued for a shape.
+     */
+    static SearchRequest request(Shape shape) {
+        return switch (shape) {
+            case FTS -> SearchRequest.builder()
+                    .query("Order")
+                    .build();
+            case FTS_FILTERED -> SearchRequest.builder()
+                    .query("process")
+                    .kinds(Set.of(SymbolKind.METHOD))
+                    .packageName("com.acme.module7")
+                    .build();
+            case LIKE -> SearchRequest.builder()
+                    .className("InvoiceService12")
+                    .build();
+            case GLOB -> SearchRequest.builder()
+                    .filePathGlob("com/acme/module3/*")
+                    .build();
+            case LOOKUP -> SearchRequest.builder()
+                    .query("InvoiceService5001::process3")
+                    .build();
+            case SUBWORD -> SearchRequest.builder()
+                    .query("Service1234")
+                    .build();
+        };
+    }
+
+    @Benchmark
+    public List<Symbol> search() throws SQLException {
+        return storage.search(request);
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.benchmarks;
+
+import io.appform.codeindex.models.SearchRequest;
+import io.appform.codeindex.models.Symbol;
+import io.appform.codeindex.parser.ParserRegistry;
+import io.appform.codeindex.service.CodeIndexer;
+import io.appform.codeindex.storage.SQLiteStorage;
+import io.appform.codeindex.storage.SearchSession;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the latency of a search issued through {@link CodeIndexer#search(SearchRequest)}, which opens
+ * the index for every call, with the same search on an open {@link SearchSession}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchSessionBenchmark {
+    private static final int BATCH = 10_000;
+
+    @Param({"100000"})
+    private int symbols;
+
+    @Param({"LOOKUP", "FTS", "FTS_FILTERED", "LIKE", "GLOB"})
+    private SearchBenchmark.Shape shape;
+
+    private Path directory;
+    private CodeIndexer indexer;
+    private SearchSession session;
+    private SearchRequest request;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException, SQLException {
+        directory = Files.createTempDirectory("codeindex-session-bench");
+        final var dbPath = directory.resolve("search.db").toString();
+        try (SQLiteStorage storage = new SQLiteStorage(dbPath)) {
+            storage.beginBulkLoad();
+            for (int i = 0; i < symbols; i += BATCH) {
+                storage.saveSymbols(BenchmarkData.symbols(i, Math.min(BATCH, symbols - i)));
+            }
+            storage.finishBulkLoad();
+        }
+        indexer = new CodeIndexer(dbPath, new ParserRegistry());
+        session = indexer.openSearchSession();
+        request = SearchBenchmark.request(shape);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        session.close();
+        indexer.close();
+        BenchmarkData.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public List<Symbol> withoutSession() throws SQLException {
+        return indexer.search(request);
+    }
+
+    @Benchmark
+    public List<Symbol> withSession() throws SQLException {
+        return session.search(request);
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.benchmarks;
+
+import io.appform.codeindex.models.Symbol;
+import io.appform.codeindex.storage.SQLiteStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes a fixed number of symbols per invocation, split into transactions of {@code batchSize} rows.
+ * Scores are in rows per second, so the cost of each commit shows up directly as the batch shrinks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StorageWriteBenchmark {
+    private static final int ROWS_PER_INVOCATION = 10_000;
+
+    @Param({"100", "1000", "10000"})
+    private int batchSize;
+
+    @Param({"false", "true"})
+    private boolean bulkLoad;
+
+    private final List<List<Symbol>> batches = new ArrayList<>();
+    private Path directory;
+    private SQLiteStorage storage;
+    private int invocations;
+
+    @Setup(Level.Trial)
+    public void prepareBatches() throws IOException {
+        directory = Files.createTempDirectory("codeindex-storage-bench");
+        final var symbols = BenchmarkData.symbols(0, ROWS_PER_INVOCATION);
+        for (int i = 0; i < symbols.size(); i += batchSize) {
+            batches.add(symbols.subList(i, Math.min(i + batchSize, symbols.size())));
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void openStorage() throws SQLException {
+        storage = new SQLiteStorage(directory.resolve("iteration-" + invocations++ + ".db").toString());
+        if (bulkLoad) {
+            storage.beginBulkLoad();
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeStorage() throws SQLException {
+        storage.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkData.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS_PER_INVOCATION)
+    public void saveSymbols() throws SQLException {
+        for (List<Symbol> batch : batches) {
+            storage.saveSymbols(batch);
+        }
+    }
+}
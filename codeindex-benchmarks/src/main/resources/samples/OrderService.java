@@ -0,0 +1,191 @@
+package com.acme.billing;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Sample source used by the parser benchmarks. It mixes the constructs found in typical service code:
+ * fields, generics, lambdas, nested types, enums and calls into the JDK.
+ */
+public class OrderService {
+    private static final BigDecimal TAX_RATE = new BigDecimal("0.18");
+    private static final int MAX_ITEMS = 500;
+
+    private final Map<String, Order> orders = new ConcurrentHashMap<>();
+    private final Map<String, List<OrderListener>> listeners = new HashMap<>();
+    private final Clock clock;
+    private int created;
+
+    public OrderService(Clock clock) {
+        this.clock = Objects.requireNonNull(clock);
+    }
+
+    public Order create(String customerId, List<LineItem> items) {
+        if (items.size() > MAX_ITEMS) {
+            throw new IllegalArgumentException("Too many items: " + items.size());
+        }
+        final var id = customerId + "-" + (++created);
+        final var order = new Order(id, customerId, new ArrayList<>(items), Status.OPEN, clock.instant());
+        orders.put(id, order);
+        notify(order, "created");
+        return order;
+    }
+
+    public Optional<Order> find(String id) {
+        return Optional.ofNullable(orders.get(id));
+    }
+
+    public List<Order> findByCustomer(String customerId) {
+        return orders.values().stream()
+                .filter(order -> order.getCustomerId().equals(customerId))
+                .sorted((a, b) -> a.getCreatedAt().compareTo(b.getCreatedAt()))
+                .collect(Collectors.toList());
+    }
+
+    public BigDecimal total(String id) {
+        final var order = find(id).orElseThrow(() -> new IllegalStateException("Unknown order " + id));
+        final var subtotal = order.getItems().stream()
+                .map(LineItem::amount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return subtotal.add(subtotal.multiply(TAX_RATE)).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    public Order transition(String id, Status next) {
+        final var order = find(id).orElseThrow(() -> new IllegalStateException("Unknown order " + id));
+        if (!order.getStatus().canMoveTo(next)) {
+            throw new IllegalStateException(order.getStatus() + " cannot move to " + next);
+        }
+        final var updated = order.withStatus(next);
+        orders.put(id, updated);
+        notify(updated, next.name().toLowerCase());
+        return updated;
+    }
+
+    public Map<Status, Long> countByStatus() {
+        return orders.values().stream()
+                .collect(Collectors.groupingBy(Order::getStatus, Collectors.counting()));
+    }
+
+    public List<Order> select(Predicate<Order> filter, int limit) {
+        final var selected = new ArrayList<Order>();
+        for (Order order : orders.values()) {
+            if (selected.size() >= limit) {
+                break;
+            }
+            if (filter.test(order)) {
+                selected.add(order);
+            }
+        }
+        return Collections.unmodifiableList(selected);
+    }
+
+    public void addListener(String event, OrderListener listener) {
+        listeners.computeIfAbsent(event, key -> new ArrayList<>()).add(listener);
+    }
+
+    private void notify(Order order, String event) {
+        final var registered = listeners.getOrDefault(event, List.of());
+        for (OrderListener listener : registered) {
+            try {
+                listener.onEvent(order, event);
+            }
+            catch (RuntimeException e) {
+                System.err.println("Listener failed for " + order.getId() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    public interface OrderListener {
+        void onEvent(Order order, String event);
+    }
+
+    public enum Status {
+        OPEN,
+        PAID,
+        SHIPPED,
+        CANCELLED;
+
+        boolean canMoveTo(Status next) {
+            switch (this) {
+                case OPEN:
+                    return next == PAID || next == CANCELLED;
+                case PAID:
+                    return next == SHIPPED || next == CANCELLED;
+                default:
+                    return false;
+            }
+        }
+    }
+
+    public static final class LineItem {
+        private final String sku;
+        private final int quantity;
+        private final BigDecimal unitPrice;
+
+        public LineItem(String sku, int quantity, BigDecimal unitPrice) {
+            this.sku = sku;
+            this.quantity = quantity;
+            this.unitPrice = unitPrice;
+        }
+
+        public String getSku() {
+            return sku;
+        }
+
+        public BigDecimal amount() {
+            return unitPrice.multiply(BigDecimal.valueOf(quantity));
+        }
+    }
+
+    public static final class Order {
+        private final String id;
+        private final String customerId;
+        private final List<LineItem> items;
+        private final Status status;
+        private final Instant createdAt;
+
+        Order(String id, String customerId, List<LineItem> items, Status status, Instant createdAt) {
+            this.id = id;
+            this.customerId = customerId;
+            this.items = items;
+            this.status = status;
+            this.createdAt = createdAt;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getCustomerId() {
+            return customerId;
+        }
+
+        public List<LineItem> getItems() {
+            return items;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public Instant getCreatedAt() {
+            return createdAt;
+        }
+
+        Order withStatus(Status next) {
+            return new Order(id, customerId, items, next, createdAt);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+"""Sample module used by the parser benchmarks."""
+
+import dataclasses
+import enum
+import logging
+from collections import defaultdict
+from typing import Dict, Iterable, List, Optional
+
+LOG = logging.getLogger(__name__)
+DEFAULT_WAREHOUSE = "central"
+MAX_RESERVATION = 1000
+
+
+class StockStatus(enum.Enum):
+    IN_STOCK = "in_stock"
+    LOW = "low"
+    OUT = "out"
+
+
+@dataclasses.dataclass
+class Item:
+    sku: str
+    name: str
+    quantity: int = 0
+    reorder_level: int = 10
+
+    def status(self) -> StockStatus:
+        if self.quantity <= 0:
+            return StockStatus.OUT
+        if self.quantity < self.reorder_level:
+            return StockStatus.LOW
+        return StockStatus.IN_STOCK
+
+
+class InventoryError(Exception):
+    pass
+
+
+class Warehouse:
+    def __init__(self, name: str = DEFAULT_WAREHOUSE):
+        self.name = name
+        self._items: Dict[str, Item] = {}
+        self._reservations = defaultdict(int)
+
+    def add(self, item: Item) -> None:
+        if item.sku in self._items:
+            raise InventoryError(f"duplicate sku {item.sku}")
+        self._items[item.sku] = item
+
+    def get(self, sku: str) -> Optional[Item]:
+        return self._items.get(sku)
+
+    def restock(self, sku: str, quantity: int) -> Item:
+        item = self._require(sku)
+        item.quantity += quantity
+        LOG.info("restocked %s by %d", sku, quantity)
+        return item
+
+    def reserve(self, sku: str, quantity: int) -> int:
+        if quantity > MAX_RESERVATION:
+            raise InventoryError("reservation too large")
+        item = self._require(sku)
+        available = item.quantity - self._reservations[sku]
+        if available < quantity:
+            raise InventoryError(f"only {available} of {sku} available")
+        self._reservations[sku] += quantity
+        return available - quantity
+
+    def release(self, sku: str, quantity: int) -> None:
+        current = self._reservations[sku]
+        self._reservations[sku] = max(0, current - quantity)
+
+    def low_stock(self) -> List[Item]:
+        return [item for item in self._items.values() if item.status() is StockStatus.LOW]
+
+    def report(self) -> Dict[str, int]:
+        totals = defaultdict(int)
+        for item in self._items.values():
+            totals[item.status().value] += 1
+        return dict(totals)
+
+    def _require(self, sku: str) -> Item:
+        item = self._items.get(sku)
+        if item is None:
+            raise InventoryError(f"unknown sku {sku}")
+        return item
+
+
+class Network:
+    def __init__(self, warehouses: Iterable[Warehouse]):
+        self.warehouses = {warehouse.name: warehouse for warehouse in warehouses}
+
+    def locate(self, sku: str) -> List[str]:
+        found = []
+        for name, warehouse in self.warehouses.items():
+            item = warehouse.get(sku)
+            if item is not None and item.quantity > 0:
+                found.append(name)
+        return sorted(found)
+
+    def transfer(self, sku: str, source: str, target: str, quantity: int) -> None:
+        origin = self.warehouses[source]
+        destination = self.warehouses[target]
+        origin.reserve(sku, quantity)
+        try:
+            origin.restock(sku, -quantity)
+            if destination.get(sku) is None:
+                template = origin.get(sku)
+                destination.add(Item(sku=sku, name=template.name))
+            destination.restock(sku, quantity)
+        finally:
+            origin.release(sku, quantity)
+
+
+def summarize(network: Network) -> Dict[str, Dict[str, int]]:
+    return {name: warehouse.report() for name, warehouse in network.warehouses.items()}
+
+
+def main() -> None:
+    logging.basicConfig(level=logging.INFO)
+    central = Warehouse()
+    central.add(Item(sku="A-1", name="Anvil", quantity=5))
+    network = Network([central, Warehouse("east")])
+    network.transfer("A-1", "central", "east", 2)
+    print(summarize(network))
+
+
+if __name__ == "__main__":
+    main()
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.benchmarks;
+
+import io.appform.codeindex.models.IndexRequest;
+import io.appform.codeindex.models.SymbolKind;
+import io.appform.codeindex.parser.ParserRegistry;
+import io.appform.codeindex.python.parser.PythonParser;
+import io.appform.codeindex.service.CodeIndexer;
+import io.appform.codeindex.storage.SQLiteStorage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CorpusGeneratorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testGenerationIsDeterministic() throws Exception {
+        final var spec = CorpusSpec.builder().files(30).packages(3).build();
+        new CorpusGenerator(spec).generate(tempDir.resolve("a"));
+        new CorpusGenerator(spec).generate(tempDir.resolve("b"));
+        new CorpusGenerator(spec.toBuilder().seed(7).build()).generate(tempDir.resolve("c"));
+
+        assertEquals(contents(tempDir.resolve("a")), contents(tempDir.resolve("b")));
+        assertNotEquals(contents(tempDir.resolve("a")), contents(tempDir.resolve("c")));
+        assertEquals(30, contents(tempDir.resolve("a")).size());
+    }
+
+    @Test
+    void testJavaCorpusResolvesAcrossPackages() throws Exception {
+        final var project = tempDir.resolve("java");
+        final var spec = CorpusSpec.builder()
+                .files(20)
+                .packages(4)
+                .modules(2)
+                .methodsPerClass(3)
+                .callsPerMethod(2)
+                .crossPackageRatio(1)
+                .build();
+        new CorpusGenerator(spec).generate(project);
+
+        final var dbPath = tempDir.resolve("java.db").toString();
+        final var summary = new CodeIndexer(dbPath, new ParserRegistry()).index(IndexRequest.builder()
+                .projectPath(project.toString())
+                .build());
+        assertEquals(20, summary.getFilesIndexed());
+        assertEquals(0, summary.getFilesFailed());
+        assertTrue(Files.isDirectory(project.resolve("module-1/src/main/java")));
+        assertEquals(0, summary.getResolution().getFailures());
+
+        try (SQLiteStorage storage = new SQLiteStorage(dbPath)) {
+            final var symbols = storage.getAllSymbols(Set.of(SymbolKind.CLASS, SymbolKind.REFERENCE));
+            assertEquals(20, symbols.stream().filter(s -> s.getKind() == SymbolKind.CLASS).count());
+            final var crossPackage = symbols.stream()
+                    .filter(s -> s.getKind() == SymbolKind.REFERENCE)
+                    .filter(s -> s.getReferenceTo() != null
+                            && s.getReferenceTo().startsWith(CorpusGenerator.JAVA_BASE_PACKAGE)
+                            && !s.getReferenceTo().startsWith(s.getPackageName() + "."))
+                    .count();
+            assertTrue(crossPackage >= 20 * 3 * 2, "Calls should resolve into other packages: " + crossPackage);
+        }
+    }
+
+    @Test
+    void testPythonCorpusParses() throws Exception {
+        final var project = tempDir.resolve("python");
+        new CorpusGenerator(CorpusSpec.builder()
+                .language(CorpusSpec.Language.PYTHON)
+                .files(10)
+                .packages(2)
+                .build()).generate(project);
+
+        final var registry = new ParserRegistry();
+        registry.register(new PythonParser());
+        final var summary = new CodeIndexer(tempDir.resolve("python.db").toString(), registry)
+                .index(project.toString());
+        // Ten modules plus the package __init__ files
+        assertEquals(13, summary.getFilesIndexed());
+        assertEquals(0, summary.getFilesFailed());
+    }
+
+    @Test
+    void testInvalidSpec() {
+        assertThrows(IllegalArgumentException.class,
+                     () -> new CorpusGenerator(CorpusSpec.builder().files(2).packages(3).build()));
+        assertThrows(IllegalArgumentException.class,
+                     () -> new CorpusGenerator(CorpusSpec.builder().crossPackageRatio(2).build()));
+        assertThrows(IllegalArgumentException.class,
+                     () -> new CorpusGenerator(CorpusSpec.builder().files(4).packages(2).modules(3).build()));
+    }
+
+    private static TreeMap<String, String> contents(Path root) throws Exception {
+        final var contents = new TreeMap<String, String>();
+        try (Stream<Path> files = Files.walk(root)) {
+            for (Path file : files.filter(f -> f.toString().endsWith(".java")).toList()) {
+                contents.put(root.relativize(file).toString(), Files.readString(file));
+            }
+        }
+        return contents;
+    }
+}
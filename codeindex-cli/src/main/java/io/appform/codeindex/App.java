@@ -16,21 +16,28 @@
 
 package io.appform.codeindex;
 
+import io.appform.codeindex.models.IndexRequest;
+import io.appform.codeindex.models.ResolutionMode;
+import io.appform.codeindex.models.SearchPage;
 import io.appform.codeindex.models.SearchRequest;
 import io.appform.codeindex.models.Symbol;
 import io.appform.codeindex.models.SymbolKind;
 import io.appform.codeindex.parser.ParserRegistry;
 import io.appform.codeindex.service.CodeIndexer;
 import io.appform.codeindex.service.CodeExporter;
+import io.appform.codeindex.service.ProjectWatcher;
+import io.appform.codeindex.storage.SQLiteStorage;
 import lombok.extern.slf4j.Slf4j;
 import picocli.CommandLine;
 import picocli.CommandLine.Command;
+import picocli.CommandLine.Mixin;
 import picocli.CommandLine.Option;
 import picocli.CommandLine.Parameters;
 
 import java.io.File;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Callable;
@@ -55,22 +62,154 @@ public class App implements Callable<Integer> {
         @Parameters(index = "1", description = "Path to the SQLite database file")
         private String dbPath;
 
-        @Option(names = {"-cp", "--classpath"}, description = "Comma-separated list of jar files or directories for type resolution", split = ",")
-        private List<String> classpath;
+        @Mixin
+        private ResolverOptions resolverOptions;
+
+        @Mixin
+        private ParsingOptions parsingOptions;
+
+        @Mixin
+        private TimeLimitOption timeLimitOption;
 
         @Override
         public Integer call() throws Exception {
-            final var registry = new ParserRegistry();
-            final var indexer = new CodeIndexer(dbPath, registry);
-            final var cpPaths = classpath != null
-                    ? classpath.stream().map(Paths::get).collect(Collectors.toList())
-                    : List.<Path>of();
-            indexer.index(projectPath, cpPaths);
+            final var request = IndexRequest.builder().projectPath(projectPath);
+            resolverOptions.applyTo(request);
+            parsingOptions.applyTo(request);
+            timeLimitOption.applyTo(request);
+            try (CodeIndexer indexer = new CodeIndexer(dbPath, new ParserRegistry())) {
+                indexer.index(request.build());
+            }
             log.info("Indexing complete!");
             return 0;
         }
     }
 
+    @Command(name = "watch", description = "Index a project directory and keep the index up to date as files change")
+    static class WatchCommand implements Callable<Integer> {
+        @Parameters(index = "0", description = "Path to the project to watch")
+        private String projectPath;
+
+        @Parameters(index = "1", description = "Path to the SQLite database file")
+        private String dbPath;
+
+        @Mixin
+        private ResolverOptions resolverOptions;
+
+        @Mixin
+        private ParsingOptions parsingOptions;
+
+        @Option(names = {"--debounce-ms"}, description = "Quiet period before a burst of changes is applied", defaultValue = "200")
+        private long debounceMs;
+
+        @Override
+        public Integer call() throws Exception {
+            final var request = IndexRequest.builder().projectPath(projectPath);
+            resolverOptions.applyTo(request);
+            parsingOptions.applyTo(request);
+            try (CodeIndexer indexer = new CodeIndexer(dbPath, new ParserRegistry());
+                    ProjectWatcher watcher = indexer.watch(request.build(), Duration.ofMillis(debounceMs))) {
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    try {
+                        watcher.close();
+                    }
+                    catch (Exception e) {
+                        log.warn("Failed to close watcher cleanly", e);
+                    }
+                }));
+                log.info("Watching {} for changes. Press Ctrl+C to stop.", projectPath);
+                watcher.run();
+            }
+            return 0;
+        }
+    }
+
+    @Command(name = "resolve", description = "Resolve references left unresolved by indexing with --resolution LAZY")
+    static class ResolveCommand implements Callable<Integer> {
+        @Parameters(index = "0", description = "Path to the indexed project")
+        private String projectPath;
+
+        @Parameters(index = "1", description = "Path to the SQLite database file")
+        private String dbPath;
+
+        @Mixin
+        private ResolverOptions resolverOptions;
+
+        @Mixin
+        private TimeLimitOption timeLimitOption;
+
+        @Override
+        public Integer call() throws Exception {
+            final var request = IndexRequest.builder()
+                    .projectPath(projectPath)
+                    .resolution(ResolutionMode.FULL);
+            resolverOptions.applyTo(request);
+            timeLimitOption.applyTo(request);
+            final int resolved;
+            try (CodeIndexer indexer = new CodeIndexer(dbPath, new ParserRegistry())) {
+                resolved = indexer.resolveReferences(request.build());
+            }
+            log.info("Resolved references in {} files", resolved);
+            return 0;
+        }
+    }
+
+    /**
+     * Options for loading parsers and resolving references, shared by every command that parses files.
+     */
+    static class ResolverOptions {
+        @Option(names = {"-cp", "--classpath"}, description = "Comma-separated list of jar files or directories for type resolution", split = ",")
+        private List<String> classpath;
+
+        @Option(names = {"-t", "--threads"}, description = "Number of parser threads (defaults to the number of available processors)")
+        private Integer threads;
+
+        @Option(names = {"--type-cache-entries"}, description = "Maximum entries in each type resolution cache, 0 for no limit (default: ${DEFAULT-VALUE})", defaultValue = "0")
+        private int typeCacheEntries;
+
+        @Option(names = {"--resolution-budget-ms"}, description = "Time allowed for resolving the references of one file, 0 for no limit (default: ${DEFAULT-VALUE})", defaultValue = "0")
+        private long resolutionBudgetMs;
+
+        void applyTo(IndexRequest.IndexRequestBuilder request) {
+            request.classpath(classpath != null
+                            ? classpath.stream().map(Paths::get).collect(Collectors.toList())
+                            : List.<Path>of())
+                    .typeCacheEntries(typeCacheEntries)
+                    .fileResolutionBudgetMs(resolutionBudgetMs);
+            if (threads != null) {
+                request.threads(threads);
+            }
+        }
+    }
+
+    /**
+     * Options for commands that parse and write files, rather than only resolve references.
+     */
+    static class ParsingOptions {
+        @Option(names = {"--parse-cache"}, description = "Path of a parse cache database shared between indexes of the same code")
+        private String parseCache;
+
+        @Option(names = {"--resolution"}, description = "Reference resolution: NONE, LAZY or FULL (default: ${DEFAULT-VALUE})", defaultValue = "FULL")
+        private ResolutionMode resolution;
+
+        void applyTo(IndexRequest.IndexRequestBuilder request) {
+            request.parseCachePath(parseCache)
+                    .resolution(resolution);
+        }
+    }
+
+    /**
+     * Time limit of commands that run to completion.
+     */
+    static class TimeLimitOption {
+        @Option(names = {"--time-limit-ms"}, description = "Time after which the run stops, keeping the files indexed so far, 0 for no limit (default: ${DEFAULT-VALUE})", defaultValue = "0")
+        private long timeLimitMs;
+
+        void applyTo(IndexRequest.IndexRequestBuilder request) {
+            request.timeLimitMs(timeLimitMs);
+        }
+    }
+
     @Command(name = "search", description = "Search the index for symbols")
     static class SearchCommand implements Callable<Integer> {
         @Parameters(index = "0", description = "Path to the SQLite database file")
@@ -94,10 +233,11 @@ public class App implements Callable<Integer> {
         @Option(names = {"-l", "--limit"}, description = "Limit the number of results", defaultValue = "1000")
         private int limit;
 
+        @Option(names = "--cursor", description = "Continue after the page that printed this cursor")
+        private String cursor;
+
         @Override
         public Integer call() throws Exception {
-            final var registry = new ParserRegistry();
-            final var indexer = new CodeIndexer(dbPath, registry);
             final var request = SearchRequest.builder()
                     .query(query)
                     .kinds(kinds)
@@ -105,16 +245,24 @@ public class App implements Callable<Integer> {
                     .className(className)
                     .packageName(packageName)
                     .limit(limit)
+                    .cursor(cursor)
                     .build();
-            final var results = indexer.search(request);
-            System.out.println("Found " + results.size() + " matches:");
-            for (Symbol symbol : results) {
+            // Opens the index read-only and skips parser discovery, which searching does not need
+            final SearchPage page;
+            try (SQLiteStorage storage = SQLiteStorage.openReadOnly(dbPath)) {
+                page = storage.searchPage(request);
+            }
+            System.out.println("Found " + page.getSymbols().size() + " matches:");
+            for (Symbol symbol : page.getSymbols()) {
                 final var displayName = symbol.getClassName() != null
                         ? symbol.getClassName() + "::" + symbol.getName()
                         : symbol.getName();
                 System.out.printf("[%s] %s -> %s:%d (%s)%n",
                         symbol.getKind(), displayName, symbol.getFilePath(), symbol.getLine(), symbol.getSignature());
             }
+            if (page.getNextCursor() != null) {
+                System.out.println("More matches follow: --cursor " + page.getNextCursor());
+            }
             return 0;
         }
     }
@@ -145,8 +293,11 @@ public class App implements Callable<Integer> {
     public static void main(String[] args) {
         int exitCode = new CommandLine(new App())
                 .addSubcommand(new IndexCommand())
+                .addSubcommand(new WatchCommand())
+                .addSubcommand(new ResolveCommand())
                 .addSubcommand(new SearchCommand())
                 .addSubcommand(new ExportCommand())
+                .setCaseInsensitiveEnumValuesAllowed(true)
                 .setExecutionStrategy(new CommandLine.RunLast())
                 .execute(args);
         // We don't want to call System.exit(exitCode) during unit tests if they call main directly
@@ -25,6 +25,7 @@ import org.junit.jupiter.api.io.TempDir;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 import java.util.List;
 import java.util.Set;
 
@@ -168,4 +169,32 @@ class IndexingIntegrationTest {
             assertTrue(symbolsFromA.stream().anyMatch(s -> s.getName().equals("m1")));
         }
     }
+
+    @Test
+    void testReindexReplacesChangedFiles() throws Exception {
+        Path srcDir = tempDir.resolve("src-reindex");
+        Files.createDirectories(srcDir);
+        Path javaFile = srcDir.resolve("A.java");
+        Files.writeString(javaFile, "package p1; class A { void before(){} }");
+
+        Path dbPath = tempDir.resolve("reindex.db");
+        App.main(new String[]{"index", srcDir.toString(), dbPath.toString()});
+        App.main(new String[]{"index", srcDir.toString(), dbPath.toString()});
+
+        try (SQLiteStorage storage = new SQLiteStorage(dbPath.toString())) {
+            assertEquals(1, storage.search("before").size());
+        }
+
+        Files.writeString(javaFile, "package p1; class A { void after(){} }");
+        Files.setLastModifiedTime(javaFile, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+        App.main(new String[]{"index", srcDir.toString(), dbPath.toString()});
+
+        try (SQLiteStorage storage = new SQLiteStorage(dbPath.toString())) {
+            assertTrue(storage.search("before").isEmpty());
+            assertEquals(1, storage.search("after").size());
+            assertEquals(1, storage.search(SearchRequest.builder()
+                    .kinds(Set.of(SymbolKind.CLASS))
+                    .build()).size());
+        }
+    }
 }
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.crawler;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A walk of a source tree running on its own thread.
+ *
+ * <p>The walk uses {@link Files#walkFileTree} so ignored directories are skipped without being
+ * listed, and hands matching files over a bounded queue, so the files can be consumed while the walk
+ * is still running. The crawl can be iterated once. The counters are final once iteration has
+ * finished.
+ */
+@Slf4j
+public class Crawl implements Iterable<Path>, AutoCloseable {
+    private static final int QUEUE_CAPACITY = 1024;
+    private static final Path END_OF_CRAWL = Path.of("");
+
+    private final Path root;
+    private final Visitor visitor;
+    private final BlockingQueue<Path> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Thread walker;
+    private volatile boolean closed;
+    private volatile Exception failure;
+    private volatile int filesFound;
+    private boolean iterated;
+
+    Crawl(Path root, ExtensionLookup<?> extensions, IgnoreRules rootRules) {
+        this.root = root;
+        this.visitor = new Visitor(extensions, rootRules);
+        this.walker = new Thread(this::walk, "codeindex-crawler");
+        walker.setDaemon(true);
+    }
+
+    void start() {
+        walker.start();
+    }
+
+    /** Files that matched an indexed extension and were not ignored. */
+    public int getFilesFound() {
+        return filesFound;
+    }
+
+    /** Files with an indexed extension that were skipped by an ignore rule. */
+    public int getFilesIgnored() {
+        return visitor.getFilesIgnored();
+    }
+
+    /** Directories skipped by an ignore rule; files below them are never visited, so they are not counted. */
+    public int getDirectoriesPruned() {
+        return visitor.getDirectoriesPruned();
+    }
+
+    /**
+     * Whether every directory of the tree could be listed, once all files have been taken. Files under a
+     * directory that could not be read were not found, which does not mean that they are gone.
+     */
+    public boolean isComplete() {
+        return visitor.getPathsUnreadable() == 0;
+    }
+
+    @Override
+    public synchronized Iterator<Path> iterator() {
+        if (iterated) {
+            throw new IllegalStateException("A crawl can only be iterated once");
+        }
+        iterated = true;
+        return new Iterator<>() {
+            private Path next;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null) {
+                    next = take();
+                }
+                return next != END_OF_CRAWL;
+            }
+
+            @Override
+            public Path next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                final var result = next;
+                next = null;
+                return result;
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        walker.interrupt();
+    }
+
+    private Path take() {
+        final Path path;
+        try {
+            path = queue.take();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the crawl", e);
+        }
+        if (path == END_OF_CRAWL && failure != null) {
+            if (failure instanceof IOException e) {
+                throw new UncheckedIOException("Crawl of " + root + " failed", e);
+            }
+            throw new IllegalStateException("Crawl of " + root + " failed", failure);
+        }
+        return path;
+    }
+
+    private void walk() {
+        try {
+            Files.walkFileTree(root, visitor);
+        }
+        catch (IOException | RuntimeException e) {
+            // Rethrown to the consumer, which would otherwise wait for the end of the crawl forever
+            failure = e;
+        }
+        if (closed) {
+            return;
+        }
+        if (!queue.offer(END_OF_CRAWL)) {
+            try {
+                queue.put(END_OF_CRAWL);
+            }
+            catch (InterruptedException e) {
+                log.debug("Crawl of {} closed before it was consumed", root);
+            }
+        }
+    }
+
+    private final class Visitor extends SourceTreeVisitor {
+        private Visitor(ExtensionLookup<?> extensions, IgnoreRules rootRules) {
+            super(root, extensions, rootRules);
+        }
+
+        @Override
+        protected FileVisitResult enterDirectory(Path dir, IgnoreRules rules) {
+            return closed ? FileVisitResult.TERMINATE : FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        protected FileVisitResult acceptFile(Path file) {
+            if (closed) {
+                return FileVisitResult.TERMINATE;
+            }
+            try {
+                queue.put(file);
+            }
+            catch (InterruptedException e) {
+                // Only close() interrupts the walker
+                return FileVisitResult.TERMINATE;
+            }
+            filesFound++;
+            return FileVisitResult.CONTINUE;
+        }
+    }
+}
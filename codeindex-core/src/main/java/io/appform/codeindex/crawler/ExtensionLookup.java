@@ -0,0 +1,73 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.crawler;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Maps file extensions to values without allocating per lookup.
+ *
+ * <p>Extensions are turned into {@code ".ext"} suffixes once, and file names are
+ * matched with {@link String#endsWith}, so the crawl does not cut a substring out of every name it
+ * sees. Matching is case-sensitive, like the parsers' own extension sets.
+ */
+public class ExtensionLookup<T> {
+    private final String[] suffixes;
+    private final Object[] values;
+
+    public ExtensionLookup(Map<String, T> byExtension) {
+        final var entries = List.copyOf(byExtension.entrySet());
+        this.suffixes = new String[entries.size()];
+        this.values = new Object[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            suffixes[i] = "." + entries.get(i).getKey();
+            values[i] = entries.get(i).getValue();
+        }
+    }
+
+    /**
+     * A lookup that only tells whether a file has one of the given extensions.
+     */
+    public static ExtensionLookup<String> of(Set<String> extensions) {
+        return new ExtensionLookup<>(extensions.stream()
+                .collect(Collectors.toMap(Function.identity(), Function.identity())));
+    }
+
+    public boolean matches(Path path) {
+        return find(path) != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T find(Path path) {
+        final var fileName = path.getFileName();
+        if (fileName == null) {
+            return null;
+        }
+        final var name = fileName.toString();
+        for (int i = 0; i < suffixes.length; i++) {
+            if (name.endsWith(suffixes[i])) {
+                return (T) values[i];
+            }
+        }
+        return null;
+    }
+}
@@ -23,32 +23,42 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
-
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Slf4j
 public class FileCrawler {
     public List<Path> crawl(String rootPath, Set<String> supportedExtensions) throws IOException {
+        try (Stream<Path> files = stream(rootPath, supportedExtensions)) {
+            return files.collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Lazily walks the tree under {@code rootPath}, yielding matching files as they are found.
+     *
+     * <p>Callers can start consuming files before the walk is complete. The stream must be closed.
+     */
+    public Stream<Path> stream(String rootPath, Set<String> supportedExtensions) throws IOException {
+        final var crawl = open(rootPath, supportedExtensions);
+        return StreamSupport.stream(crawl.spliterator(), false).onClose(crawl::close);
+    }
+
+    /**
+     * Starts walking the tree under {@code rootPath} on a background thread.
+     *
+     * <p>Directories matched by the default ignore patterns, a {@code .gitignore} or the project's
+     * {@code .codeindexignore} are pruned without being listed.
+     */
+    public Crawl open(String rootPath, Set<String> supportedExtensions) throws IOException {
         final var root = Paths.get(rootPath);
         if (!Files.exists(root) || !Files.isDirectory(root)) {
             throw new IllegalArgumentException("Invalid root path: " + rootPath);
         }
-
-        try (Stream<Path> s = Files.walk(root)) {
-            return s.filter(Files::isRegularFile)
-                    .filter(path -> {
-                        final var fileName = path.getFileName().toString();
-                        final var lastDotIndex = fileName.lastIndexOf('.');
-                        if (lastDotIndex == -1) {
-                            return false;
-                        }
-                        return supportedExtensions.contains(fileName.substring(lastDotIndex + 1));
-                    })
-                    .collect(Collectors.toList());
-        }
+        final var crawl = new Crawl(root, ExtensionLookup.of(supportedExtensions), IgnoreRules.forProject(root));
+        crawl.start();
+        return crawl;
     }
 }
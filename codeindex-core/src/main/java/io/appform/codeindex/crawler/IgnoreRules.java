@@ -0,0 +1,290 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.crawler;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Ignore rules using {@code .gitignore} syntax.
+ *
+ * <p>Rules are evaluated in order and the last matching rule wins, so a later {@code !pattern} can
+ * re-include a path. A pattern with a slash at the start or in the middle is matched against the path
+ * relative to the directory of the file that declared it; any other pattern matches a name at any
+ * depth below that directory. A trailing slash restricts a pattern to directories. The project's
+ * {@code .codeindexignore} is checked before everything else, including {@code .gitignore} files
+ * found deeper in the tree. A pattern that cannot be matched, such as one with a range like
+ * {@code [z-a]}, is skipped with a warning, the same as git matches nothing with it.
+ */
+@Slf4j
+public class IgnoreRules {
+    public static final String GITIGNORE = ".gitignore";
+    public static final String CODEINDEXIGNORE = ".codeindexignore";
+
+    /** Version control, dependency and cache directories that never hold sources worth indexing. */
+    public static final List<String> DEFAULT_PATTERNS = List.of(
+            ".git/",
+            ".hg/",
+            ".svn/",
+            "node_modules/",
+            "venv/",
+            ".venv/",
+            "__pycache__/");
+
+    /**
+     * Build output directories. They are only ignored right inside a module, since deeper down the same
+     * names are ordinary source packages, such as {@code src/main/java/io/foo/build}.
+     */
+    public static final List<String> BUILD_OUTPUT_PATTERNS = List.of(
+            "/target/",
+            "/build/",
+            "/generated-sources/");
+
+    /** Build files that make the directory holding them a module. The project root always is one. */
+    public static final Set<String> MODULE_FILES = Set.of("pom.xml", "build.gradle", "build.gradle.kts");
+
+    private static final IgnoreRules NONE = new IgnoreRules(List.of(), List.of());
+
+    private final List<Rule> rules;
+    private final List<Rule> overrides;
+
+    private IgnoreRules(List<Rule> rules, List<Rule> overrides) {
+        this.rules = rules;
+        this.overrides = overrides;
+    }
+
+    public static IgnoreRules none() {
+        return NONE;
+    }
+
+    /**
+     * Rules for the root of a crawl: the defaults, then the root {@code .gitignore}, overridden by the
+     * project's {@code .codeindexignore}, which can re-include anything the others exclude.
+     */
+    public static IgnoreRules forProject(Path root) {
+        return NONE.with("", DEFAULT_PATTERNS)
+                .with("", BUILD_OUTPUT_PATTERNS)
+                .with("", read(root.resolve(GITIGNORE)))
+                .overriddenBy(read(root.resolve(CODEINDEXIGNORE)));
+    }
+
+    /**
+     * Adds the build output directories of {@code directory} if it is a module, then the rules of its
+     * {@code .gitignore}, if there is one.
+     *
+     * @param relativeDirectory the directory relative to the crawl root, using {@code /} separators
+     */
+    public IgnoreRules forDirectory(Path directory, String relativeDirectory) {
+        var result = this;
+        if (isModule(directory)) {
+            result = result.with(relativeDirectory, BUILD_OUTPUT_PATTERNS);
+        }
+        final var gitignore = directory.resolve(GITIGNORE);
+        if (Files.isRegularFile(gitignore)) {
+            result = result.with(relativeDirectory, read(gitignore));
+        }
+        return result;
+    }
+
+    public IgnoreRules with(String relativeDirectory, List<String> patterns) {
+        final var added = parse(relativeDirectory, patterns, rules);
+        return added.size() == rules.size() ? this : new IgnoreRules(List.copyOf(added), overrides);
+    }
+
+    /**
+     * Adds rules, declared at the crawl root, that are checked before all others, whenever those were
+     * added.
+     */
+    public IgnoreRules overriddenBy(List<String> patterns) {
+        final var added = parse("", patterns, overrides);
+        return added.size() == overrides.size() ? this : new IgnoreRules(rules, List.copyOf(added));
+    }
+
+    private static List<Rule> parse(String relativeDirectory, List<String> patterns, List<Rule> existing) {
+        final var base = relativeDirectory.isEmpty() ? "" : relativeDirectory + "/";
+        final var added = new ArrayList<>(existing);
+        for (String line : patterns) {
+            final var rule = Rule.parse(base, line);
+            if (rule != null) {
+                added.add(rule);
+            }
+        }
+        return added;
+    }
+
+    private static boolean isModule(Path directory) {
+        for (String file : MODULE_FILES) {
+            if (Files.isRegularFile(directory.resolve(file))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks a path against the rules, letting the last matching rule decide.
+     *
+     * @param relativePath the path relative to the crawl root, using {@code /} separators
+     */
+    public boolean isIgnored(String relativePath, boolean directory) {
+        final var override = lastMatch(overrides, relativePath, directory);
+        if (override != null) {
+            return !override.negated;
+        }
+        final var rule = lastMatch(rules, relativePath, directory);
+        return rule != null && !rule.negated;
+    }
+
+    private static Rule lastMatch(List<Rule> rules, String relativePath, boolean directory) {
+        for (int i = rules.size() - 1; i >= 0; i--) {
+            final var rule = rules.get(i);
+            if (rule.matches(relativePath, directory)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    private static List<String> read(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return List.of();
+        }
+        try {
+            return Files.readAllLines(file);
+        }
+        catch (IOException e) {
+            log.warn("Could not read ignore file {}: {}", file, e.getMessage());
+            return List.of();
+        }
+    }
+
+    private static final class Rule {
+        private final String base;
+        private final Pattern pattern;
+        private final boolean negated;
+        private final boolean directoryOnly;
+
+        private Rule(String base, Pattern pattern, boolean negated, boolean directoryOnly) {
+            this.base = base;
+            this.pattern = pattern;
+            this.negated = negated;
+            this.directoryOnly = directoryOnly;
+        }
+
+        static Rule parse(String base, String line) {
+            var text = stripTrailingSpaces(line);
+            if (text.isEmpty() || text.startsWith("#")) {
+                return null;
+            }
+            final var negated = text.startsWith("!");
+            if (negated || text.startsWith("\\!") || text.startsWith("\\#")) {
+                text = text.substring(1);
+            }
+            final var directoryOnly = text.endsWith("/");
+            if (directoryOnly) {
+                text = text.substring(0, text.length() - 1);
+            }
+            if (text.isEmpty()) {
+                return null;
+            }
+            final var anchored = text.indexOf('/') >= 0;
+            if (text.startsWith("/")) {
+                text = text.substring(1);
+            }
+            final var regex = (anchored ? "" : "(?:.*/)?") + toRegex(text);
+            try {
+                return new Rule(base, Pattern.compile(regex), negated, directoryOnly);
+            }
+            catch (PatternSyntaxException e) {
+                log.warn("Skipping ignore pattern {} that cannot be matched: {}", line, e.getDescription());
+                return null;
+            }
+        }
+
+        boolean matches(String relativePath, boolean directory) {
+            if (directoryOnly && !directory) {
+                return false;
+            }
+            if (!relativePath.startsWith(base)) {
+                return false;
+            }
+            return pattern.matcher(relativePath.substring(base.length())).matches();
+        }
+
+        private static String stripTrailingSpaces(String line) {
+            var end = line.length();
+            while (end > 0 && line.charAt(end - 1) == ' ' && (end < 2 || line.charAt(end - 2) != '\\')) {
+                end--;
+            }
+            return line.substring(0, end);
+        }
+
+        private static String toRegex(String glob) {
+            final var regex = new StringBuilder();
+            var i = 0;
+            while (i < glob.length()) {
+                final var c = glob.charAt(i);
+                if (c == '*' && i + 1 < glob.length() && glob.charAt(i + 1) == '*'
+                        && (i == 0 || glob.charAt(i - 1) == '/')
+                        && (i + 2 == glob.length() || glob.charAt(i + 2) == '/')) {
+                    if (i + 2 == glob.length()) {
+                        regex.append(".*");
+                        i += 2;
+                    } else {
+                        regex.append("(?:.*/)?");
+                        i += 3;
+                    }
+                    continue;
+                }
+                switch (c) {
+                    case '*' -> regex.append("[^/]*");
+                    case '?' -> regex.append("[^/]");
+                    case '[' -> {
+                        final var close = glob.indexOf(']', i + 2);
+                        if (close < 0) {
+                            regex.append("\\[");
+                        } else {
+                            var set = glob.substring(i + 1, close).replace("\\", "\\\\").replace("[", "\\[");
+                            if (set.startsWith("!")) {
+                                set = "^" + set.substring(1);
+                            }
+                            regex.append('[').append(set).append(']');
+                            i = close;
+                        }
+                    }
+                    case '\\' -> {
+                        if (i + 1 < glob.length()) {
+                            i++;
+                            regex.append(Pattern.quote(String.valueOf(glob.charAt(i))));
+                        }
+                    }
+                    default -> regex.append(Pattern.quote(String.valueOf(c)));
+                }
+                i++;
+            }
+            return regex.toString();
+        }
+    }
+}
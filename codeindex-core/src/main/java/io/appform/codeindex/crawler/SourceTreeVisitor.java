@@ -0,0 +1,144 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.crawler;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Walks part of a project tree, applying ignore rules and handing over files with a supported
+ * extension.
+ *
+ * <p>Ignored directories are skipped with {@link FileVisitResult#SKIP_SUBTREE}. The walk can start
+ * below the project root, in which case it is given the rules that apply to its starting directory.
+ */
+@Slf4j
+public abstract class SourceTreeVisitor extends SimpleFileVisitor<Path> {
+    private final Path root;
+    private final ExtensionLookup<?> extensions;
+    private final IgnoreRules startRules;
+    private final Deque<IgnoreRules> rules = new ArrayDeque<>();
+    private volatile int filesIgnored;
+    private volatile int directoriesPruned;
+    private volatile int pathsUnreadable;
+
+    protected SourceTreeVisitor(Path root, ExtensionLookup<?> extensions, IgnoreRules startRules) {
+        this.root = root;
+        this.extensions = extensions;
+        this.startRules = startRules;
+    }
+
+    /** Called for every directory that is walked, with the rules that apply inside it. */
+    protected FileVisitResult enterDirectory(Path dir, IgnoreRules rules) {
+        return FileVisitResult.CONTINUE;
+    }
+
+    /** Called for every file with a supported extension that is not ignored. */
+    protected abstract FileVisitResult acceptFile(Path file);
+
+    /** Files with a supported extension that were skipped by an ignore rule. */
+    public int getFilesIgnored() {
+        return filesIgnored;
+    }
+
+    /** Directories skipped by an ignore rule; files below them are never visited, so they are not counted. */
+    public int getDirectoriesPruned() {
+        return directoriesPruned;
+    }
+
+    /**
+     * Directories, and files with a supported extension, that could not be read. Files below an unreadable
+     * directory were not visited, so a walk with any of these did not see the whole tree.
+     */
+    public int getPathsUnreadable() {
+        return pathsUnreadable;
+    }
+
+    /**
+     * The path relative to the project root, using {@code /} separators, as ignore rules expect.
+     */
+    public static String relativePath(Path root, Path path) {
+        final var relative = root.relativize(path).toString();
+        return File.separatorChar == '/' ? relative : relative.replace(File.separatorChar, '/');
+    }
+
+    @Override
+    public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+        final IgnoreRules current;
+        if (rules.isEmpty()) {
+            current = startRules;
+        } else {
+            final var relative = relativePath(root, dir);
+            if (rules.peek().isIgnored(relative, true)) {
+                directoriesPruned++;
+                return FileVisitResult.SKIP_SUBTREE;
+            }
+            current = rules.peek().forDirectory(dir, relative);
+        }
+        final var result = enterDirectory(dir, current);
+        if (result == FileVisitResult.CONTINUE) {
+            rules.push(current);
+        }
+        return result;
+    }
+
+    @Override
+    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+        if (!extensions.matches(file) || !isRegularFile(file, attrs)) {
+            return FileVisitResult.CONTINUE;
+        }
+        if (rules.peek().isIgnored(relativePath(root, file), false)) {
+            filesIgnored++;
+            return FileVisitResult.CONTINUE;
+        }
+        return acceptFile(file);
+    }
+
+    @Override
+    public FileVisitResult visitFileFailed(Path file, IOException e) {
+        if (!extensions.matches(file) && !Files.isDirectory(file)) {
+            return FileVisitResult.CONTINUE;
+        }
+        log.warn("Skipping unreadable path {}: {}", file, e.getMessage());
+        pathsUnreadable++;
+        return FileVisitResult.CONTINUE;
+    }
+
+    @Override
+    public FileVisitResult postVisitDirectory(Path dir, IOException e) {
+        rules.pop();
+        if (e != null) {
+            log.warn("Could not finish listing {}: {}", dir, e.getMessage());
+            pathsUnreadable++;
+        }
+        return FileVisitResult.CONTINUE;
+    }
+
+    private static boolean isRegularFile(Path file, BasicFileAttributes attrs) {
+        // Directory links are not followed, but links to files are indexed like the files themselves
+        return attrs.isRegularFile() || attrs.isSymbolicLink() && Files.isRegularFile(file);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.file.Path;
+import java.util.List;
+
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class IndexRequest {
+    private String projectPath;
+    @Builder.Default
+    private List<Path> classpath = List.of();
+    @Builder.Default
+    private int threads = Runtime.getRuntime().availableProcessors();
+    @Builder.Default
+    private int queueCapacity = 256;
+    /**
+     * Number of buffered symbols at which the writer commits.
+     */
+    @Builder.Default
+    private int batchSymbols = 10_000;
+    /**
+     * Age of the oldest buffered update at which the writer commits, if the size limit was not hit first.
+     */
+    @Builder.Default
+    private long batchAgeMs = 1_000;
+    /**
+     * Build a new (empty) index in bulk-load mode, deferring FTS and secondary indexes to the end.
+     */
+    @Builder.Default
+    private boolean bulkLoad = true;
+    /**
+     * Path of an on-disk parse cache shared between indexes, or {@code null} to parse every changed file.
+     */
+    private String parseCachePath;
+    /**
+     * Size above which the least recently used parse cache entries are evicted.
+     */
+    @Builder.Default
+    private long parseCacheMaxBytes = 1L << 30;
+    /**
+     * How references are resolved. Changing to a mode that stores more than the index was built with
+     * re-parses every file.
+     */
+    @Builder.Default
+    private ResolutionMode resolution = ResolutionMode.FULL;
+    /**
+     * Maximum number of entries in each cache that parsers keep for reference resolution, such as
+     * resolved types and parsed source files, or 0 for no limit. Least recently used entries are
+     * evicted first and are loaded again when needed.
+     */
+    private int typeCacheEntries;
+    /**
+     * Wall-clock time a parser may spend resolving the references of one file, or 0 for no limit. A file
+     * that runs over is stored with the references resolved so far and counted as degraded.
+     */
+    private long fileResolutionBudgetMs;
+    /**
+     * Wall-clock time after which an index run stops, or 0 for no limit. Files written by then are kept;
+     * the rest are left for the next run.
+     */
+    private long timeLimitMs;
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IndexingSummary {
+    private int filesIndexed;
+    private int filesSkipped;
+    private int filesRemoved;
+    private int filesFailed;
+    /**
+     * Files stored without some of their references because resolving them ran out of time.
+     */
+    private int filesDegraded;
+    /**
+     * Files left for the next run because the time limit of the run was reached.
+     */
+    private int filesDeferred;
+    private int filesIgnored;
+    private int directoriesPruned;
+    private long symbolsWritten;
+    private int cacheHits;
+    private int cacheMisses;
+    /**
+     * Files whose references were resolved by the second pass of a {@link ResolutionMode#LAZY} run.
+     */
+    private int filesResolved;
+    /**
+     * Whether the run stopped at its time limit before every file was indexed and resolved.
+     */
+    private boolean timedOut;
+    /**
+     * Whether part of the project could not be listed, so files missing from the crawl were kept in the index.
+     */
+    private boolean crawlIncomplete;
+    /**
+     * Usage of the parsers' reference resolution caches at the end of the run.
+     */
+    @Builder.Default
+    private List<CacheStatistics> typeCaches = List.of();
+    /**
+     * Reference resolution attempts of the parsers, including those of earlier runs of the same parsers.
+     */
+    @Builder.Default
+    private ResolutionStatistics resolution = ResolutionStatistics.builder().build();
+}
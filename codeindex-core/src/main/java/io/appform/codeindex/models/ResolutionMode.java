@@ -0,0 +1,36 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.models;
+
+/**
+ * How much work parsers put into resolving references while indexing.
+ */
+public enum ResolutionMode {
+    /**
+     * Declarations only. No references are stored and no type solvers are needed.
+     */
+    NONE,
+    /**
+     * Declarations and unresolved references are written first, so the index can be searched right
+     * away. A second pass then resolves the references and fills in their targets.
+     */
+    LAZY,
+    /**
+     * Every reference is resolved while its file is parsed.
+     */
+    FULL
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * How often a parser managed to resolve the references it looked at, and the time it spent trying,
+ * since the parser was created.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResolutionStatistics {
+    private long attempts;
+    private long failures;
+    private long resolutionMillis;
+    /**
+     * Part of {@link #resolutionMillis} spent on references that did not resolve.
+     */
+    private long failedMillis;
+
+    public double getSuccessRate() {
+        return attempts == 0 ? 0 : (double) (attempts - failures) / attempts;
+    }
+
+    /**
+     * Statistics covering both this and {@code other}.
+     */
+    public ResolutionStatistics plus(ResolutionStatistics other) {
+        return new ResolutionStatistics(attempts + other.attempts, failures + other.failures,
+                resolutionMillis + other.resolutionMillis, failedMillis + other.failedMillis);
+    }
+}
@@ -35,4 +35,9 @@ public class SearchRequest {
     private String packageName;
     @Builder.Default
     private int limit = 1000;
+    /**
+     * {@link SearchPage#getNextCursor() Next cursor} of the previous page of this request, or null for
+     * the first page.
+     */
+    private String cursor;
 }
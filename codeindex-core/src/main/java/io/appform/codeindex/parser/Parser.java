@@ -16,17 +16,124 @@
 
 package io.appform.codeindex.parser;
 
+import io.appform.codeindex.models.CacheStatistics;
+import io.appform.codeindex.models.ResolutionMode;
+import io.appform.codeindex.models.ResolutionStatistics;
 import io.appform.codeindex.models.Symbol;
+import io.appform.codeindex.models.SymbolKind;
 import java.nio.file.Path;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
-public interface Parser {
+public interface Parser extends AutoCloseable {
     Set<String> supportedExtensions();
 
+    /**
+     * Prepares the parser for a run over the project at {@code sourceRoot}. It is called again for every
+     * run, and replaces whatever the previous call set up.
+     */
     default void setup(Path sourceRoot, List<Path> classpath) {
         // Default implementation does nothing
     }
 
+    /**
+     * Releases what {@link #setup(Path, List)} opened, such as jar files. The parser can be set up again
+     * afterwards.
+     */
+    @Override
+    default void close() {
+        // Default implementation holds nothing open
+    }
+
+    /**
+     * Sets how references are resolved by later calls to {@link #parse(Path, Path)}. It is called before
+     * {@link #setup(Path, List)}. Parsers that do not resolve references can ignore it.
+     */
+    default void setResolutionMode(ResolutionMode mode) {
+        // Default implementation always produces the same symbols
+    }
+
+    /**
+     * Limits each cache the parser keeps for reference resolution to {@code maxEntries} entries, evicting
+     * the least recently used ones, or lifts the limit if it is 0. It is called before
+     * {@link #setup(Path, List)}.
+     */
+    default void setCacheLimit(int maxEntries) {
+        // Default implementation keeps no caches
+    }
+
+    /**
+     * Usage of the caches the parser keeps for reference resolution.
+     */
+    default List<CacheStatistics> cacheStatistics() {
+        return List.of();
+    }
+
+    /**
+     * How many references the parser tried to resolve, how many failed, and the time spent on them.
+     */
+    default ResolutionStatistics resolutionStatistics() {
+        return ResolutionStatistics.builder().build();
+    }
+
+    /**
+     * Whether {@link #parse(Path, Path)} may be called from several threads at once.
+     * Parsers that keep per-instance parsing state must leave this as {@code false}; the indexer
+     * will then serialize calls to them.
+     */
+    default boolean isThreadSafe() {
+        return false;
+    }
+
+    /**
+     * Identifies this parser, its version and any configuration its output depends on, for the parse
+     * cache. Files with the same content and the same key are served from the cache instead of being
+     * parsed, so the key must change whenever the parser could produce different symbols for the same
+     * bytes. Returning {@code null} keeps the parser out of the cache.
+     */
+    default String cacheKey() {
+        return null;
+    }
+
+    /**
+     * Called by long-running sessions before changed files are parsed again, so that state derived
+     * from their old contents, such as cached source declarations, can be dropped. State loaded from
+     * the classpath does not depend on the project sources and should be kept.
+     */
+    default void filesChanged(Collection<Path> files) {
+        // Default implementation keeps no per-file state
+    }
+
+    /**
+     * Parses a file into its symbols. A file that cannot be read or parsed fails with an unchecked
+     * exception rather than an empty or partial result, so that it is counted as failed and its old
+     * symbols are not replaced. The exception is a large file whose symbols were being written in parts
+     * by {@link #parse(Path, Path, SymbolSink)}, see there.
+     */
     List<Symbol> parse(Path path, Path sourceRoot);
+
+    /**
+     * Parses a file and hands each symbol to {@code sink} as soon as it is produced, so that the
+     * symbols of a large file do not all have to be held at once. The default passes on the result of
+     * {@link #parse(Path, Path)}; parsers that can produce symbols incrementally should override it.
+     * A failure is thrown after the symbols already handed over, which the caller discards. If they
+     * were already being written in parts, the old symbols of the file are gone as well, and the file is
+     * left out of the index until a later run parses it.
+     */
+    default void parse(Path path, Path sourceRoot, SymbolSink sink) {
+        parse(path, sourceRoot).forEach(sink::accept);
+    }
+
+    /**
+     * Fully resolved references of a file, used to complete files indexed in
+     * {@link ResolutionMode#LAZY} mode. They replace every reference stored for the file. The default
+     * takes the references from a regular parse, which suits parsers that ignore the resolution mode.
+     */
+    default List<Symbol> resolveReferences(Path path, Path sourceRoot) {
+        return parse(path, sourceRoot).stream()
+                .filter(symbol -> symbol.getKind() == SymbolKind.REFERENCE)
+                .collect(Collectors.toList());
+    }
 }
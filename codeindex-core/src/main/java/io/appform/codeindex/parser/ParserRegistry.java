@@ -16,19 +16,23 @@
 
 package io.appform.codeindex.parser;
 
+import io.appform.codeindex.crawler.ExtensionLookup;
 import io.appform.codeindex.parser.annotation.DiscoverableParser;
 import lombok.extern.slf4j.Slf4j;
 import org.reflections.Reflections;
 
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 @Slf4j
 public class ParserRegistry {
     private final List<Parser> parsers = new ArrayList<>();
+    private volatile ExtensionLookup<Parser> lookup = new ExtensionLookup<>(Map.of());
 
     public ParserRegistry() {
         discoverParsers();
@@ -57,6 +61,9 @@ public class ParserRegistry {
 
     public void register(Parser parser) {
         parsers.add(parser);
+        final var byExtension = new LinkedHashMap<String, Parser>();
+        parsers.forEach(p -> p.supportedExtensions().forEach(extension -> byExtension.putIfAbsent(extension, p)));
+        lookup = new ExtensionLookup<>(byExtension);
     }
 
     public List<Parser> getParsers() {
@@ -64,16 +71,7 @@ public class ParserRegistry {
     }
 
     public Parser getParserForFile(Path path) {
-        final var fileName = path.getFileName().toString();
-        final var lastDotIndex = fileName.lastIndexOf('.');
-        if (lastDotIndex == -1) {
-            return null;
-        }
-        final var extension = fileName.substring(lastDotIndex + 1);
-        return parsers.stream()
-                .filter(p -> p.supportedExtensions().contains(extension))
-                .findFirst()
-                .orElse(null);
+        return lookup.find(path);
     }
 
     public Set<String> getSupportedExtensions() {
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.parser;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Wall-clock budget for resolving the references of the file being parsed on the current thread.
+ *
+ * <p>The indexer starts a budget before it hands a file to a parser and ends it when the parser
+ * returns. Parsers that resolve references check {@link #isExhausted()} while they do so and, once it
+ * returns {@code true}, stop resolving and return the symbols they have, so one pathological file
+ * cannot stall the run. Parsers that do not check it are never interrupted.
+ */
+public final class ResolutionBudget {
+    private static final ThreadLocal<ResolutionBudget> CURRENT = new ThreadLocal<>();
+
+    private final long deadline;
+    private boolean exhausted;
+
+    private ResolutionBudget(long deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * Starts a budget for the current thread, or clears it if {@code budget} is {@code null}.
+     */
+    public static void start(Duration budget) {
+        if (budget == null) {
+            CURRENT.remove();
+            return;
+        }
+        CURRENT.set(new ResolutionBudget(System.nanoTime() + budget.toNanos()));
+    }
+
+    /**
+     * Starts a budget for the current thread that runs out after {@code budget} or at {@code deadline},
+     * whichever comes first. Either may be {@code null}; if both are, the budget is cleared.
+     */
+    public static void start(Duration budget, Instant deadline) {
+        if (deadline == null) {
+            start(budget);
+            return;
+        }
+        final var remaining = Duration.between(Instant.now(), deadline);
+        start(budget == null || remaining.compareTo(budget) < 0 ? remaining : budget);
+    }
+
+    /**
+     * Whether the budget of the current thread has run out. It is {@code false} when there is no budget.
+     */
+    public static boolean isExhausted() {
+        final var budget = CURRENT.get();
+        if (budget == null) {
+            return false;
+        }
+        if (!budget.exhausted && System.nanoTime() - budget.deadline >= 0) {
+            budget.exhausted = true;
+        }
+        return budget.exhausted;
+    }
+
+    /**
+     * Clears the budget of the current thread.
+     *
+     * @return whether the parser saw it run out, meaning that it gave up resolving some references
+     */
+    public static boolean end() {
+        final var budget = CURRENT.get();
+        CURRENT.remove();
+        return budget != null && budget.exhausted;
+    }
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.parser;
+
+import io.appform.codeindex.models.Symbol;
+
+/**
+ * Receives the symbols of a file one at a time, in the order a parser produces them.
+ *
+ * <p>A sink may block to hold a parser back until earlier symbols have been written, so parsers must
+ * not call it while holding locks that other parsing threads need.
+ */
+@FunctionalInterface
+public interface SymbolSink {
+    void accept(Symbol symbol);
+}
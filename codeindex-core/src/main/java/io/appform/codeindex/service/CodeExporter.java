@@ -24,11 +24,22 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * Writes the symbols of an index to a Markdown or XML file, grouped by file and class.
+ *
+ * <p>Symbols are read from the index as they are written, ordered by file path, and only the symbols
+ * of the file being written are held in memory, so exporting a large index takes no more memory than
+ * exporting a small one.
+ */
 public class CodeExporter {
     private final String dbPath;
 
@@ -37,8 +48,8 @@ public class CodeExporter {
     }
 
     public void export(String outputFile, String format, Set<SymbolKind> kinds) throws SQLException, IOException {
-        try (SQLiteStorage storage = new SQLiteStorage(dbPath)) {
-            final var symbols = storage.getAllSymbols(kinds);
+        try (SQLiteStorage storage = SQLiteStorage.openReadOnly(dbPath);
+                Stream<Symbol> symbols = storage.streamAllSymbols(kinds)) {
             if ("xml".equalsIgnoreCase(format)) {
                 exportToXml(symbols, outputFile);
             } else {
@@ -47,21 +58,17 @@ public class CodeExporter {
         }
     }
 
-    private void exportToMarkdown(List<Symbol> symbols, String outputFile) throws IOException {
+    private void exportToMarkdown(Stream<Symbol> symbols, String outputFile) throws IOException {
         try (PrintWriter writer = new PrintWriter(new FileWriter(outputFile))) {
             writer.println("# Project Symbol Index");
             writer.println();
 
-            final var groupedByFile = symbols.stream()
-                    .collect(Collectors.groupingBy(Symbol::getFilePath));
-
-            for (Map.Entry<String, List<Symbol>> fileEntry : groupedByFile.entrySet()) {
-                writer.println("## File: " + fileEntry.getKey());
+            forEachFile(symbols, (filePath, fileSymbols) -> {
+                writer.println("## File: " + filePath);
                 writer.println();
-                
+
                 // Group by Class within File
-                final var groupedByClass = fileEntry.getValue().stream()
-                        .collect(Collectors.groupingBy(s -> s.getClassName() != null ? s.getClassName() : "Top-level"));
+                final var groupedByClass = groupByClass(fileSymbols);
 
                 for (Map.Entry<String, List<Symbol>> classEntry : groupedByClass.entrySet()) {
                     if (!"Top-level".equals(classEntry.getKey())) {
@@ -78,23 +85,19 @@ public class CodeExporter {
                     }
                     writer.println();
                 }
-            }
+            });
         }
     }
 
-    private void exportToXml(List<Symbol> symbols, String outputFile) throws IOException {
+    private void exportToXml(Stream<Symbol> symbols, String outputFile) throws IOException {
         try (PrintWriter writer = new PrintWriter(new FileWriter(outputFile))) {
             writer.println("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
             writer.println("<project>");
 
-            final var groupedByFile = symbols.stream()
-                    .collect(Collectors.groupingBy(Symbol::getFilePath));
-
-            for (Map.Entry<String, List<Symbol>> fileEntry : groupedByFile.entrySet()) {
-                writer.println("  <file path=\"" + escapeXml(fileEntry.getKey()) + "\">");
+            forEachFile(symbols, (filePath, fileSymbols) -> {
+                writer.println("  <file path=\"" + escapeXml(filePath) + "\">");
 
-                final var groupedByClass = fileEntry.getValue().stream()
-                        .collect(Collectors.groupingBy(s -> s.getClassName() != null ? s.getClassName() : "Top-level"));
+                final var groupedByClass = groupByClass(fileSymbols);
 
                 for (Map.Entry<String, List<Symbol>> classEntry : groupedByClass.entrySet()) {
                     if (!"Top-level".equals(classEntry.getKey())) {
@@ -110,11 +113,35 @@ public class CodeExporter {
                     }
                 }
                 writer.println("  </file>");
-            }
+            });
             writer.println("</project>");
         }
     }
 
+    /**
+     * Hands the symbols of each file, in the order they were read, to {@code action}. The symbols
+     * must be ordered by file path.
+     */
+    private static void forEachFile(Stream<Symbol> symbols, BiConsumer<String, List<Symbol>> action) {
+        final var fileSymbols = new ArrayList<Symbol>();
+        symbols.forEach(symbol -> {
+            if (!fileSymbols.isEmpty() && !fileSymbols.get(0).getFilePath().equals(symbol.getFilePath())) {
+                action.accept(fileSymbols.get(0).getFilePath(), fileSymbols);
+                fileSymbols.clear();
+            }
+            fileSymbols.add(symbol);
+        });
+        if (!fileSymbols.isEmpty()) {
+            action.accept(fileSymbols.get(0).getFilePath(), fileSymbols);
+        }
+    }
+
+    private static Map<String, List<Symbol>> groupByClass(List<Symbol> fileSymbols) {
+        return fileSymbols.stream()
+                .collect(Collectors.groupingBy(s -> s.getClassName() != null ? s.getClassName() : "Top-level",
+                        LinkedHashMap::new, Collectors.toList()));
+    }
+
     private void writeSymbolXml(PrintWriter writer, Symbol symbol, String indent) {
         writer.printf("%s<symbol kind=\"%s\" name=\"%s\" line=\"%d\" signature=\"%s\"/>%n",
                 indent,
@@ -16,21 +16,40 @@
 
 package io.appform.codeindex.service;
 
+import io.appform.codeindex.crawler.Crawl;
 import io.appform.codeindex.crawler.FileCrawler;
+import io.appform.codeindex.models.CacheStatistics;
+import io.appform.codeindex.models.FileRecord;
+import io.appform.codeindex.models.IndexRequest;
+import io.appform.codeindex.models.IndexingSummary;
+import io.appform.codeindex.models.ResolutionMode;
+import io.appform.codeindex.models.ResolutionStatistics;
+import io.appform.codeindex.models.SearchPage;
 import io.appform.codeindex.models.SearchRequest;
 import io.appform.codeindex.models.Symbol;
 import io.appform.codeindex.parser.Parser;
 import io.appform.codeindex.parser.ParserRegistry;
+import io.appform.codeindex.storage.ParseCache;
 import io.appform.codeindex.storage.SQLiteStorage;
+import io.appform.codeindex.storage.SearchSession;
 import lombok.extern.slf4j.Slf4j;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
+/**
+ * Indexes projects into, and searches, the index at one database path. The parsers of the registry
+ * are set up again for every run, and keep jars and other resources open in between; {@link #close()}
+ * releases them.
+ */
 @Slf4j
-public class CodeIndexer {
+public class CodeIndexer implements AutoCloseable {
     private final String dbPath;
     private final FileCrawler crawler;
     private final ParserRegistry parserRegistry;
@@ -41,32 +60,208 @@ public class CodeIndexer {
         this.crawler = new FileCrawler();
     }
 
-    public void index(String projectPath) throws Exception {
-        index(projectPath, List.of());
+    public IndexingSummary index(String projectPath) throws Exception {
+        return index(projectPath, List.of());
     }
 
-    public void index(String projectPath, List<Path> classpath) throws Exception {
-        log.info("Starting indexing for project: {}", projectPath);
-        final var projectRoot = Paths.get(projectPath);
-        parserRegistry.getParsers().forEach(p -> p.setup(projectRoot, classpath));
+    public IndexingSummary index(String projectPath, List<Path> classpath) throws Exception {
+        return index(IndexRequest.builder()
+                .projectPath(projectPath)
+                .classpath(classpath)
+                .build());
+    }
+
+    /**
+     * Indexes a project. With a time limit, the run stops once it is reached; files written by then are
+     * kept, and the next run picks up the rest.
+     */
+    public IndexingSummary index(IndexRequest request) throws Exception {
+        final var deadline = deadline(request);
+        final var projectRoot = setup(request);
+        try (SQLiteStorage storage = new SQLiteStorage(dbPath);
+                ParseCache cache = openCache(request)) {
+            return index(request, new IndexingPipeline(parserRegistry, projectRoot, request, cache), storage, deadline);
+        }
+    }
 
-        final var files = crawler.crawl(projectPath, parserRegistry.getSupportedExtensions());
+    IndexingSummary index(IndexRequest request,
+                          IndexingPipeline pipeline,
+                          SQLiteStorage storage,
+                          Instant deadline) throws Exception {
+        final var projectPath = request.getProjectPath();
+        log.info("Starting indexing for project: {}", projectPath);
+        final var mode = request.getResolution();
+        final IndexingSummary summary;
+        try (Crawl files = crawler.open(projectPath, parserRegistry.getSupportedExtensions())) {
+            final var bulkLoad = request.isBulkLoad() && (storage.isEmpty() || storage.isBulkLoadPending());
+            if (bulkLoad) {
+                log.info("Building a new index in bulk-load mode");
+                storage.beginBulkLoad();
+            }
+            var manifest = storage.getFileRecords();
+            if (storage.getResolutionMode() == ResolutionMode.NONE && mode != ResolutionMode.NONE) {
+                log.info("The index has no references yet, re-parsing every file");
+                manifest = forceReparse(manifest);
+            }
+            summary = pipeline.run(files, storage, manifest, deadline, files::isComplete);
+            summary.setFilesIgnored(files.getFilesIgnored());
+            summary.setDirectoriesPruned(files.getDirectoriesPruned());
+            if (bulkLoad) {
+                storage.finishBulkLoad();
+            }
+            if (!summary.isTimedOut()) {
+                // Files left for the next run may still have been indexed in the old mode
+                storage.setResolutionMode(mode);
+            }
+        }
+        log.info("Indexing completed for project: {}. Indexed {} files ({} symbols), skipped {} unchanged, removed {}, {} failed",
+                projectPath, summary.getFilesIndexed(), summary.getSymbolsWritten(), summary.getFilesSkipped(),
+                summary.getFilesRemoved(), summary.getFilesFailed());
+        if (summary.getFilesDegraded() > 0) {
+            log.warn("Reference resolution ran out of time in {} files, they were stored with the references resolved so far and are parsed again by the next run",
+                    summary.getFilesDegraded());
+        }
+        if (summary.isCrawlIncomplete()) {
+            log.warn("Part of the project could not be read, files missing from it were kept in the index");
+        }
+        if (summary.isTimedOut()) {
+            log.warn("Time limit reached, {} files were left for the next run", summary.getFilesDeferred());
+        }
+        log.info("Ignore rules pruned {} directories and {} files", summary.getDirectoriesPruned(), summary.getFilesIgnored());
+        if (request.getParseCachePath() != null) {
+            log.info("Parse cache: {} hits, {} misses", summary.getCacheHits(), summary.getCacheMisses());
+        }
+        if (mode != ResolutionMode.NONE && !summary.isTimedOut()) {
+            // Also completes files left unresolved by an earlier lazy run that was interrupted
+            summary.setFilesResolved(resolver(request).resolvePending(storage, deadline));
+            summary.setTimedOut(IndexingSupport.expired(deadline));
+        }
+        summary.setTypeCaches(logCacheStatistics());
+        summary.setResolution(logResolutionStatistics());
+        return summary;
+    }
 
+    /**
+     * Resolves the references left unresolved by {@link ResolutionMode#LAZY} indexing, for example
+     * after a run that was stopped before its second pass finished, and gives files whose resolution
+     * ran out of time another try.
+     *
+     * @return number of files whose references were resolved
+     */
+    public int resolveReferences(IndexRequest request) throws Exception {
+        final var deadline = deadline(request);
+        setup(request.toBuilder().resolution(ResolutionMode.FULL).build());
         try (SQLiteStorage storage = new SQLiteStorage(dbPath)) {
-            for (Path file : files) {
-                try {
-                    final var parser = parserRegistry.getParserForFile(file);
-                    if (parser != null) {
-                        final var symbols = parser.parse(file, projectRoot);
-                        storage.saveSymbols(symbols);
-                    }
-                }
-                catch (Exception e) {
-                    log.error("Failed to index file: {}", file, e);
-                }
+            final var resolver = resolver(request);
+            return resolver.resolvePending(storage, deadline) + resolver.resolveDegraded(storage, deadline);
+        }
+        finally {
+            logCacheStatistics();
+            logResolutionStatistics();
+        }
+    }
+
+    private List<CacheStatistics> logCacheStatistics() {
+        final var statistics = parserRegistry.getParsers().stream()
+                .flatMap(parser -> parser.cacheStatistics().stream())
+                .collect(Collectors.toList());
+        for (CacheStatistics cache : statistics) {
+            log.info("Cache of {}: {} entries (limit {}), {} hits, {} misses, hit rate {}%, {} evictions",
+                    cache.getName(), cache.getSize(), cache.getMaxSize() > 0 ? cache.getMaxSize() : "none",
+                    cache.getHits(), cache.getMisses(), String.format("%.1f", cache.getHitRate() * 100),
+                    cache.getEvictions());
+        }
+        return statistics;
+    }
+
+    private ResolutionStatistics logResolutionStatistics() {
+        final var statistics = parserRegistry.getParsers().stream()
+                .map(Parser::resolutionStatistics)
+                .reduce(ResolutionStatistics.builder().build(), ResolutionStatistics::plus);
+        if (statistics.getAttempts() > 0) {
+            log.info("Resolved {} of {} references ({}%) in {} ms, {} ms of it spent on references that did not resolve",
+                    statistics.getAttempts() - statistics.getFailures(), statistics.getAttempts(),
+                    String.format("%.1f", statistics.getSuccessRate() * 100), statistics.getResolutionMillis(),
+                    statistics.getFailedMillis());
+        }
+        return statistics;
+    }
+
+    private ReferenceResolver resolver(IndexRequest request) {
+        return new ReferenceResolver(parserRegistry, Paths.get(request.getProjectPath()), request.getThreads(),
+                request.getFileResolutionBudgetMs() > 0 ? Duration.ofMillis(request.getFileResolutionBudgetMs()) : null);
+    }
+
+    private static Instant deadline(IndexRequest request) {
+        return request.getTimeLimitMs() > 0 ? Instant.now().plusMillis(request.getTimeLimitMs()) : null;
+    }
+
+    /**
+     * Keeps every manifest entry, so files that are gone are still removed, but makes each of them
+     * look changed.
+     */
+    private static Map<String, FileRecord> forceReparse(Map<String, FileRecord> manifest) {
+        return manifest.keySet().stream()
+                .collect(Collectors.toMap(path -> path, path -> FileRecord.builder()
+                        .path(path)
+                        .size(-1)
+                        .mtime(-1)
+                        .contentHash("")
+                        .build()));
+    }
+
+    /**
+     * Brings the index up to date and starts watching the project for changes.
+     *
+     * <p>Parsers are set up once and the database stays open, so each change only costs re-parsing the
+     * files it touched. Call {@link ProjectWatcher#run()} to process changes until the watcher is closed.
+     * The time limit of the request does not apply; the per-file resolution budget does.
+     */
+    public ProjectWatcher watch(IndexRequest request, Duration debounce) throws Exception {
+        final var projectRoot = setup(request);
+        final var storage = new SQLiteStorage(dbPath);
+        ParseCache cache = null;
+        try {
+            cache = openCache(request);
+            final var pipeline = new IndexingPipeline(parserRegistry, projectRoot, request, cache);
+            final var resolver = request.getResolution() != ResolutionMode.NONE ? resolver(request) : null;
+            final var watcher = new ProjectWatcher(projectRoot, parserRegistry, pipeline, resolver, storage, cache,
+                    debounce, () -> index(request, pipeline, storage, null));
+            watcher.start();
+            return watcher;
+        }
+        catch (Exception e) {
+            storage.close();
+            if (cache != null) {
+                cache.close();
             }
+            throw e;
+        }
+    }
+
+    private static ParseCache openCache(IndexRequest request) throws SQLException {
+        if (request.getParseCachePath() == null) {
+            return null;
         }
-        log.info("Indexing completed for project: {}", projectPath);
+        return new ParseCache(request.getParseCachePath(), request.getParseCacheMaxBytes());
+    }
+
+    private Path setup(IndexRequest request) {
+        final var projectRoot = Paths.get(request.getProjectPath());
+        parserRegistry.getParsers().forEach(p -> {
+            p.setResolutionMode(request.getResolution());
+            p.setCacheLimit(request.getTypeCacheEntries());
+            p.setup(projectRoot, request.getClasspath());
+        });
+        return projectRoot;
+    }
+
+    /**
+     * Closes the parsers of the registry.
+     */
+    @Override
+    public void close() {
+        parserRegistry.getParsers().forEach(Parser::close);
     }
 
     public List<Symbol> search(String query) throws SQLException {
@@ -74,8 +269,25 @@ public class CodeIndexer {
     }
 
     public List<Symbol> search(SearchRequest request) throws SQLException {
-        try (SQLiteStorage storage = new SQLiteStorage(dbPath)) {
+        try (SQLiteStorage storage = SQLiteStorage.openReadOnly(dbPath)) {
             return storage.search(request);
         }
     }
+
+    /**
+     * Runs one page of a search. The page's next cursor, set on the same request, continues after it.
+     */
+    public SearchPage searchPage(SearchRequest request) throws SQLException {
+        try (SQLiteStorage storage = SQLiteStorage.openReadOnly(dbPath)) {
+            return storage.searchPage(request);
+        }
+    }
+
+    /**
+     * Opens a session for issuing many searches against the index, from any number of threads. The
+     * caller closes it.
+     */
+    public SearchSession openSearchSession() throws SQLException {
+        return new SearchSession(dbPath);
+    }
 }
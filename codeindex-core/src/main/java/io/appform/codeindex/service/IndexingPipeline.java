@@ -0,0 +1,500 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.service;
+
+import io.appform.codeindex.models.FileRecord;
+import io.appform.codeindex.models.IndexRequest;
+import io.appform.codeindex.models.IndexingSummary;
+import io.appform.codeindex.models.Symbol;
+import io.appform.codeindex.parser.Parser;
+import io.appform.codeindex.parser.ParserRegistry;
+import io.appform.codeindex.parser.ResolutionBudget;
+import io.appform.codeindex.parser.SymbolSink;
+import io.appform.codeindex.storage.FileUpdate;
+import io.appform.codeindex.storage.ParseCache;
+import io.appform.codeindex.storage.SQLiteStorage;
+import io.appform.codeindex.storage.WriteBuffer;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Parses files on a pool of worker threads and hands the results to a single writer thread.
+ *
+ * <p>Parse tasks are queued in crawl order on a bounded queue, and the writer drains them in the
+ * same order, so the stored rows do not depend on the number of workers. When the queue is full
+ * the submitting thread blocks until the writer catches up.
+ *
+ * <p>Files are checked against the manifest stored with the index: a file whose size and mtime are
+ * unchanged is skipped, and one whose content hash is unchanged only has its manifest entry
+ * refreshed. Files in the manifest that were not seen in this run are removed from the index.
+ *
+ * <p>With a {@link ParseCache}, changed files whose content was parsed before, in any project, reuse
+ * the cached symbols instead of being parsed again.
+ *
+ * <p>The writer groups file updates through a {@link WriteBuffer}, so several files share one commit.
+ * Parsers hand their symbols over through a {@link SymbolStream}: a file with more symbols than a
+ * batch is passed to the writer in batch-sized parts while it is being parsed, instead of being held
+ * in memory as a whole. Such files are not stored in the parse cache.
+ *
+ * <p>Each parse runs under the {@link ResolutionBudget} of the request, cut short by the deadline of the
+ * run if there is one. A file that runs out of it is stored as degraded in the manifest and parsed again
+ * by the next run. Once the deadline passes no more files are started, files that were not yet
+ * handed to the writer are left for the next run, and no files are removed from the index. Nothing is
+ * removed either after a crawl that could not list part of the tree.
+ */
+@Slf4j
+public class IndexingPipeline {
+    private static final PendingFile END_OF_FILES = new PendingFile(null, CompletableFuture.completedFuture(null));
+    private static final long OFFER_TIMEOUT_MS = 100;
+    private static final int BULK_BATCH_SYMBOLS = 100_000;
+
+    private final ParserRegistry parserRegistry;
+    private final Path projectRoot;
+    private final int threads;
+    private final int queueCapacity;
+    private final int batchSymbols;
+    private final Duration batchAge;
+    private final Duration fileBudget;
+    private final ParseCache cache;
+
+    public IndexingPipeline(ParserRegistry parserRegistry, Path projectRoot, IndexRequest request) {
+        this(parserRegistry, projectRoot, request, null);
+    }
+
+    /**
+     * Creates a pipeline that consults {@code cache}, which may be {@code null}, before parsing a changed file.
+     */
+    public IndexingPipeline(ParserRegistry parserRegistry, Path projectRoot, IndexRequest request, ParseCache cache) {
+        if (request.getThreads() < 1) {
+            throw new IllegalArgumentException("Thread count must be positive: " + request.getThreads());
+        }
+        if (request.getQueueCapacity() < 1) {
+            throw new IllegalArgumentException("Queue capacity must be positive: " + request.getQueueCapacity());
+        }
+        if (request.getBatchSymbols() < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + request.getBatchSymbols());
+        }
+        this.parserRegistry = parserRegistry;
+        this.projectRoot = projectRoot;
+        this.threads = request.getThreads();
+        this.queueCapacity = request.getQueueCapacity();
+        this.batchSymbols = request.getBatchSymbols();
+        this.batchAge = Duration.ofMillis(request.getBatchAgeMs());
+        this.fileBudget = request.getFileResolutionBudgetMs() > 0
+                ? Duration.ofMillis(request.getFileResolutionBudgetMs())
+                : null;
+        this.cache = cache;
+    }
+
+    public IndexingSummary run(Iterable<Path> files, SQLiteStorage storage) throws InterruptedException, SQLException {
+        return run(files, storage, storage.getFileRecords());
+    }
+
+    /**
+     * Indexes {@code files} against part of the manifest. Entries of {@code manifest} that are not among
+     * {@code files} are removed from the index, so the files must be everything that currently exists
+     * in the part of the tree the manifest covers.
+     */
+    public IndexingSummary run(Iterable<Path> files,
+                               SQLiteStorage storage,
+                               Map<String, FileRecord> manifest) throws InterruptedException, SQLException {
+        return run(files, storage, manifest, null);
+    }
+
+    /**
+     * Indexes {@code files} against part of the manifest, stopping at {@code deadline} if it is not
+     * {@code null}. A run that stops early is marked as timed out and removes nothing.
+     */
+    public IndexingSummary run(Iterable<Path> files,
+                               SQLiteStorage storage,
+                               Map<String, FileRecord> manifest,
+                               Instant deadline) throws InterruptedException, SQLException {
+        return run(files, storage, manifest, deadline, () -> true);
+    }
+
+    /**
+     * Indexes {@code files} against part of the manifest, stopping at {@code deadline} if it is not
+     * {@code null}. Once all files have been taken, {@code complete} tells whether they were all the
+     * files there are; if not, the run is marked as incomplete and removes nothing.
+     */
+    public IndexingSummary run(Iterable<Path> files,
+                               SQLiteStorage storage,
+                               Map<String, FileRecord> manifest,
+                               Instant deadline,
+                               BooleanSupplier complete) throws InterruptedException, SQLException {
+        final var parsers = Executors.newFixedThreadPool(threads, IndexingSupport.namedThreads("codeindex-parser"));
+        final var writer = Executors.newSingleThreadExecutor(IndexingSupport.namedThreads("codeindex-writer"));
+        final BlockingQueue<PendingFile> queue = new ArrayBlockingQueue<>(queueCapacity);
+        try {
+            final var written = writer.submit(() -> drain(queue, storage, manifest, deadline, complete));
+            var deferred = 0;
+            for (Path file : files) {
+                final var parser = parserRegistry.getParserForFile(file);
+                if (parser == null) {
+                    continue;
+                }
+                if (IndexingSupport.expired(deadline)) {
+                    // Only counted, so the summary says how much is left for the next run
+                    deferred++;
+                    continue;
+                }
+                final var stream = new SymbolStream(batchSymbols);
+                enqueue(queue, new PendingFile(stream, parsers.submit(() -> process(parser, file, manifest, stream, deadline))),
+                        written);
+            }
+            enqueue(queue, END_OF_FILES, written);
+            final var summary = written.get();
+            summary.setFilesDeferred(summary.getFilesDeferred() + deferred);
+            if (cache != null) {
+                cache.flush();
+            }
+            return summary;
+        }
+        catch (ExecutionException e) {
+            throw new IllegalStateException("Index writer failed", e.getCause());
+        }
+        finally {
+            parsers.shutdownNow();
+            writer.shutdownNow();
+        }
+    }
+
+    private void enqueue(BlockingQueue<PendingFile> queue,
+                         PendingFile item,
+                         Future<IndexingSummary> written) throws InterruptedException, ExecutionException {
+        while (!queue.offer(item, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+            if (written.isDone()) {
+                // The writer only stops early when it has failed; surface that instead of blocking forever
+                written.get();
+                throw new IllegalStateException("Index writer stopped before all files were written");
+            }
+        }
+    }
+
+    private ParsedFile process(Parser parser,
+                               Path file,
+                               Map<String, FileRecord> manifest,
+                               SymbolStream stream,
+                               Instant deadline) {
+        try {
+            return process(parser, file, manifest, stream, relativePath(file), deadline);
+        }
+        finally {
+            stream.finish();
+        }
+    }
+
+    private ParsedFile process(Parser parser,
+                               Path file,
+                               Map<String, FileRecord> manifest,
+                               SymbolStream stream,
+                               String relativePath,
+                               Instant deadline) {
+        if (IndexingSupport.expired(deadline)) {
+            return new ParsedFile(relativePath, null, List.of(), FileStatus.DEFERRED, CacheResult.NOT_CACHED, false);
+        }
+        try {
+            final var attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            final var previous = manifest.get(relativePath);
+            final var mtime = attributes.lastModifiedTime().toMillis();
+            // A degraded file is parsed again even if it did not change, to complete its references
+            final var reusable = previous != null && !previous.isDegraded();
+            if (reusable && previous.getSize() == attributes.size() && previous.getMtime() == mtime) {
+                return new ParsedFile(relativePath, null, List.of(), FileStatus.UNCHANGED, CacheResult.NOT_CACHED, false);
+            }
+            final var record = FileRecord.builder()
+                    .path(relativePath)
+                    .size(attributes.size())
+                    .mtime(mtime)
+                    .contentHash(IndexingSupport.contentHash(file))
+                    .build();
+            if (reusable && previous.getContentHash().equals(record.getContentHash())) {
+                return new ParsedFile(relativePath, record, List.of(), FileStatus.TOUCHED, CacheResult.NOT_CACHED, false);
+            }
+            final var cacheKey = cache != null ? parser.cacheKey() : null;
+            final var key = cacheKey != null ? ParseCache.key(cacheKey, record.getContentHash()) : null;
+            if (key != null) {
+                final var cached = fromCache(key, relativePath);
+                if (cached.isPresent()) {
+                    return new ParsedFile(relativePath, record, cached.get(), FileStatus.CHANGED, CacheResult.HIT, false);
+                }
+            }
+            final var start = System.nanoTime();
+            final boolean degraded;
+            stream.begin(record);
+            ResolutionBudget.start(fileBudget, deadline);
+            try {
+                parse(parser, file, stream);
+            }
+            finally {
+                degraded = ResolutionBudget.end();
+            }
+            if (degraded) {
+                // Incomplete symbols must not be served to later runs, and the next run tries the file again
+                record.setDegraded(true);
+                log.warn("Gave up resolving references in {} after {} ms", relativePath,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            } else if (key != null && !stream.isSplit()) {
+                toCache(key, stream.rest());
+            }
+            return new ParsedFile(relativePath, record, stream.rest(), FileStatus.CHANGED,
+                    key != null ? CacheResult.MISS : CacheResult.NOT_CACHED, degraded);
+        }
+        catch (Exception e) {
+            log.error("Failed to index file: {}", file, e);
+            return new ParsedFile(relativePath, null, List.of(), FileStatus.FAILED, CacheResult.NOT_CACHED, false);
+        }
+    }
+
+    private Optional<List<Symbol>> fromCache(String key, String relativePath) {
+        try {
+            return cache.get(key, relativePath);
+        }
+        catch (SQLException e) {
+            // The cache only saves work; a busy or broken cache must not fail the file
+            log.warn("Parse cache lookup failed: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private void toCache(String key, List<Symbol> symbols) {
+        try {
+            cache.put(key, symbols);
+        }
+        catch (SQLException e) {
+            log.warn("Parse cache write failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * The path under which a file is stored in the index.
+     */
+    String relativePath(Path file) {
+        return projectRoot.toAbsolutePath().relativize(file.toAbsolutePath()).toString();
+    }
+
+    private void parse(Parser parser, Path file, SymbolSink sink) {
+        if (parser.isThreadSafe()) {
+            parser.parse(file, projectRoot, sink);
+            return;
+        }
+        final List<Symbol> symbols;
+        synchronized (parser) {
+            symbols = parser.parse(file, projectRoot);
+        }
+        // The sink can block until the writer gets to this file, which must not happen under the lock
+        symbols.forEach(sink::accept);
+    }
+
+    private IndexingSummary drain(BlockingQueue<PendingFile> queue,
+                                  SQLiteStorage storage,
+                                  Map<String, FileRecord> manifest,
+                                  Instant deadline,
+                                  BooleanSupplier complete) throws InterruptedException, SQLException {
+        final var summary = IndexingSummary.builder().build();
+        final var seen = new HashSet<String>();
+        // A fresh index is not being read yet, so larger batches only cost memory
+        final var maxSymbols = storage.isBulkLoading() ? Math.max(batchSymbols, BULK_BATCH_SYMBOLS) : batchSymbols;
+        try (WriteBuffer buffer = new WriteBuffer(storage, maxSymbols, batchAge)) {
+            while (true) {
+                final var next = queue.poll(buffer.nanosUntilDue(), TimeUnit.NANOSECONDS);
+                if (next == null) {
+                    buffer.flushIfExpired();
+                    continue;
+                }
+                if (next == END_OF_FILES) {
+                    // Files after the deadline were not submitted at all
+                    if (IndexingSupport.expired(deadline)) {
+                        summary.setTimedOut(true);
+                    }
+                    // Queued only after the last file was taken, so the crawl has ended
+                    summary.setCrawlIncomplete(!complete.getAsBoolean());
+                    break;
+                }
+                // Files reached after the deadline are not written, but their parsers still have to finish
+                final var late = IndexingSupport.expired(deadline);
+                FileUpdate part;
+                FileRecord partsOf = null;
+                var partSymbols = 0;
+                while ((part = nextPart(next, buffer)) != null) {
+                    if (!late) {
+                        buffer.add(part);
+                        partsOf = part.getRecord();
+                        partSymbols += part.symbolCount();
+                    }
+                }
+                summary.setSymbolsWritten(summary.getSymbolsWritten() + partSymbols);
+                final ParsedFile parsed;
+                try {
+                    parsed = result(next, buffer);
+                }
+                catch (ExecutionException e) {
+                    log.error("Parser task failed", e.getCause());
+                    failed(summary, buffer, partsOf, partSymbols);
+                    continue;
+                }
+                if (late || parsed.getStatus() == FileStatus.DEFERRED) {
+                    summary.setTimedOut(true);
+                    summary.setFilesDeferred(summary.getFilesDeferred() + 1);
+                    continue;
+                }
+                seen.add(parsed.getPath());
+                if (parsed.getCacheResult() == CacheResult.HIT) {
+                    summary.setCacheHits(summary.getCacheHits() + 1);
+                } else if (parsed.getCacheResult() == CacheResult.MISS) {
+                    summary.setCacheMisses(summary.getCacheMisses() + 1);
+                }
+                switch (parsed.getStatus()) {
+                    case UNCHANGED -> summary.setFilesSkipped(summary.getFilesSkipped() + 1);
+                    case TOUCHED -> {
+                        buffer.add(FileUpdate.touch(parsed.getRecord()));
+                        summary.setFilesSkipped(summary.getFilesSkipped() + 1);
+                    }
+                    case CHANGED -> {
+                        buffer.add(next.getStream().isSplit()
+                                   ? FileUpdate.part(parsed.getRecord(), parsed.getSymbols(), false, true)
+                                   : FileUpdate.replace(parsed.getRecord(), parsed.getSymbols()));
+                        summary.setFilesIndexed(summary.getFilesIndexed() + 1);
+                        summary.setSymbolsWritten(summary.getSymbolsWritten() + parsed.getSymbols().size());
+                        if (parsed.isDegraded()) {
+                            summary.setFilesDegraded(summary.getFilesDegraded() + 1);
+                        }
+                    }
+                    default -> failed(summary, buffer, partsOf, partSymbols);
+                }
+            }
+            buffer.flush();
+            buffer.getFailed().forEach(update -> discount(summary, update));
+        }
+        if (summary.isTimedOut() || summary.isCrawlIncomplete()) {
+            // Files that were never reached are not known to be gone
+            return summary;
+        }
+        final var removed = manifest.keySet().stream()
+                .filter(path -> !seen.contains(path))
+                .collect(Collectors.toList());
+        storage.removeFiles(removed);
+        summary.setFilesRemoved(removed.size());
+        return summary;
+    }
+
+    /**
+     * Waits for the next part of a file that is still being parsed. Batches that come due in the
+     * meantime are committed, so a slow file does not hold back the files before it.
+     */
+    private static FileUpdate nextPart(PendingFile file, WriteBuffer buffer) throws InterruptedException {
+        while (true) {
+            try {
+                return file.getStream().nextPart(buffer.nanosUntilDue(), TimeUnit.NANOSECONDS);
+            }
+            catch (TimeoutException e) {
+                buffer.flushIfExpired();
+            }
+        }
+    }
+
+    /**
+     * Waits for the result of a file, committing batches that come due in the meantime.
+     */
+    private static ParsedFile result(PendingFile file, WriteBuffer buffer) throws InterruptedException, ExecutionException {
+        while (true) {
+            try {
+                return file.getResult().get(buffer.nanosUntilDue(), TimeUnit.NANOSECONDS);
+            }
+            catch (TimeoutException e) {
+                buffer.flushIfExpired();
+            }
+        }
+    }
+
+    /**
+     * Counts a file whose parser failed. Parts of it handed over before the failure are deleted again,
+     * with its manifest entry, rather than left in the index as if they were all of its symbols.
+     */
+    private static void failed(IndexingSummary summary, WriteBuffer buffer, FileRecord partsOf, int partSymbols) {
+        if (partsOf != null) {
+            buffer.add(FileUpdate.discard(partsOf));
+            summary.setSymbolsWritten(summary.getSymbolsWritten() - partSymbols);
+        }
+        summary.setFilesFailed(summary.getFilesFailed() + 1);
+    }
+
+    private static void discount(IndexingSummary summary, FileUpdate update) {
+        if (update.getSymbols() == null) {
+            summary.setFilesSkipped(summary.getFilesSkipped() - 1);
+            summary.setFilesFailed(summary.getFilesFailed() + 1);
+            return;
+        }
+        summary.setSymbolsWritten(summary.getSymbolsWritten() - update.getSymbols().size());
+        // Every part after a failed one fails as well, so a file is counted once, with its last part
+        if (update.isLast()) {
+            summary.setFilesIndexed(summary.getFilesIndexed() - 1);
+            summary.setFilesFailed(summary.getFilesFailed() + 1);
+        }
+    }
+
+    private enum FileStatus {
+        UNCHANGED,
+        TOUCHED,
+        CHANGED,
+        FAILED,
+        DEFERRED
+    }
+
+    private enum CacheResult {
+        NOT_CACHED,
+        HIT,
+        MISS
+    }
+
+    @Value
+    private static class PendingFile {
+        SymbolStream stream;
+        Future<ParsedFile> result;
+    }
+
+    @Value
+    private static class ParsedFile {
+        String path;
+        FileRecord record;
+        List<Symbol> symbols;
+        FileStatus status;
+        CacheResult cacheResult;
+        boolean degraded;
+    }
+}
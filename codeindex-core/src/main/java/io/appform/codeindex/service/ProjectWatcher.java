@@ -0,0 +1,264 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.service;
+
+import io.appform.codeindex.crawler.ExtensionLookup;
+import io.appform.codeindex.crawler.IgnoreRules;
+import io.appform.codeindex.crawler.SourceTreeVisitor;
+import io.appform.codeindex.models.IndexingSummary;
+import io.appform.codeindex.parser.ParserRegistry;
+import io.appform.codeindex.storage.ParseCache;
+import io.appform.codeindex.storage.SQLiteStorage;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps an index up to date by watching the project tree.
+ *
+ * <p>Every directory that is not ignored is registered with a {@link WatchService}. Events are
+ * collected until the tree has been quiet for the debounce interval, so a burst such as a branch
+ * checkout is applied as one batch, and only the files named by the events are parsed again. Lost
+ * events and changes to ignore files fall back to a full incremental re-index.
+ */
+@Slf4j
+public class ProjectWatcher implements AutoCloseable {
+    /** A batch is applied after at most this many debounce intervals, even if events keep arriving. */
+    private static final int MAX_DEBOUNCE_ROUNDS = 10;
+
+    private final Path projectRoot;
+    private final ParserRegistry parserRegistry;
+    private final IndexingPipeline pipeline;
+    private final ReferenceResolver resolver;
+    private final SQLiteStorage storage;
+    private final ParseCache cache;
+    private final Duration debounce;
+    private final Callable<IndexingSummary> reindex;
+    private final ExtensionLookup<String> extensions;
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> directories = new HashMap<>();
+    private final Map<Path, IgnoreRules> rules = new HashMap<>();
+    private volatile boolean closed;
+
+    ProjectWatcher(Path projectRoot,
+                   ParserRegistry parserRegistry,
+                   IndexingPipeline pipeline,
+                   ReferenceResolver resolver,
+                   SQLiteStorage storage,
+                   ParseCache cache,
+                   Duration debounce,
+                   Callable<IndexingSummary> reindex) throws IOException {
+        this.projectRoot = projectRoot;
+        this.parserRegistry = parserRegistry;
+        this.pipeline = pipeline;
+        this.resolver = resolver;
+        this.storage = storage;
+        this.cache = cache;
+        this.debounce = debounce;
+        this.reindex = reindex;
+        this.extensions = ExtensionLookup.of(parserRegistry.getSupportedExtensions());
+        this.watchService = projectRoot.getFileSystem().newWatchService();
+    }
+
+    void start() throws Exception {
+        // Register before indexing so that nothing changed during the initial run is missed
+        register(projectRoot, IgnoreRules.forProject(projectRoot), null);
+        log.info("Watching {} directories under {}", directories.size(), projectRoot);
+        reindex.call();
+    }
+
+    /**
+     * Applies changes as they happen until the watcher is closed.
+     *
+     * <p>A batch that fails, for example because the database is busy or a file cannot be read, is
+     * logged and does not stop the watcher. The next batch re-scans the whole project, so the changes
+     * of the failed batch are picked up then.
+     */
+    public void run() throws Exception {
+        var failed = false;
+        try {
+            while (!closed) {
+                final var changes = new LinkedHashSet<Path>();
+                var resync = collect(watchService.take(), changes);
+                final var deadline = System.nanoTime() + debounce.toNanos() * MAX_DEBOUNCE_ROUNDS;
+                while (System.nanoTime() < deadline) {
+                    final var key = watchService.poll(debounce.toMillis(), TimeUnit.MILLISECONDS);
+                    if (key == null) {
+                        break;
+                    }
+                    resync |= collect(key, changes);
+                }
+                try {
+                    apply(changes, resync || failed);
+                    failed = false;
+                }
+                catch (InterruptedException e) {
+                    throw e;
+                }
+                catch (Exception e) {
+                    if (closed) {
+                        break;
+                    }
+                    log.error("Failed to apply {} changes, re-scanning {} on the next change", changes.size(), projectRoot, e);
+                    failed = true;
+                }
+            }
+        }
+        catch (ClosedWatchServiceException e) {
+            log.debug("Watch service closed");
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        closed = true;
+        watchService.close();
+        synchronized (this) {
+            storage.close();
+            if (cache != null) {
+                cache.close();
+            }
+        }
+    }
+
+    private boolean collect(WatchKey key, Set<Path> changes) {
+        final var dir = directories.get(key);
+        var resync = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                resync = true;
+                continue;
+            }
+            if (dir == null) {
+                continue;
+            }
+            final var changed = dir.resolve((Path) event.context());
+            final var name = changed.getFileName().toString();
+            resync |= name.equals(IgnoreRules.GITIGNORE) || name.equals(IgnoreRules.CODEINDEXIGNORE)
+                    || IgnoreRules.MODULE_FILES.contains(name);
+            changes.add(changed);
+        }
+        if (!key.reset()) {
+            directories.remove(key);
+            rules.remove(dir);
+        }
+        return resync;
+    }
+
+    private synchronized void apply(Set<Path> changes, boolean resync) throws Exception {
+        if (closed) {
+            return;
+        }
+        final var start = System.nanoTime();
+        parserRegistry.getParsers().forEach(parser -> parser.filesChanged(changes));
+        final IndexingSummary summary;
+        if (resync) {
+            log.info("Ignore rules changed or events were lost, re-scanning {}", projectRoot);
+            register(projectRoot, IgnoreRules.forProject(projectRoot), null);
+            summary = reindex.call();
+        } else {
+            final var files = new LinkedHashSet<Path>();
+            final var scope = new ArrayList<String>();
+            for (Path changed : changes) {
+                if (collectChanged(changed, files)) {
+                    scope.add(pipeline.relativePath(changed));
+                }
+            }
+            summary = pipeline.run(files, storage, storage.getFileRecordsUnder(scope));
+            if (resolver != null) {
+                summary.setFilesResolved(resolver.resolvePending(storage));
+            }
+        }
+        log.info("Applied {} changes in {} ms: indexed {} files ({} symbols), removed {}, {} failed",
+                changes.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                summary.getFilesIndexed(), summary.getSymbolsWritten(), summary.getFilesRemoved(),
+                summary.getFilesFailed());
+    }
+
+    /**
+     * Adds the files that need parsing because of a change to {@code changed}, and returns whether
+     * the index entries at and below that path should be brought in line with them.
+     */
+    private boolean collectChanged(Path changed, Collection<Path> files) throws IOException {
+        final var parentRules = rules.get(changed.getParent());
+        if (parentRules == null) {
+            // The parent was removed or is ignored; removal is handled through the parent's own event
+            return false;
+        }
+        final var relative = SourceTreeVisitor.relativePath(projectRoot, changed);
+        if (Files.isDirectory(changed, LinkOption.NOFOLLOW_LINKS)) {
+            if (rules.containsKey(changed)) {
+                // Already watched, so changes inside it arrive as their own events
+                return false;
+            }
+            if (!parentRules.isIgnored(relative, true)) {
+                register(changed, parentRules.forDirectory(changed, relative), files);
+            }
+            return true;
+        }
+        if (Files.isRegularFile(changed) && extensions.matches(changed) && !parentRules.isIgnored(relative, false)) {
+            files.add(changed);
+        }
+        return true;
+    }
+
+    private void register(Path dir, IgnoreRules dirRules, Collection<Path> files) throws IOException {
+        Files.walkFileTree(dir, new SourceTreeVisitor(projectRoot, extensions, dirRules) {
+            @Override
+            protected FileVisitResult enterDirectory(Path directory, IgnoreRules directoryRules) {
+                try {
+                    final var key = directory.register(watchService,
+                            StandardWatchEventKinds.ENTRY_CREATE,
+                            StandardWatchEventKinds.ENTRY_DELETE,
+                            StandardWatchEventKinds.ENTRY_MODIFY);
+                    directories.put(key, directory);
+                    rules.put(directory, directoryRules);
+                }
+                catch (IOException e) {
+                    log.warn("Could not watch {}, changes below it will be missed: {}", directory, e.getMessage());
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            protected FileVisitResult acceptFile(Path file) {
+                if (files != null) {
+                    files.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
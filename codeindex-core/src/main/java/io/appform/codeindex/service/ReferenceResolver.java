@@ -0,0 +1,199 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.service;
+
+import io.appform.codeindex.models.FileRecord;
+import io.appform.codeindex.models.Symbol;
+import io.appform.codeindex.parser.Parser;
+import io.appform.codeindex.parser.ParserRegistry;
+import io.appform.codeindex.parser.ResolutionBudget;
+import io.appform.codeindex.storage.SQLiteStorage;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Second pass of {@link io.appform.codeindex.models.ResolutionMode#LAZY} indexing: parses the files
+ * that still have unresolved references again with full resolution and replaces their references.
+ *
+ * <p>Files are resolved on a pool of threads and written a batch at a time, so searches see resolved
+ * references appear while the pass runs. A file whose content no longer matches its manifest entry
+ * is left alone; it is re-parsed by the next index run.
+ *
+ * <p>Each file is resolved under a {@link ResolutionBudget}. A file that runs out of it keeps the
+ * references resolved so far and stays marked as degraded. Files not started before the deadline of the
+ * pass stay pending. {@link #resolveDegraded} gives files that ran out of budget before another try.
+ */
+@Slf4j
+public class ReferenceResolver {
+    private static final int BATCH_FILES = 256;
+
+    private final ParserRegistry parserRegistry;
+    private final Path projectRoot;
+    private final int threads;
+    private final Duration fileBudget;
+
+    public ReferenceResolver(ParserRegistry parserRegistry, Path projectRoot, int threads) {
+        this(parserRegistry, projectRoot, threads, null);
+    }
+
+    /**
+     * Creates a resolver that gives each file at most {@code fileBudget}, or unlimited time if it is
+     * {@code null}.
+     */
+    public ReferenceResolver(ParserRegistry parserRegistry, Path projectRoot, int threads, Duration fileBudget) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be positive: " + threads);
+        }
+        this.parserRegistry = parserRegistry;
+        this.projectRoot = projectRoot;
+        this.threads = threads;
+        this.fileBudget = fileBudget;
+    }
+
+    /**
+     * Resolves every file with unresolved references.
+     *
+     * @return number of files whose references were replaced
+     */
+    public int resolvePending(SQLiteStorage storage) throws InterruptedException, SQLException {
+        return resolvePending(storage, null);
+    }
+
+    /**
+     * Resolves files with unresolved references until they are all done or {@code deadline}, if it is
+     * not {@code null}, has passed.
+     *
+     * @return number of files whose references were replaced
+     */
+    public int resolvePending(SQLiteStorage storage, Instant deadline) throws InterruptedException, SQLException {
+        return resolve(storage.getFilesWithUnresolvedReferences(), storage, deadline);
+    }
+
+    /**
+     * Resolves the references of files that were stored as degraded, until they are all done or
+     * {@code deadline}, if it is not {@code null}, has passed.
+     *
+     * @return number of files whose references were replaced
+     */
+    public int resolveDegraded(SQLiteStorage storage, Instant deadline) throws InterruptedException, SQLException {
+        return resolve(storage.getDegradedFiles(), storage, deadline);
+    }
+
+    private int resolve(List<String> pending, SQLiteStorage storage, Instant deadline) throws InterruptedException, SQLException {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        log.info("Resolving references in {} files", pending.size());
+        final var manifest = storage.getFileRecords();
+        final var executor = Executors.newFixedThreadPool(threads, IndexingSupport.namedThreads("codeindex-resolver"));
+        var resolved = 0;
+        try {
+            for (int start = 0; start < pending.size() && !IndexingSupport.expired(deadline); start += BATCH_FILES) {
+                final var batch = pending.subList(start, Math.min(start + BATCH_FILES, pending.size()));
+                final var futures = new ArrayList<Future<Resolved>>(batch.size());
+                for (String path : batch) {
+                    futures.add(executor.submit(() -> resolve(path, manifest.get(path), deadline)));
+                }
+                final var references = new LinkedHashMap<String, List<Symbol>>();
+                final var degraded = new HashSet<String>();
+                for (int i = 0; i < batch.size(); i++) {
+                    final var result = futures.get(i).get();
+                    if (result != null) {
+                        references.put(batch.get(i), result.getReferences());
+                        if (result.isDegraded()) {
+                            degraded.add(batch.get(i));
+                        }
+                    }
+                }
+                storage.replaceReferences(references, degraded);
+                resolved += references.size();
+            }
+        }
+        catch (ExecutionException e) {
+            throw new IllegalStateException("Reference resolution failed", e.getCause());
+        }
+        finally {
+            executor.shutdownNow();
+        }
+        log.info("Resolved references in {} of {} files", resolved, pending.size());
+        return resolved;
+    }
+
+    private Resolved resolve(String relativePath, FileRecord record, Instant deadline) {
+        if (IndexingSupport.expired(deadline)) {
+            return null;
+        }
+        final var file = projectRoot.resolve(relativePath);
+        final var parser = parserRegistry.getParserForFile(file);
+        try {
+            if (parser == null || record == null || !Files.isRegularFile(file)
+                    || !record.getContentHash().equals(IndexingSupport.contentHash(file))) {
+                log.debug("Skipping reference resolution for changed file: {}", relativePath);
+                return null;
+            }
+            return resolveReferences(parser, file, relativePath, deadline);
+        }
+        catch (Exception e) {
+            log.error("Failed to resolve references in file: {}", file, e);
+            return null;
+        }
+    }
+
+    private Resolved resolveReferences(Parser parser, Path file, String relativePath, Instant deadline) {
+        final var start = System.nanoTime();
+        final List<Symbol> references;
+        final boolean degraded;
+        ResolutionBudget.start(fileBudget, deadline);
+        try {
+            if (parser.isThreadSafe()) {
+                references = parser.resolveReferences(file, projectRoot);
+            } else {
+                synchronized (parser) {
+                    references = parser.resolveReferences(file, projectRoot);
+                }
+            }
+        }
+        finally {
+            degraded = ResolutionBudget.end();
+        }
+        if (degraded) {
+            log.warn("Gave up resolving references in {} after {} ms", relativePath,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+        return new Resolved(references, degraded);
+    }
+
+    @Value
+    private static class Resolved {
+        List<Symbol> references;
+        boolean degraded;
+    }
+}
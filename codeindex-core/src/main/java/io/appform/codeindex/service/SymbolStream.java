@@ -0,0 +1,116 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.service;
+
+import io.appform.codeindex.models.FileRecord;
+import io.appform.codeindex.models.Symbol;
+import io.appform.codeindex.parser.SymbolSink;
+import io.appform.codeindex.storage.FileUpdate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Symbols of one file on their way from a parser thread to the index writer.
+ *
+ * <p>Symbols are collected in parts of up to {@code partSize}. Parts that fill up while the file is
+ * still being parsed are handed to the writer through a small bounded queue, so they can be written
+ * while parsing goes on, and a parser that gets too far ahead of the writer waits. The last part is
+ * picked up with the result of the file once parsing has finished. A file with fewer than
+ * {@code partSize} symbols is never split.
+ */
+class SymbolStream implements SymbolSink {
+    private static final int QUEUED_PARTS = 2;
+    private static final FileUpdate END = FileUpdate.touch(FileRecord.builder().build());
+
+    private final int partSize;
+    private final BlockingQueue<FileUpdate> parts = new ArrayBlockingQueue<>(QUEUED_PARTS);
+    private FileRecord record;
+    private List<Symbol> current = new ArrayList<>();
+    private boolean split;
+
+    SymbolStream(int partSize) {
+        this.partSize = partSize;
+    }
+
+    /**
+     * Starts collecting the symbols of the file with the given manifest entry.
+     */
+    void begin(FileRecord record) {
+        this.record = record;
+    }
+
+    @Override
+    public void accept(Symbol symbol) {
+        current.add(symbol);
+        if (current.size() >= partSize) {
+            put(FileUpdate.part(record, current, !split, false));
+            current = new ArrayList<>();
+            split = true;
+        }
+    }
+
+    /**
+     * Called by the parser thread when it is done with the file, whatever the outcome.
+     */
+    void finish() {
+        put(END);
+    }
+
+    /**
+     * The next part filled while parsing, waiting up to the given time for it, or {@code null} once
+     * parsing has finished.
+     *
+     * @throws TimeoutException if neither arrived in time
+     */
+    FileUpdate nextPart(long timeout, TimeUnit unit) throws InterruptedException, TimeoutException {
+        final var part = parts.poll(timeout, unit);
+        if (part == null) {
+            throw new TimeoutException();
+        }
+        return part == END ? null : part;
+    }
+
+    /**
+     * Whether earlier parts of the file were handed over through {@link #nextPart(long, TimeUnit)}.
+     */
+    boolean isSplit() {
+        return split;
+    }
+
+    /**
+     * The symbols collected since the last part was handed over; all of them if the file was not split.
+     */
+    List<Symbol> rest() {
+        return current;
+    }
+
+    private void put(FileUpdate part) {
+        try {
+            parts.put(part);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Indexing was stopped");
+        }
+    }
+}
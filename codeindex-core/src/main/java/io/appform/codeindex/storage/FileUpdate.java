@@ -0,0 +1,67 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.storage;
+
+import io.appform.codeindex.models.FileRecord;
+import io.appform.codeindex.models.Symbol;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * A pending write for one file: either a full replacement of its symbols or a manifest-only refresh.
+ *
+ * <p>The symbols of a large file can also be written in several parts, in order: the first part
+ * deletes the old symbols, and only the last part updates the manifest entry. Until the last part is
+ * written, the file still looks changed and is parsed again by the next run.
+ */
+@Value
+public class FileUpdate {
+    FileRecord record;
+    List<Symbol> symbols;
+    boolean first;
+    boolean last;
+    boolean discard;
+
+    public static FileUpdate replace(FileRecord record, List<Symbol> symbols) {
+        return new FileUpdate(record, symbols, true, true, false);
+    }
+
+    public static FileUpdate touch(FileRecord record) {
+        return new FileUpdate(record, null, true, true, false);
+    }
+
+    /**
+     * One part of the symbols of a file that is written in several parts.
+     */
+    public static FileUpdate part(FileRecord record, List<Symbol> symbols, boolean first, boolean last) {
+        return new FileUpdate(record, symbols, first, last, false);
+    }
+
+    /**
+     * Deletes the parts already written for a file that failed before its last part. The first part
+     * replaced the old symbols of the file, possibly in a batch that is already committed, so those
+     * are not restored: the manifest entry is deleted too, and the next run parses the file as new.
+     */
+    public static FileUpdate discard(FileRecord record) {
+        return new FileUpdate(record, List.of(), true, false, true);
+    }
+
+    public int symbolCount() {
+        return symbols == null ? 0 : symbols.size();
+    }
+}
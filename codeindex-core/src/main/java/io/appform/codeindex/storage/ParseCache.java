@@ -0,0 +1,280 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.storage;
+
+import io.appform.codeindex.models.Symbol;
+import io.appform.codeindex.models.SymbolKind;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * On-disk cache of parser output, keyed by file content rather than by path.
+ *
+ * <p>Entries are stored under the parser's cache key and the SHA-256 of the file, without the file
+ * path, so a file that is byte-identical in another branch or checkout is served from the cache
+ * wherever it lives. The cache is a SQLite database and can be shared by several indexer processes.
+ * When it grows past its size limit the least recently used entries are evicted.
+ *
+ * <p>New entries and access times are buffered in memory and written in batches.
+ */
+@Slf4j
+public class ParseCache implements AutoCloseable {
+    private static final int FORMAT_VERSION = 1;
+    private static final int WRITE_BATCH = 500;
+    /** Eviction frees space down to this fraction of the limit, so it does not run on every write. */
+    private static final double EVICT_TO = 0.9;
+
+    private final Connection connection;
+    private final long maxBytes;
+    private final Map<String, byte[]> pendingPuts = new HashMap<>();
+    private final Map<String, Long> pendingTouches = new HashMap<>();
+    private long sizeBytes;
+
+    public ParseCache(String path, long maxBytes) throws SQLException {
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxBytes);
+        }
+        this.connection = DriverManager.getConnection("jdbc:sqlite:" + path);
+        this.maxBytes = maxBytes;
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA journal_mode = WAL");
+            stmt.execute("PRAGMA synchronous = NORMAL");
+            stmt.execute("PRAGMA busy_timeout = 10000");
+            stmt.execute("""
+                    CREATE TABLE IF NOT EXISTS parse_cache (
+                        key TEXT PRIMARY KEY,
+                        symbols BLOB NOT NULL,
+                        size INTEGER NOT NULL,
+                        last_used INTEGER NOT NULL
+                    )
+                    """);
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_parse_cache_last_used ON parse_cache(last_used)");
+            try (ResultSet rs = stmt.executeQuery("SELECT COALESCE(SUM(size), 0) FROM parse_cache")) {
+                sizeBytes = rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+        catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    public static String key(String parserKey, String contentHash) {
+        return FORMAT_VERSION + ":" + parserKey + ":" + contentHash;
+    }
+
+    /**
+     * Returns the cached symbols for a file, with {@code filePath} set to the given path.
+     */
+    public synchronized Optional<List<Symbol>> get(String key, String filePath) throws SQLException {
+        var data = pendingPuts.get(key);
+        if (data == null) {
+            try (PreparedStatement pstmt = connection.prepareStatement("SELECT symbols FROM parse_cache WHERE key = ?")) {
+                pstmt.setString(1, key);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    data = rs.next() ? rs.getBytes(1) : null;
+                }
+            }
+        }
+        if (data == null) {
+            return Optional.empty();
+        }
+        pendingTouches.put(key, System.currentTimeMillis());
+        flushIfFull();
+        return Optional.of(decode(data, filePath));
+    }
+
+    public synchronized void put(String key, List<Symbol> symbols) throws SQLException {
+        pendingPuts.put(key, encode(symbols));
+        flushIfFull();
+    }
+
+    public synchronized long getSizeBytes() {
+        return sizeBytes + pendingPuts.values().stream().mapToLong(data -> data.length).sum();
+    }
+
+    public synchronized void flush() throws SQLException {
+        if (pendingPuts.isEmpty() && pendingTouches.isEmpty()) {
+            return;
+        }
+        final var now = System.currentTimeMillis();
+        connection.setAutoCommit(false);
+        try {
+            try (PreparedStatement put = connection.prepareStatement(
+                    "INSERT OR REPLACE INTO parse_cache (key, symbols, size, last_used) VALUES (?, ?, ?, ?)")) {
+                for (Map.Entry<String, byte[]> entry : pendingPuts.entrySet()) {
+                    put.setString(1, entry.getKey());
+                    put.setBytes(2, entry.getValue());
+                    put.setLong(3, entry.getValue().length);
+                    put.setLong(4, now);
+                    put.addBatch();
+                }
+                put.executeBatch();
+            }
+            try (PreparedStatement touch = connection.prepareStatement(
+                    "UPDATE parse_cache SET last_used = ? WHERE key = ?")) {
+                for (Map.Entry<String, Long> entry : pendingTouches.entrySet()) {
+                    touch.setLong(1, entry.getValue());
+                    touch.setString(2, entry.getKey());
+                    touch.addBatch();
+                }
+                touch.executeBatch();
+            }
+            try (Statement stmt = connection.createStatement();
+                    ResultSet rs = stmt.executeQuery("SELECT COALESCE(SUM(size), 0) FROM parse_cache")) {
+                // Other processes may share the cache, so re-read the size rather than tracking it locally
+                sizeBytes = rs.next() ? rs.getLong(1) : 0;
+            }
+            if (sizeBytes > maxBytes) {
+                evict();
+            }
+            connection.commit();
+        }
+        catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        }
+        finally {
+            connection.setAutoCommit(true);
+            pendingPuts.clear();
+            pendingTouches.clear();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws SQLException {
+        try {
+            flush();
+        }
+        finally {
+            connection.close();
+        }
+    }
+
+    private void flushIfFull() throws SQLException {
+        if (pendingPuts.size() + pendingTouches.size() >= WRITE_BATCH) {
+            flush();
+        }
+    }
+
+    private void evict() throws SQLException {
+        final var target = (long) (maxBytes * EVICT_TO);
+        final var victims = new ArrayList<String>();
+        var remaining = sizeBytes;
+        try (Statement stmt = connection.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT key, size FROM parse_cache ORDER BY last_used")) {
+            while (remaining > target && rs.next()) {
+                victims.add(rs.getString(1));
+                remaining -= rs.getLong(2);
+            }
+        }
+        try (PreparedStatement pstmt = connection.prepareStatement("DELETE FROM parse_cache WHERE key = ?")) {
+            for (String key : victims) {
+                pstmt.setString(1, key);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+        log.debug("Evicted {} parse cache entries ({} -> {} bytes)", victims.size(), sizeBytes, remaining);
+        sizeBytes = remaining;
+    }
+
+    static byte[] encode(List<Symbol> symbols) {
+        final var bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(symbols.size());
+            for (Symbol symbol : symbols) {
+                writeString(out, symbol.getName());
+                writeString(out, symbol.getClassName());
+                writeString(out, symbol.getPackageName());
+                writeString(out, symbol.getKind() == null ? null : symbol.getKind().name());
+                out.writeInt(symbol.getLine());
+                writeString(out, symbol.getSignature());
+                writeString(out, symbol.getReferenceTo());
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static List<Symbol> decode(byte[] data, String filePath) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            final var count = in.readInt();
+            final var symbols = new ArrayList<Symbol>(count);
+            for (int i = 0; i < count; i++) {
+                final var name = readString(in);
+                final var className = readString(in);
+                final var packageName = readString(in);
+                final var kind = readString(in);
+                symbols.add(Symbol.builder()
+                        .name(name)
+                        .className(className)
+                        .packageName(packageName)
+                        .kind(kind == null ? null : SymbolKind.valueOf(kind))
+                        .filePath(filePath)
+                        .line(in.readInt())
+                        .signature(readString(in))
+                        .referenceTo(readString(in))
+                        .build());
+            }
+            return symbols;
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        final var bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        final var length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        final var bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -16,28 +16,66 @@
 
 package io.appform.codeindex.storage;
 
+import io.appform.codeindex.models.FileRecord;
+import io.appform.codeindex.models.ResolutionMode;
+import io.appform.codeindex.models.SearchPage;
 import io.appform.codeindex.models.SearchRequest;
 import io.appform.codeindex.models.Symbol;
 import io.appform.codeindex.models.SymbolKind;
 import lombok.extern.slf4j.Slf4j;
+import org.sqlite.SQLiteConfig;
 
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @Slf4j
 public class SQLiteStorage implements AutoCloseable {
+    private static final String BULK_LOAD_KEY = "bulk_load";
+    private static final String RESOLUTION_KEY = "resolution";
+    private static final String SCHEMA_VERSION_KEY = "schema_version";
+    /**
+     * Version of the schema written by this class. 0 is the table of denormalized symbols, 1 moved
+     * names into dictionary tables, 2 added the subword and class and package full text indexes, 3
+     * added reference counts, 4 indexed symbols by file and line, and 5 marked files whose references
+     * are incomplete.
+     */
+    private static final int SCHEMA_VERSION = 5;
+    /**
+     * SQL for the part of a qualified name before its last dot, which for a method is its class.
+     */
+    private static final String OWNER = "substr(%1$s, 1, length(rtrim(%1$s, replace(%1$s, '.', ''))) - 1)";
+
     private final Connection connection;
+    private boolean bulkLoading;
 
     public SQLiteStorage(String dbPath) throws SQLException {
         this(DriverManager.getConnection("jdbc:sqlite:" + dbPath));
     }
 
     SQLiteStorage(Connection connection) throws SQLException {
+        this(connection, false);
+    }
+
+    private SQLiteStorage(Connection connection, boolean readOnly) throws SQLException {
         this.connection = connection;
+        if (readOnly) {
+            return;
+        }
         try {
             tuneDatabase();
             initializeSchema();
@@ -53,6 +91,81 @@ public class SQLiteStorage implements AutoCloseable {
         }
     }
 
+    /**
+     * Opens an existing index for searching and exporting only.
+     *
+     * <p>The connection is opened read-only and skips the journal settings and schema setup that a
+     * writer needs, so opening costs a few milliseconds. SQLite's {@code immutable} mode is not used:
+     * the index is kept in WAL mode and may be written by a running {@code watch}, and an immutable
+     * reader would ignore the write-ahead log.
+     *
+     * <p>An index with an older schema version is migrated first, by a read-write open, so despite its
+     * name this call may write to the index once. Migrating an index from before names were moved into
+     * dictionary tables also rewrites the whole file with {@code VACUUM}.
+     *
+     * @throws SQLException if there is no index at the path, it cannot be read or migrating it fails
+     */
+    public static SQLiteStorage openReadOnly(String dbPath) throws SQLException {
+        if (!Files.isRegularFile(Path.of(dbPath))) {
+            throw new SQLException("No index found at " + dbPath);
+        }
+        var connection = readOnlyConnection(dbPath);
+        final boolean outdated;
+        try {
+            outdated = !hasTable(connection, "symbol_rows") || schemaVersion(connection) < SCHEMA_VERSION;
+        }
+        catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        if (outdated) {
+            connection.close();
+            new SQLiteStorage(dbPath).close();
+            connection = readOnlyConnection(dbPath);
+        }
+        return new SQLiteStorage(connection, true);
+    }
+
+    /**
+     * Opens a read-only connection with the per-connection cache settings that searches benefit from.
+     */
+    static Connection readOnlyConnection(String dbPath) throws SQLException {
+        final var config = new SQLiteConfig();
+        config.setReadOnly(true);
+        final var connection = config.createConnection("jdbc:sqlite:" + dbPath);
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA cache_size = -20000"); // 20MB
+            stmt.execute("PRAGMA temp_store = MEMORY");
+            stmt.execute("PRAGMA mmap_size = 30000000000"); // Up to 30GB mmap
+        }
+        catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        return connection;
+    }
+
+    private static boolean hasTable(Connection connection, String name) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement("SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = ?")) {
+            pstmt.setString(1, name);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private static boolean hasColumn(Connection connection, String table, String column) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+                ResultSet rs = stmt.executeQuery("PRAGMA table_info(" + table + ")")) {
+            while (rs.next()) {
+                if (rs.getString("name").equals(column)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
     private void tuneDatabase() throws SQLException {
         try (Statement stmt = connection.createStatement()) {
             stmt.execute("PRAGMA journal_mode = WAL");
@@ -63,46 +176,563 @@ public class SQLiteStorage implements AutoCloseable {
         }
     }
 
+    /**
+     * The schema version recorded in an index. Indexes written before versions were recorded are
+     * recognized by their tables, and a database without any tables gets the current schema as it is.
+     */
+    private static int schemaVersion(Connection connection) throws SQLException {
+        if (hasTable(connection, "metadata")) {
+            try (PreparedStatement pstmt = connection.prepareStatement("SELECT value FROM metadata WHERE key = ?")) {
+                pstmt.setString(1, SCHEMA_VERSION_KEY);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        return Integer.parseInt(rs.getString(1));
+                    }
+                }
+            }
+        }
+        if (hasTable(connection, "symbols")) {
+            return 0;
+        }
+        if (!hasTable(connection, "symbol_rows")) {
+            return SCHEMA_VERSION;
+        }
+        if (!hasTable(connection, "name_terms")) {
+            return 1;
+        }
+        return hasTable(connection, "symbol_popularity") ? 3 : 2;
+    }
+
     private void initializeSchema() throws SQLException {
+        final var version = schemaVersion(connection);
+        if (version == 0) {
+            migrateLegacySchema();
+        } else if (version == 1) {
+            addSubwordIndex();
+        } else {
+            try (Statement stmt = connection.createStatement()) {
+                createTables(stmt);
+                createSearchTables(stmt);
+                if (version == 2) {
+                    countReferences(stmt);
+                }
+            }
+        }
+        if (version < 4) {
+            try (Statement stmt = connection.createStatement()) {
+                // Replaced by idx_symbols_file_line, which serves lookups by file just as well
+                stmt.execute("DROP INDEX IF EXISTS idx_symbols_file_id");
+            }
+        }
+        if (version < 5 && !hasColumn(connection, "files", "degraded")) {
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("ALTER TABLE files ADD COLUMN degraded INTEGER NOT NULL DEFAULT 0");
+            }
+        }
+        if (version < SCHEMA_VERSION || getMetadata(SCHEMA_VERSION_KEY) == null) {
+            setMetadata(SCHEMA_VERSION_KEY, String.valueOf(SCHEMA_VERSION));
+        }
+    }
+
+    /**
+     * Creates the tables. File paths, class names, package names and symbol kinds are each stored
+     * once in a dictionary table and referenced from {@code symbol_rows} by integer id. Symbol and
+     * class names that have camelCase words get their {@link Subwords} expansion in {@code name_terms}.
+     * {@code symbol_popularity} counts the references to each qualified method and class name.
+     */
+    private void createTables(Statement stmt) throws SQLException {
+        for (String dictionary : List.of("file_paths", "packages", "classes", "kinds")) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS " + dictionary + " (id INTEGER PRIMARY KEY, name TEXT NOT NULL UNIQUE)");
+        }
+        stmt.execute("INSERT OR IGNORE INTO kinds (name) VALUES " + Arrays.stream(SymbolKind.values())
+                .map(kind -> "('" + kind.name() + "')")
+                .collect(Collectors.joining(", ")));
+        stmt.execute("CREATE TABLE IF NOT EXISTS name_terms (name TEXT PRIMARY KEY, terms TEXT NOT NULL) WITHOUT ROWID");
+        stmt.execute("CREATE TABLE IF NOT EXISTS symbol_popularity (target TEXT PRIMARY KEY, refs INTEGER NOT NULL) WITHOUT ROWID");
+        stmt.execute("""
+                CREATE TABLE IF NOT EXISTS symbol_rows (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    name TEXT NOT NULL,
+                    class_id INTEGER REFERENCES classes(id),
+                    package_id INTEGER REFERENCES packages(id),
+                    kind_id INTEGER NOT NULL REFERENCES kinds(id),
+                    file_id INTEGER NOT NULL REFERENCES file_paths(id),
+                    line INTEGER NOT NULL,
+                    signature TEXT,
+                    reference_to TEXT
+                )
+                """);
+        stmt.execute("""
+                CREATE TABLE IF NOT EXISTS files (
+                    path TEXT PRIMARY KEY,
+                    size INTEGER NOT NULL,
+                    mtime INTEGER NOT NULL,
+                    content_hash TEXT NOT NULL,
+                    degraded INTEGER NOT NULL DEFAULT 0
+                )
+                """);
+        stmt.execute("""
+                CREATE TABLE IF NOT EXISTS metadata (
+                    key TEXT PRIMARY KEY,
+                    value TEXT NOT NULL
+                )
+                """);
+    }
+
+    /**
+     * Creates the {@code symbols} view, which joins the dictionaries back in so symbols read as they
+     * are written, and the full text indexes.
+     *
+     * <p>{@code symbols_fts} indexes each symbol's name, class name and package, with names replaced by
+     * their subword expansion where they have one. {@code classes_fts} and {@code packages_fts} index
+     * the dictionaries, so class and package filters find matching ids without scanning names.
+     */
+    private void createSearchTables(Statement stmt) throws SQLException {
+        stmt.execute("""
+                CREATE VIEW IF NOT EXISTS symbols AS
+                SELECT s.id, s.name, c.name AS class_name, p.name AS package_name, k.name AS kind,
+                       f.name AS file_path, s.line, s.signature, s.reference_to,
+                       s.class_id, s.package_id, s.kind_id, s.file_id
+                FROM symbol_rows s
+                JOIN kinds k ON k.id = s.kind_id
+                JOIN file_paths f ON f.id = s.file_id
+                LEFT JOIN classes c ON c.id = s.class_id
+                LEFT JOIN packages p ON p.id = s.package_id
+                """);
+        stmt.execute("""
+                CREATE VIEW IF NOT EXISTS symbol_terms AS
+                SELECT s.id, coalesce(n.terms, s.name) AS name, coalesce(ct.terms, c.name) AS class_name,
+                       p.name AS package_name
+                FROM symbol_rows s
+                LEFT JOIN name_terms n ON n.name = s.name
+                LEFT JOIN classes c ON c.id = s.class_id
+                LEFT JOIN name_terms ct ON ct.name = c.name
+                LEFT JOIN packages p ON p.id = s.package_id
+                """);
+        stmt.execute("""
+                CREATE VIEW IF NOT EXISTS class_terms AS
+                SELECT c.id, coalesce(t.terms, c.name) AS name
+                FROM classes c
+                LEFT JOIN name_terms t ON t.name = c.name
+                """);
+        stmt.execute("""
+                CREATE VIRTUAL TABLE IF NOT EXISTS symbols_fts USING fts5(
+                    name, class_name, package_name,
+                    content='symbol_terms',
+                    content_rowid='id'
+                )
+                """);
+        stmt.execute("CREATE VIRTUAL TABLE IF NOT EXISTS classes_fts USING fts5(name, content='class_terms', content_rowid='id')");
+        stmt.execute("CREATE VIRTUAL TABLE IF NOT EXISTS packages_fts USING fts5(name, content='packages', content_rowid='id')");
+        // Dictionary entries are never updated, and only file paths are ever deleted
+        stmt.execute("""
+                CREATE TRIGGER IF NOT EXISTS classes_ai AFTER INSERT ON classes BEGIN
+                    INSERT INTO classes_fts(rowid, name)
+                    VALUES (new.id, coalesce((SELECT terms FROM name_terms WHERE name = new.name), new.name));
+                END
+                """);
+        stmt.execute("""
+                CREATE TRIGGER IF NOT EXISTS packages_ai AFTER INSERT ON packages BEGIN
+                    INSERT INTO packages_fts(rowid, name) VALUES (new.id, new.name);
+                END
+                """);
+        // Also gives the symbols of each file in line order, so exports need not sort them
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_symbols_file_line ON symbol_rows(file_id, line)");
+        createSearchIndexes(stmt);
+    }
+
+    private void createSearchIndexes(Statement stmt) throws SQLException {
+        stmt.execute("""
+                CREATE TRIGGER IF NOT EXISTS symbols_ai AFTER INSERT ON symbol_rows BEGIN
+                    INSERT INTO symbols_fts(rowid, name, class_name, package_name)
+                    SELECT id, name, class_name, package_name FROM symbol_terms WHERE id = new.id;
+                END
+                """);
+        stmt.execute("""
+                CREATE TRIGGER IF NOT EXISTS symbols_ad AFTER DELETE ON symbol_rows BEGIN
+                    INSERT INTO symbols_fts(symbols_fts, rowid, name, class_name, package_name)
+                    VALUES ('delete', old.id,
+                            coalesce((SELECT terms FROM name_terms WHERE name = old.name), old.name),
+                            (SELECT name FROM class_terms WHERE id = old.class_id),
+                            (SELECT name FROM packages WHERE id = old.package_id));
+                END
+                """);
+        stmt.execute("""
+                CREATE TRIGGER IF NOT EXISTS popularity_ai AFTER INSERT ON symbol_rows
+                WHEN new.reference_to IS NOT NULL BEGIN
+                    INSERT INTO symbol_popularity (target, refs) VALUES (new.reference_to, 1)
+                    ON CONFLICT (target) DO UPDATE SET refs = refs + 1;
+                    INSERT INTO symbol_popularity (target, refs)
+                    SELECT %s, 1 WHERE instr(new.reference_to, '.') > 0
+                    ON CONFLICT (target) DO UPDATE SET refs = refs + 1;
+                END
+                """.formatted(OWNER.formatted("new.reference_to")));
+        stmt.execute("""
+                CREATE TRIGGER IF NOT EXISTS popularity_ad AFTER DELETE ON symbol_rows
+                WHEN old.reference_to IS NOT NULL BEGIN
+                    UPDATE symbol_popularity SET refs = refs - 1
+                    WHERE target IN (old.reference_to, %s);
+                END
+                """.formatted(OWNER.formatted("old.reference_to")));
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_symbols_name ON symbol_rows(name)");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_symbols_reference_to ON symbol_rows(reference_to)");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_symbols_class_id ON symbol_rows(class_id)");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_symbols_package_id ON symbol_rows(package_id)");
+    }
+
+    /**
+     * Recounts the references to every qualified method and class name, which searches rank by.
+     */
+    private void countReferences(Statement stmt) throws SQLException {
+        stmt.execute("DELETE FROM symbol_popularity");
+        stmt.execute("""
+                INSERT INTO symbol_popularity (target, refs)
+                SELECT reference_to, count(*) FROM symbol_rows WHERE reference_to IS NOT NULL GROUP BY reference_to
+                """);
+        stmt.execute("""
+                INSERT INTO symbol_popularity (target, refs)
+                SELECT %s, count(*) FROM symbol_rows
+                WHERE reference_to IS NOT NULL AND instr(reference_to, '.') > 0 GROUP BY 1
+                ON CONFLICT (target) DO UPDATE SET refs = refs + excluded.refs
+                """.formatted(OWNER.formatted("reference_to")));
+    }
+
+    /**
+     * Converts an index written before symbols were normalized: the old {@code symbols} table is
+     * copied into the dictionaries and {@code symbol_rows}, keeping symbol ids, and dropped. The
+     * database is vacuumed afterwards so the space it held is given back.
+     */
+    private void migrateLegacySchema() throws SQLException {
+        log.info("Converting the index to the normalized symbol schema");
+        inTransaction(() -> {
+            try (Statement stmt = connection.createStatement()) {
+                createTables(stmt);
+                stmt.execute("INSERT OR IGNORE INTO file_paths (name) SELECT DISTINCT file_path FROM symbols");
+                stmt.execute("INSERT OR IGNORE INTO classes (name) SELECT DISTINCT class_name FROM symbols WHERE class_name IS NOT NULL");
+                stmt.execute("INSERT OR IGNORE INTO packages (name) SELECT DISTINCT package_name FROM symbols WHERE package_name IS NOT NULL");
+                stmt.execute("""
+                        INSERT INTO symbol_rows (id, name, class_id, package_id, kind_id, file_id, line, signature, reference_to)
+                        SELECT s.id, s.name, c.id, p.id, k.id, f.id, s.line, s.signature, s.reference_to
+                        FROM symbols s
+                        JOIN kinds k ON k.name = s.kind
+                        JOIN file_paths f ON f.name = s.file_path
+                        LEFT JOIN classes c ON c.name = s.class_name
+                        LEFT JOIN packages p ON p.name = s.package_name
+                        """);
+                stmt.execute("DROP TABLE symbols_fts");
+                stmt.execute("DROP TABLE symbols");
+                indexSubwords(stmt);
+            }
+        });
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("VACUUM");
+            stmt.execute("ANALYZE");
+        }
+    }
+
+    /**
+     * Upgrades a normalized index written before names were indexed by subword.
+     */
+    private void addSubwordIndex() throws SQLException {
+        log.info("Re-indexing symbol names by subword");
+        inTransaction(() -> {
+            try (Statement stmt = connection.createStatement()) {
+                createTables(stmt);
+                stmt.execute("DROP TRIGGER IF EXISTS symbols_ai");
+                stmt.execute("DROP TRIGGER IF EXISTS symbols_ad");
+                stmt.execute("DROP TABLE IF EXISTS symbols_fts");
+                indexSubwords(stmt);
+            }
+        });
+    }
+
+    /**
+     * Expands every stored symbol and class name, then creates and fills the full text indexes and
+     * the reference counts.
+     */
+    private void indexSubwords(Statement stmt) throws SQLException {
+        final var sql = "INSERT OR IGNORE INTO name_terms (name, terms) VALUES (?, ?)";
+        try (PreparedStatement pstmt = connection.prepareStatement(sql);
+                ResultSet rs = stmt.executeQuery("SELECT DISTINCT name FROM symbol_rows UNION SELECT name FROM classes")) {
+            int count = 0;
+            while (rs.next()) {
+                final var terms = Subwords.expand(rs.getString(1));
+                if (terms != null) {
+                    pstmt.setString(1, rs.getString(1));
+                    pstmt.setString(2, terms);
+                    pstmt.addBatch();
+                    if (++count % 1000 == 0) {
+                        pstmt.executeBatch();
+                    }
+                }
+            }
+            pstmt.executeBatch();
+        }
+        try (Statement ddl = connection.createStatement()) {
+            createSearchTables(ddl);
+            for (String index : List.of("symbols_fts", "classes_fts", "packages_fts")) {
+                ddl.execute("INSERT INTO " + index + "(" + index + ") VALUES ('rebuild')");
+            }
+            countReferences(ddl);
+        }
+    }
+
+    /**
+     * Switches to bulk-load mode for building an index from scratch.
+     *
+     * <p>The FTS and reference count triggers and the search indexes are dropped so that inserts only
+     * touch the table itself; writers are expected to stream rows in large batches through
+     * {@link #applyUpdates(List)}.
+     * {@link #finishBulkLoad()} rebuilds everything that was dropped. If the process dies before
+     * that, {@link #isBulkLoadPending()} reports it on the next open.
+     */
+    public void beginBulkLoad() throws SQLException {
         try (Statement stmt = connection.createStatement()) {
-            stmt.execute("""
-                    CREATE TABLE IF NOT EXISTS symbols (
-                        id INTEGER PRIMARY KEY AUTOINCREMENT,
-                        name TEXT NOT NULL,
-                        class_name TEXT,
-                        package_name TEXT,
-                        kind TEXT NOT NULL,
-                        file_path TEXT NOT NULL,
-                        line INTEGER NOT NULL,
-                        signature TEXT,
-                        reference_to TEXT
-                    )
-                    """);
-            stmt.execute("""
-                    CREATE VIRTUAL TABLE IF NOT EXISTS symbols_fts USING fts5(
-                        name, class_name, package_name,
-                        content='symbols',
-                        content_rowid='id'
-                    )
-                    """);
-            stmt.execute("""
-                    CREATE TRIGGER IF NOT EXISTS symbols_ai AFTER INSERT ON symbols BEGIN
-                        INSERT INTO symbols_fts(rowid, name, class_name, package_name)
-                        VALUES (new.id, new.name, new.class_name, new.package_name);
-                    END
-                    """);
-            stmt.execute("CREATE INDEX IF NOT EXISTS idx_symbols_name ON symbols(name)");
-            stmt.execute("CREATE INDEX IF NOT EXISTS idx_symbols_reference_to ON symbols(reference_to)");
-            stmt.execute("CREATE INDEX IF NOT EXISTS idx_symbols_class_name ON symbols(class_name)");
-            stmt.execute("CREATE INDEX IF NOT EXISTS idx_symbols_package_name ON symbols(package_name)");
+            stmt.execute("DROP TRIGGER IF EXISTS symbols_ai");
+            stmt.execute("DROP TRIGGER IF EXISTS symbols_ad");
+            stmt.execute("DROP TRIGGER IF EXISTS popularity_ai");
+            stmt.execute("DROP TRIGGER IF EXISTS popularity_ad");
+            stmt.execute("DROP INDEX IF EXISTS idx_symbols_name");
+            stmt.execute("DROP INDEX IF EXISTS idx_symbols_reference_to");
+            stmt.execute("DROP INDEX IF EXISTS idx_symbols_class_id");
+            stmt.execute("DROP INDEX IF EXISTS idx_symbols_package_id");
+        }
+        setMetadata(BULK_LOAD_KEY, "pending");
+        bulkLoading = true;
+    }
+
+    /**
+     * Rebuilds the FTS index and the reference counts, recreates the search indexes and refreshes the
+     * query planner statistics.
+     */
+    public void finishBulkLoad() throws SQLException {
+        bulkLoading = false;
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("INSERT INTO symbols_fts(symbols_fts) VALUES ('rebuild')");
+            countReferences(stmt);
+            createSearchIndexes(stmt);
+            stmt.execute("ANALYZE");
+        }
+        deleteMetadata(BULK_LOAD_KEY);
+    }
+
+    public boolean isBulkLoading() {
+        return bulkLoading;
+    }
+
+    public boolean isBulkLoadPending() throws SQLException {
+        return getMetadata(BULK_LOAD_KEY) != null;
+    }
+
+    public boolean isEmpty() throws SQLException {
+        try (Statement stmt = connection.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT EXISTS (SELECT 1 FROM symbol_rows) OR EXISTS (SELECT 1 FROM files)")) {
+            return !rs.next() || rs.getInt(1) == 0;
         }
     }
 
     public void saveSymbols(List<Symbol> symbols) throws SQLException {
-        final var sql = "INSERT INTO symbols (name, class_name, package_name, kind, file_path, line, signature, reference_to) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        inTransaction(() -> insertSymbols(symbols));
+    }
+
+    /**
+     * Replaces everything stored for a file: its old symbols are deleted, the new ones inserted and
+     * its manifest entry updated, all in one transaction.
+     */
+    public void replaceFile(FileRecord file, List<Symbol> symbols) throws SQLException {
+        inTransaction(() -> apply(FileUpdate.replace(file, symbols)));
+    }
+
+    /**
+     * Deletes the symbols and manifest entries of files that no longer exist, in one transaction.
+     */
+    public void removeFiles(Collection<String> paths) throws SQLException {
+        if (paths.isEmpty()) {
+            return;
+        }
+        inTransaction(() -> {
+            try (PreparedStatement pstmt = connection.prepareStatement("DELETE FROM files WHERE path = ?");
+                    PreparedStatement pathStmt = connection.prepareStatement("DELETE FROM file_paths WHERE name = ?")) {
+                for (String path : paths) {
+                    deleteSymbols(path);
+                    pstmt.setString(1, path);
+                    pstmt.executeUpdate();
+                    pathStmt.setString(1, path);
+                    pathStmt.executeUpdate();
+                }
+            }
+        });
+    }
+
+    /**
+     * Applies updates for many files in a single transaction. Every update runs in its own savepoint,
+     * so one that fails is rolled back on its own and the rest are still committed. Once a part of a
+     * file fails, its later parts are not applied either.
+     *
+     * @param updates File updates to apply, in order
+     * @return Updates that failed and were not applied
+     * @throws SQLException if the transaction itself could not be committed
+     */
+    public List<FileUpdate> applyUpdates(List<FileUpdate> updates) throws SQLException {
+        final var failed = new ArrayList<FileUpdate>();
+        inTransaction(() -> {
+            final var failedFiles = new HashSet<String>();
+            for (FileUpdate update : updates) {
+                if (!update.isFirst() && failedFiles.contains(update.getRecord().getPath())) {
+                    failed.add(update);
+                    continue;
+                }
+                try {
+                    inSavepoint(() -> apply(update));
+                }
+                catch (SQLException e) {
+                    log.error("Failed to write file: {}", update.getRecord().getPath(), e);
+                    failed.add(update);
+                    failedFiles.add(update.getRecord().getPath());
+                }
+            }
+        });
+        return failed;
+    }
+
+    /**
+     * Replaces the references of each file with the given ones in one transaction, leaving its
+     * declarations as they are. The files are no longer marked as degraded.
+     */
+    public void replaceReferences(Map<String, List<Symbol>> referencesByFile) throws SQLException {
+        replaceReferences(referencesByFile, Set.of());
+    }
+
+    /**
+     * Replaces the references of each file with the given ones in one transaction, leaving its
+     * declarations as they are. The manifest entries of the files in {@code degraded} are marked as
+     * degraded, and those of the others are not.
+     */
+    public void replaceReferences(Map<String, List<Symbol>> referencesByFile, Set<String> degraded) throws SQLException {
+        if (referencesByFile.isEmpty()) {
+            return;
+        }
+        inTransaction(() -> {
+            final var sql = "DELETE FROM symbol_rows WHERE file_id = (SELECT id FROM file_paths WHERE name = ?) "
+                    + "AND kind_id = (SELECT id FROM kinds WHERE name = ?)";
+            try (PreparedStatement pstmt = connection.prepareStatement(sql);
+                    PreparedStatement mark = connection.prepareStatement("UPDATE files SET degraded = ? WHERE path = ?")) {
+                for (Map.Entry<String, List<Symbol>> entry : referencesByFile.entrySet()) {
+                    pstmt.setString(1, entry.getKey());
+                    pstmt.setString(2, SymbolKind.REFERENCE.name());
+                    pstmt.executeUpdate();
+                    insertSymbols(entry.getValue());
+                    mark.setBoolean(1, degraded.contains(entry.getKey()));
+                    mark.setString(2, entry.getKey());
+                    mark.executeUpdate();
+                }
+            }
+        });
+    }
+
+    /**
+     * Files with references that were stored without a target by a {@link ResolutionMode#LAZY} run.
+     */
+    public List<String> getFilesWithUnresolvedReferences() throws SQLException {
+        final var paths = new ArrayList<String>();
+        final var sql = "SELECT DISTINCT file_path FROM symbols WHERE kind = ? AND reference_to IS NULL ORDER BY file_path";
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setString(1, SymbolKind.REFERENCE.name());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    paths.add(rs.getString(1));
+                }
+            }
+        }
+        return paths;
+    }
+
+    /**
+     * Files stored without some of their references because resolving them ran out of time.
+     */
+    public List<String> getDegradedFiles() throws SQLException {
+        final var paths = new ArrayList<String>();
+        try (Statement stmt = connection.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT path FROM files WHERE degraded ORDER BY path")) {
+            while (rs.next()) {
+                paths.add(rs.getString(1));
+            }
+        }
+        return paths;
+    }
+
+    /**
+     * The resolution mode the index was last built with, or {@code null} if it was never recorded.
+     */
+    public ResolutionMode getResolutionMode() throws SQLException {
+        final var mode = getMetadata(RESOLUTION_KEY);
+        return mode != null ? ResolutionMode.valueOf(mode) : null;
+    }
+
+    public void setResolutionMode(ResolutionMode mode) throws SQLException {
+        setMetadata(RESOLUTION_KEY, mode.name());
+    }
+
+    public void updateFileRecord(FileRecord file) throws SQLException {
+        saveFileRecord(file);
+    }
+
+    public Map<String, FileRecord> getFileRecords() throws SQLException {
+        final var records = new HashMap<String, FileRecord>();
+        try (Statement stmt = connection.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT path, size, mtime, content_hash, degraded FROM files")) {
+            readFileRecords(rs, records);
+        }
+        return records;
+    }
+
+    /**
+     * Manifest entries for the given paths, and for every file below those that are directories.
+     * Paths use the platform separator, as the indexer stores them.
+     */
+    public Map<String, FileRecord> getFileRecordsUnder(Collection<String> paths) throws SQLException {
+        final var separator = File.separatorChar;
+        final var records = new HashMap<String, FileRecord>();
+        final var sql = "SELECT path, size, mtime, content_hash, degraded FROM files WHERE path = ? OR (path > ? AND path < ?)";
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            for (String path : paths) {
+                // Everything below a directory sorts between "dir/" and the next character after the separator
+                pstmt.setString(1, path);
+                pstmt.setString(2, path + separator);
+                pstmt.setString(3, path + (char) (separator + 1));
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    readFileRecords(rs, records);
+                }
+            }
+        }
+        return records;
+    }
+
+    private static void readFileRecords(ResultSet rs, Map<String, FileRecord> records) throws SQLException {
+        while (rs.next()) {
+            final var record = FileRecord.builder()
+                    .path(rs.getString("path"))
+                    .size(rs.getLong("size"))
+                    .mtime(rs.getLong("mtime"))
+                    .contentHash(rs.getString("content_hash"))
+                    .degraded(rs.getBoolean("degraded"))
+                    .build();
+            records.put(record.getPath(), record);
+        }
+    }
+
+    private void insertSymbols(List<Symbol> symbols) throws SQLException {
+        addTerms(symbols);
+        addNames("file_paths", symbols, Symbol::getFilePath);
+        addNames("classes", symbols, Symbol::getClassName);
+        addNames("packages", symbols, Symbol::getPackageName);
+        final var sql = """
+                INSERT INTO symbol_rows (name, class_id, package_id, kind_id, file_id, line, signature, reference_to)
+                VALUES (?, (SELECT id FROM classes WHERE name = ?), (SELECT id FROM packages WHERE name = ?),
+                        (SELECT id FROM kinds WHERE name = ?), (SELECT id FROM file_paths WHERE name = ?), ?, ?, ?)
+                """;
         final var batchSize = 1000;
         try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            connection.setAutoCommit(false);
             int count = 0;
             for (Symbol symbol : symbols) {
                 pstmt.setString(1, symbol.getName());
@@ -120,6 +750,127 @@ public class SQLiteStorage implements AutoCloseable {
                 }
             }
             pstmt.executeBatch();
+        }
+    }
+
+    /**
+     * Records the subword expansion of new symbol and class names. Runs before the names are added to
+     * the dictionaries, whose full text triggers read it.
+     */
+    private void addTerms(List<Symbol> symbols) throws SQLException {
+        final var names = new LinkedHashSet<String>();
+        for (Symbol symbol : symbols) {
+            names.add(symbol.getName());
+            if (symbol.getClassName() != null) {
+                names.add(symbol.getClassName());
+            }
+        }
+        try (PreparedStatement pstmt = connection.prepareStatement("INSERT OR IGNORE INTO name_terms (name, terms) VALUES (?, ?)")) {
+            for (String name : names) {
+                final var terms = Subwords.expand(name);
+                if (terms != null) {
+                    pstmt.setString(1, name);
+                    pstmt.setString(2, terms);
+                    pstmt.addBatch();
+                }
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    /**
+     * Adds the distinct non-null values of a symbol attribute to a dictionary table, keeping the ids
+     * of values it already holds.
+     */
+    private void addNames(String dictionary, List<Symbol> symbols, Function<Symbol, String> attribute) throws SQLException {
+        final var names = new LinkedHashSet<String>();
+        for (Symbol symbol : symbols) {
+            final var name = attribute.apply(symbol);
+            if (name != null) {
+                names.add(name);
+            }
+        }
+        try (PreparedStatement pstmt = connection.prepareStatement("INSERT OR IGNORE INTO " + dictionary + " (name) VALUES (?)")) {
+            for (String name : names) {
+                pstmt.setString(1, name);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    private void apply(FileUpdate update) throws SQLException {
+        if (update.isDiscard()) {
+            deleteSymbols(update.getRecord().getPath());
+            deleteFileRecord(update.getRecord().getPath());
+            return;
+        }
+        if (update.getSymbols() != null) {
+            if (update.isFirst()) {
+                deleteSymbols(update.getRecord().getPath());
+            }
+            insertSymbols(update.getSymbols());
+        }
+        if (update.isLast()) {
+            saveFileRecord(update.getRecord());
+        }
+    }
+
+    private void deleteSymbols(String filePath) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "DELETE FROM symbol_rows WHERE file_id = (SELECT id FROM file_paths WHERE name = ?)")) {
+            pstmt.setString(1, filePath);
+            pstmt.executeUpdate();
+        }
+    }
+
+    private void deleteFileRecord(String filePath) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement("DELETE FROM files WHERE path = ?")) {
+            pstmt.setString(1, filePath);
+            pstmt.executeUpdate();
+        }
+    }
+
+    private void saveFileRecord(FileRecord file) throws SQLException {
+        final var sql = "INSERT OR REPLACE INTO files (path, size, mtime, content_hash, degraded) VALUES (?, ?, ?, ?, ?)";
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setString(1, file.getPath());
+            pstmt.setLong(2, file.getSize());
+            pstmt.setLong(3, file.getMtime());
+            pstmt.setString(4, file.getContentHash());
+            pstmt.setBoolean(5, file.isDegraded());
+            pstmt.executeUpdate();
+        }
+    }
+
+    private String getMetadata(String key) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement("SELECT value FROM metadata WHERE key = ?")) {
+            pstmt.setString(1, key);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+
+    private void setMetadata(String key, String value) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement("INSERT OR REPLACE INTO metadata (key, value) VALUES (?, ?)")) {
+            pstmt.setString(1, key);
+            pstmt.setString(2, value);
+            pstmt.executeUpdate();
+        }
+    }
+
+    private void deleteMetadata(String key) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement("DELETE FROM metadata WHERE key = ?")) {
+            pstmt.setString(1, key);
+            pstmt.executeUpdate();
+        }
+    }
+
+    private void inTransaction(SQLWork work) throws SQLException {
+        try {
+            connection.setAutoCommit(false);
+            work.run();
             connection.commit();
         }
         catch (SQLException e) {
@@ -153,107 +904,114 @@ public class SQLiteStorage implements AutoCloseable {
     }
 
     public List<Symbol> search(SearchRequest request) throws SQLException {
-        final var sql = new StringBuilder("SELECT name, class_name, package_name, kind, file_path, line, signature, reference_to FROM symbols WHERE id IN (SELECT rowid FROM symbols_fts WHERE symbols_fts MATCH ?)");
-        final var params = new ArrayList<>();
-
-        if (request.getQuery() != null && !request.getQuery().isBlank()) {
-            if (request.getQuery().contains("::")) {
-                final var parts = request.getQuery().split("::");
-                final var containerTerm = parts[0];
-                final var symbolTerm = parts[1];
-                params.add(String.format("name:%s* AND (class_name:%s* OR package_name:%s*)", symbolTerm, containerTerm, containerTerm));
-            } else {
-                params.add(String.format("name:%s* OR class_name:%s* OR package_name:%s*", request.getQuery(), request.getQuery(), request.getQuery()));
-            }
-        } else {
-            // Fallback for empty query if other filters are present
-            sql.setLength(0);
-            sql.append("SELECT name, class_name, package_name, kind, file_path, line, signature, reference_to FROM symbols WHERE 1=1");
-        }
+        return searchPage(request).getSymbols();
+    }
 
-        if (request.getClassName() != null && !request.getClassName().isBlank()) {
-            sql.append(" AND class_name LIKE ?");
-            params.add("%" + request.getClassName() + "%");
+    /**
+     * Runs one page of a search. The page's next cursor, set on the same request, continues after it.
+     */
+    public SearchPage searchPage(SearchRequest request) throws SQLException {
+        final var query = SearchQuery.of(request);
+        try (PreparedStatement pstmt = connection.prepareStatement(query.sql())) {
+            return query.execute(pstmt);
         }
+    }
 
-        if (request.getPackageName() != null && !request.getPackageName().isBlank()) {
-            sql.append(" AND package_name LIKE ?");
-            params.add("%" + request.getPackageName() + "%");
+    /**
+     * Runs a search and reads the results as the stream is consumed, so a large result needs no more
+     * memory than a small one. The stream must be closed.
+     */
+    public Stream<Symbol> searchStream(SearchRequest request) throws SQLException {
+        final var query = SearchQuery.of(request);
+        final var pstmt = connection.prepareStatement(query.sql());
+        try {
+            return query.stream(pstmt, () -> closeQuietly(pstmt));
         }
-
-        if (request.getFilePathGlob() != null && !request.getFilePathGlob().isBlank()) {
-            // SQLite doesn't have native GLOB support in the same way as file systems,
-            // but it has a GLOB operator. We'll use LIKE for simplicity or GLOB if preferred.
-            sql.append(" AND file_path GLOB ?");
-            params.add(request.getFilePathGlob());
+        catch (SQLException e) {
+            closeQuietly(pstmt);
+            throw e;
         }
+    }
 
-        if (request.getKinds() != null && !request.getKinds().isEmpty()) {
-            sql.append(" AND kind IN (")
-                    .append(IntStream.range(0, request.getKinds().size())
-                            .mapToObj(i -> "?")
-                            .collect(Collectors.joining(",")))
-                    .append(")");
-            request.getKinds().forEach(kind -> params.add(kind.name()));
+    public List<Symbol> getAllSymbols(Set<SymbolKind> kinds) throws SQLException {
+        try (Stream<Symbol> symbols = streamAllSymbols(kinds)) {
+            return symbols.collect(Collectors.toList());
         }
+    }
 
-        sql.append(" LIMIT ?");
-        params.add(request.getLimit());
-
-        try (PreparedStatement pstmt = connection.prepareStatement(sql.toString())) {
-            for (int i = 0; i < params.size(); i++) {
-                final var param = params.get(i);
-                if (param instanceof Integer) {
-                    pstmt.setInt(i + 1, (Integer) param);
-                } else {
-                    pstmt.setString(i + 1, (String) param);
+    /**
+     * Reads every symbol of the given kinds, or of all kinds if none are given, ordered by file path
+     * and line, as the stream is consumed. The stream must be closed.
+     *
+     * <p>Files are walked in path order through the unique index of {@code file_paths}, and the symbols
+     * of each through {@code idx_symbols_file_line}, so rows come out in order without being sorted
+     * first and memory use does not grow with the size of the index.
+     */
+    public Stream<Symbol> streamAllSymbols(Set<SymbolKind> kinds) throws SQLException {
+        final var pstmt = connection.prepareStatement(allSymbolsSql(kinds == null ? 0 : kinds.size()));
+        final ResultSet rs;
+        try {
+            if (kinds != null && !kinds.isEmpty()) {
+                int i = 1;
+                for (SymbolKind kind : kinds) {
+                    pstmt.setString(i++, kind.name());
                 }
             }
-            return executeSearch(pstmt);
+            rs = pstmt.executeQuery();
+        }
+        catch (SQLException e) {
+            closeQuietly(pstmt);
+            throw e;
         }
+        return SearchQuery.stream(rs).onClose(() -> closeQuietly(pstmt));
     }
 
-    private List<Symbol> executeSearch(PreparedStatement pstmt) throws SQLException {
-        final var results = new ArrayList<Symbol>();
-        try (ResultSet rs = pstmt.executeQuery()) {
-            while (rs.next()) {
-                results.add(Symbol.builder()
-                        .name(rs.getString("name"))
-                        .className(rs.getString("class_name"))
-                        .packageName(rs.getString("package_name"))
-                        .kind(SymbolKind.valueOf(rs.getString("kind")))
-                        .filePath(rs.getString("file_path"))
-                        .line(rs.getInt("line"))
-                        .signature(rs.getString("signature"))
-                        .referenceTo(rs.getString("reference_to"))
-                        .build());
-            }
+    /**
+     * Query for {@link #streamAllSymbols(Set)} with {@code kindCount} kind parameters, or none to read
+     * every kind. The kinds are only a filter, so the file and line order still comes from the indexes.
+     */
+    static String allSymbolsSql(int kindCount) {
+        // CROSS JOIN keeps file_paths as the outer loop, which is what makes the order free
+        final var sql = new StringBuilder("""
+                SELECT s.name, c.name AS class_name, p.name AS package_name, k.name AS kind, f.name AS file_path,
+                       s.line, s.signature, s.reference_to
+                FROM file_paths f
+                CROSS JOIN symbol_rows s ON s.file_id = f.id
+                JOIN kinds k ON k.id = s.kind_id
+                LEFT JOIN classes c ON c.id = s.class_id
+                LEFT JOIN packages p ON p.id = s.package_id""");
+        if (kindCount > 0) {
+            sql.append(" WHERE s.kind_id IN (SELECT id FROM kinds WHERE name IN (")
+                    .append(String.join(",", Collections.nCopies(kindCount, "?")))
+                    .append("))");
         }
-        return results;
+        return sql.append(" ORDER BY f.name, s.line").toString();
     }
 
-    public List<Symbol> getAllSymbols(Set<SymbolKind> kinds) throws SQLException {
-        final var sql = new StringBuilder("SELECT name, class_name, package_name, kind, file_path, line, signature, reference_to FROM symbols");
-        if (kinds != null && !kinds.isEmpty()) {
-            sql.append(" WHERE kind IN (");
-            for (int i = 0; i < kinds.size(); i++) {
-                sql.append("?");
-                if (i < kinds.size() - 1) {
-                    sql.append(",");
-                }
-            }
-            sql.append(")");
+    private static void closeQuietly(Statement stmt) {
+        try {
+            stmt.close();
         }
-        sql.append(" ORDER BY file_path, line");
+        catch (SQLException e) {
+            log.warn("Error closing statement", e);
+        }
+    }
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql.toString())) {
-            if (kinds != null && !kinds.isEmpty()) {
-                int i = 1;
-                for (SymbolKind kind : kinds) {
-                    pstmt.setString(i++, kind.name());
-                }
+    private void inSavepoint(SQLWork work) throws SQLException {
+        final var savepoint = connection.setSavepoint();
+        try {
+            work.run();
+            connection.releaseSavepoint(savepoint);
+        }
+        catch (SQLException e) {
+            try {
+                connection.rollback(savepoint);
+                connection.releaseSavepoint(savepoint);
+            }
+            catch (SQLException rollbackEx) {
+                e.addSuppressed(rollbackEx);
             }
-            return executeSearch(pstmt);
+            throw e;
         }
     }
 
@@ -263,4 +1021,9 @@ public class SQLiteStorage implements AutoCloseable {
             connection.close();
         }
     }
+
+    @FunctionalInterface
+    private interface SQLWork {
+        void run() throws SQLException;
+    }
 }
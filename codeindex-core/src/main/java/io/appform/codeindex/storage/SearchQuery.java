@@ -0,0 +1,350 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.storage;
+
+import io.appform.codeindex.models.SearchPage;
+import io.appform.codeindex.models.SearchRequest;
+import io.appform.codeindex.models.Symbol;
+import io.appform.codeindex.models.SymbolKind;
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * SQL and parameters for a {@link SearchRequest}. Requests that use the same combination of
+ * filters, and the same number of kinds, produce the same SQL, so it can serve as the key of a
+ * statement cache.
+ *
+ * <p>Requests with a query return the best matches first. Matches are scored by FTS5
+ * {@code bm25()}, weighting the symbol name above its class and package, and boosted when the name
+ * equals the searched name. The best {@link #CANDIDATES} of those, or {@code limit} if that is
+ * larger, are then boosted by how many references point at them, and only the top {@code limit} are
+ * returned. The joins to the dictionaries and reference counts are made for the candidates only, so
+ * the cost of a query that matches many symbols is mostly the {@code bm25()} scoring itself.
+ *
+ * <p>Results are ordered by relevance and then symbol id, or by symbol id alone for requests
+ * without a query. Filters are applied to {@code symbol_rows}, and only the rows of the page are
+ * joined to the dictionaries. A page continues after the relevance and id of the last row of the
+ * previous page, which its cursor encodes.
+ *
+ * <p>Paging a request with a query walks the matches in slices of as many candidates as the first
+ * page ranked, taken in order of text score and id. Each slice is ordered by relevance, and the
+ * next one starts after the text score and id of the last candidate of the one before, which the
+ * cursor also carries. Every match is reached, and none twice, but a popular match with a poor text
+ * score comes with its slice rather than on the first page. A page takes the rest of its slice and
+ * the next slice together, so only the last page is short.
+ *
+ * <p>References are counted per {@code package.Class.member} target, and a symbol stores only the
+ * name of its innermost class. Members of nested classes are therefore looked up under
+ * {@code package.Inner.member}, which references never name, and get no popularity boost.
+ */
+final class SearchQuery {
+    private static final int CANDIDATES = 1000;
+    private static final String COLUMNS = "SELECT s.name, s.class_name, s.package_name, s.kind, s.file_path, s.line, s.signature, s.reference_to";
+    private static final String CANDIDATES_FROM = """
+            , c.score - 5.0 * coalesce(pop.refs, 0) / (coalesce(pop.refs, 0) + 10.0) AS relevance, s.id AS id,
+                    c.slice, c.next_score, c.next_id
+             FROM (SELECT id, score, (row_number() OVER slices - 1) / ? AS slice,
+                    nth_value(score, ?) OVER slices AS next_score, nth_value(id, ?) OVER slices AS next_id
+            FROM (SELECT symbols_fts.rowid AS id,
+                    bm25(symbols_fts, 10.0, 2.0, 1.0) - CASE WHEN r.name = ? COLLATE NOCASE THEN 10.0 ELSE 0.0 END AS score
+            FROM symbols_fts JOIN symbol_rows r ON r.id = symbols_fts.rowid
+            WHERE symbols_fts MATCH ?""";
+    private static final String RANK = """
+             ORDER BY score, id LIMIT ?)
+            WINDOW slices AS (ORDER BY score, id ROWS BETWEEN UNBOUNDED PRECEDING AND UNBOUNDED FOLLOWING)) c
+            JOIN symbols s ON s.id = c.id
+            LEFT JOIN symbol_popularity pop ON pop.target = coalesce(s.package_name || '.', '')
+                    || CASE WHEN s.kind = 'CLASS' THEN s.name ELSE s.class_name || '.' || s.name END""";
+
+    private final String sql;
+    private final List<Object> params;
+    private final boolean ranked;
+    private final int limit;
+    private final int candidates;
+    private final Cursor after;
+
+    private SearchQuery(String sql, List<Object> params, boolean ranked, int limit, int candidates, Cursor after) {
+        this.sql = sql;
+        this.params = params;
+        this.ranked = ranked;
+        this.limit = limit;
+        this.candidates = candidates;
+        this.after = after;
+    }
+
+    static SearchQuery of(SearchRequest request) {
+        final var sql = new StringBuilder(COLUMNS);
+        final var params = new ArrayList<>();
+        final var ranked = request.getQuery() != null && !request.getQuery().isBlank();
+        final var after = request.getCursor() == null ? null : Cursor.decode(request.getCursor(), ranked);
+        final var candidates = after == null ? Math.max(request.getLimit(), CANDIDATES) : after.getCandidates();
+
+        if (ranked) {
+            sql.append(CANDIDATES_FROM);
+            params.add(candidates);
+            params.add(candidates);
+            params.add(candidates);
+            if (request.getQuery().contains("::")) {
+                final var parts = request.getQuery().split("::");
+                final var containerTerm = parts[0];
+                final var symbolTerm = parts[1];
+                params.add(symbolTerm);
+                params.add(String.format("name:%s* AND (class_name:%s* OR package_name:%s*)", symbolTerm, containerTerm, containerTerm));
+            } else {
+                params.add(request.getQuery());
+                params.add(String.format("name:%s* OR class_name:%s* OR package_name:%s*", request.getQuery(), request.getQuery(), request.getQuery()));
+            }
+        } else {
+            // Fallback for empty query if other filters are present
+            sql.append(", s.id AS id FROM (SELECT id FROM symbol_rows WHERE 1=1");
+        }
+
+        if (request.getClassName() != null && !request.getClassName().isBlank()) {
+            sql.append(" AND class_id IN (SELECT rowid FROM classes_fts WHERE classes_fts MATCH ?)");
+            params.add(prefixPhrase(request.getClassName()));
+        }
+
+        if (request.getPackageName() != null && !request.getPackageName().isBlank()) {
+            sql.append(" AND package_id IN (SELECT rowid FROM packages_fts WHERE packages_fts MATCH ?)");
+            params.add(prefixPhrase(request.getPackageName()));
+        }
+
+        if (request.getFilePathGlob() != null && !request.getFilePathGlob().isBlank()) {
+            // SQLite doesn't have native GLOB support in the same way as file systems,
+            // but it has a GLOB operator. We'll use LIKE for simplicity or GLOB if preferred.
+            sql.append(" AND file_id IN (SELECT id FROM file_paths WHERE name GLOB ?)");
+            params.add(request.getFilePathGlob());
+        }
+
+        if (request.getKinds() != null && !request.getKinds().isEmpty()) {
+            sql.append(" AND kind_id IN (SELECT id FROM kinds WHERE name IN (")
+                    .append(IntStream.range(0, request.getKinds().size())
+                            .mapToObj(i -> "?")
+                            .collect(Collectors.joining(",")))
+                    .append("))");
+            request.getKinds().forEach(kind -> params.add(kind.name()));
+        }
+
+        // One row more than the page, to tell whether another page follows
+        final var rows = request.getLimit() + 1L;
+        if (ranked) {
+            if (after != null && after.getSliceScore() != null) {
+                sql.append(" AND (score, id) > (?, ?)");
+                params.add(after.getSliceScore());
+                params.add(after.getSliceId());
+            }
+            // The current slice and the next, which the page runs into when the current one ends
+            sql.append(RANK);
+            params.add(2L * candidates);
+            if (after != null) {
+                sql.append(" WHERE (c.slice, relevance, s.id) > (0, ?, ?)");
+                params.add(after.getRelevance());
+                params.add(after.getId());
+            }
+            sql.append(" ORDER BY c.slice, relevance, s.id LIMIT ?");
+        } else {
+            if (after != null) {
+                sql.append(" AND id > ?");
+                params.add(after.getId());
+            }
+            // Only the ids are sorted, the page is joined to the dictionaries afterwards
+            sql.append(" ORDER BY id LIMIT ?) k JOIN symbols s ON s.id = k.id ORDER BY s.id");
+        }
+        params.add(rows);
+        return new SearchQuery(sql.toString(), params, ranked, request.getLimit(), candidates, after);
+    }
+
+    /**
+     * Full text query for names containing the words of {@code term}, the last one as a prefix. Any
+     * punctuation in the term only separates words.
+     */
+    private static String prefixPhrase(String term) {
+        return "\"" + term.replace("\"", "\"\"") + "\" *";
+    }
+
+    String sql() {
+        return sql;
+    }
+
+    /**
+     * Binds the parameters and reads one page of results from a statement prepared from
+     * {@link #sql()}.
+     */
+    SearchPage execute(PreparedStatement pstmt) throws SQLException {
+        final var symbols = new ArrayList<Symbol>();
+        Cursor last = null;
+        String nextCursor = null;
+        try (ResultSet rs = executeQuery(pstmt)) {
+            while (rs.next()) {
+                if (symbols.size() == limit) {
+                    nextCursor = last == null ? null : last.encode();
+                    break;
+                }
+                symbols.add(readSymbol(rs));
+                last = ranked ? rankedCursor(rs) : new Cursor(null, rs.getLong("id"), 0, null, null);
+            }
+        }
+        return SearchPage.builder()
+                .symbols(symbols)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * Cursor after a row of a ranked page. A row of the next slice moves the start of the slice past
+     * the last candidate of the current one.
+     */
+    private Cursor rankedCursor(ResultSet rs) throws SQLException {
+        final var relevance = rs.getDouble("relevance");
+        final var id = rs.getLong("id");
+        if (rs.getInt("slice") > 0) {
+            return new Cursor(relevance, id, candidates, rs.getDouble("next_score"), rs.getLong("next_id"));
+        }
+        return after == null
+                ? new Cursor(relevance, id, candidates, null, null)
+                : new Cursor(relevance, id, candidates, after.getSliceScore(), after.getSliceId());
+    }
+
+    /**
+     * Binds the parameters and runs the query on a statement prepared from {@link #sql()}. The
+     * stream reads up to {@code limit} rows as it is consumed and closes the result set, and then
+     * runs {@code onClose}, when it is closed. {@code onClose} is not run if the query fails to
+     * start.
+     */
+    Stream<Symbol> stream(PreparedStatement pstmt, Runnable onClose) throws SQLException {
+        final var rs = executeQuery(pstmt);
+        return stream(rs)
+                .limit(limit)
+                .onClose(() -> {
+                    try {
+                        rs.close();
+                    }
+                    catch (SQLException e) {
+                        throw new IllegalStateException("Closing search results failed", e);
+                    }
+                    finally {
+                        onClose.run();
+                    }
+                });
+    }
+
+    /**
+     * Symbols read lazily from {@code rs}, in its order. A failure while reading is rethrown as an
+     * {@link IllegalStateException}.
+     */
+    static Stream<Symbol> stream(ResultSet rs) {
+        return StreamSupport.stream(new Spliterators.AbstractSpliterator<Symbol>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super Symbol> action) {
+                try {
+                    if (!rs.next()) {
+                        return false;
+                    }
+                    action.accept(readSymbol(rs));
+                    return true;
+                }
+                catch (SQLException e) {
+                    throw new IllegalStateException("Reading search results failed", e);
+                }
+            }
+        }, false);
+    }
+
+    private ResultSet executeQuery(PreparedStatement pstmt) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            pstmt.setObject(i + 1, params.get(i));
+        }
+        return pstmt.executeQuery();
+    }
+
+    private static Symbol readSymbol(ResultSet rs) throws SQLException {
+        return Symbol.builder()
+                .name(rs.getString("name"))
+                .className(rs.getString("class_name"))
+                .packageName(rs.getString("package_name"))
+                .kind(SymbolKind.valueOf(rs.getString("kind")))
+                .filePath(rs.getString("file_path"))
+                .line(rs.getInt("line"))
+                .signature(rs.getString("signature"))
+                .referenceTo(rs.getString("reference_to"))
+                .build();
+    }
+
+    /**
+     * Position after the last row of a page: its id, and for requests with a query its relevance,
+     * the number of candidates in a slice, and the text score and id after which its slice starts,
+     * if it is not the first. Encoded as URL-safe Base64 so that callers treat it as opaque. Scores
+     * are written in full precision so that they compare equal to those SQLite computes again for
+     * the next page.
+     */
+    @Value
+    private static class Cursor {
+        Double relevance;
+        long id;
+        int candidates;
+        Double sliceScore;
+        Long sliceId;
+
+        String encode() {
+            var position = relevance == null ? Long.toString(id) : relevance + "/" + id + "/" + candidates;
+            if (sliceScore != null) {
+                position += "/" + sliceScore + "/" + sliceId;
+            }
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String token, boolean ranked) {
+            final String position;
+            try {
+                position = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            }
+            catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Malformed search cursor: " + token, e);
+            }
+            final var parts = position.split("/");
+            if (ranked ? parts.length != 3 && parts.length != 5 : parts.length != 1) {
+                throw new IllegalArgumentException("Search cursor does not belong to this request: " + token);
+            }
+            try {
+                if (!ranked) {
+                    return new Cursor(null, Long.parseLong(parts[0]), 0, null, null);
+                }
+                final var sliced = parts.length == 5;
+                return new Cursor(Double.parseDouble(parts[0]), Long.parseLong(parts[1]), Integer.parseInt(parts[2]),
+                        sliced ? Double.valueOf(parts[3]) : null, sliced ? Long.valueOf(parts[4]) : null);
+            }
+            catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Malformed search cursor: " + token, e);
+            }
+        }
+    }
+}
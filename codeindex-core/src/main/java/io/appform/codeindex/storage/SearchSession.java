@@ -0,0 +1,207 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.storage;
+
+import io.appform.codeindex.models.SearchPage;
+import io.appform.codeindex.models.SearchRequest;
+import io.appform.codeindex.models.Symbol;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Long-lived search access to an index that can be shared between threads.
+ *
+ * <p>Opening a {@link SQLiteStorage} for each lookup connects and prepares statements every time. A
+ * session keeps a fixed number of read-only connections open, each
+ * with a cache of prepared statements keyed by query shape: the SQL that the combination of filters
+ * in a {@link SearchRequest} produces. Each search borrows a connection and callers wait when all of
+ * them are busy. The index is in WAL mode, so searches see every committed write and do not block an
+ * indexer writing to the same database.
+ */
+public class SearchSession implements AutoCloseable {
+    private static final int MAX_STATEMENTS_PER_CONNECTION = 64;
+    private static final long POLL_MILLIS = 100;
+
+    private final List<Reader> readers = new ArrayList<>();
+    private final BlockingQueue<Reader> idle;
+    private final AtomicInteger statementsPrepared = new AtomicInteger();
+    private volatile boolean closed;
+
+    public SearchSession(String dbPath) throws SQLException {
+        this(dbPath, Runtime.getRuntime().availableProcessors());
+    }
+
+    public SearchSession(String dbPath, int connections) throws SQLException {
+        if (connections < 1) {
+            throw new IllegalArgumentException("Connection count must be at least 1");
+        }
+        // Converts an index written by an older version before any reader looks at it
+        SQLiteStorage.openReadOnly(dbPath).close();
+        try {
+            for (int i = 0; i < connections; i++) {
+                readers.add(new Reader(SQLiteStorage.readOnlyConnection(dbPath)));
+            }
+        }
+        catch (SQLException e) {
+            closeReaders(e);
+            throw e;
+        }
+        this.idle = new ArrayBlockingQueue<>(connections, false, readers);
+    }
+
+    public List<Symbol> search(String query) throws SQLException {
+        return search(SearchRequest.builder().query(query).build());
+    }
+
+    public List<Symbol> search(SearchRequest request) throws SQLException {
+        return searchPage(request).getSymbols();
+    }
+
+    /**
+     * Runs one page of a search. The page's next cursor, set on the same request, continues after it.
+     */
+    public SearchPage searchPage(SearchRequest request) throws SQLException {
+        final var query = SearchQuery.of(request);
+        final var reader = borrow();
+        try {
+            return query.execute(reader.statement(query.sql()));
+        }
+        finally {
+            idle.add(reader);
+        }
+    }
+
+    /**
+     * Runs a search and reads the results as the stream is consumed. The stream holds one of the
+     * session's connections until it is closed.
+     */
+    public Stream<Symbol> searchStream(SearchRequest request) throws SQLException {
+        final var query = SearchQuery.of(request);
+        final var reader = borrow();
+        try {
+            return query.stream(reader.statement(query.sql()), () -> idle.add(reader));
+        }
+        catch (SQLException e) {
+            idle.add(reader);
+            throw e;
+        }
+    }
+
+    /**
+     * Number of statements prepared since the session was opened, across all connections.
+     */
+    int statementsPrepared() {
+        return statementsPrepared.get();
+    }
+
+    private Reader borrow() throws SQLException {
+        try {
+            while (!closed) {
+                final var reader = idle.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (reader != null) {
+                    return reader;
+                }
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a search connection", e);
+        }
+        throw new SQLException("Search session is closed");
+    }
+
+    /**
+     * Closes every connection. Searches that are still running fail, and later ones are rejected.
+     */
+    @Override
+    public void close() throws SQLException {
+        closed = true;
+        closeReaders(null);
+    }
+
+    private void closeReaders(SQLException failure) throws SQLException {
+        for (Reader reader : readers) {
+            try {
+                reader.close();
+            }
+            catch (SQLException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * A read connection and the statements prepared on it. Used by one search at a time.
+     */
+    private final class Reader {
+        private final Connection connection;
+        private final Map<String, PreparedStatement> statements =
+                new LinkedHashMap<>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                        if (size() <= MAX_STATEMENTS_PER_CONNECTION) {
+                            return false;
+                        }
+                        try {
+                            eldest.getValue().close();
+                        }
+                        catch (SQLException e) {
+                            // The statement is dropped either way
+                        }
+                        return true;
+                    }
+                };
+
+        Reader(Connection connection) {
+            this.connection = connection;
+        }
+
+        PreparedStatement statement(String sql) throws SQLException {
+            var pstmt = statements.get(sql);
+            if (pstmt == null) {
+                pstmt = connection.prepareStatement(sql);
+                statementsPrepared.incrementAndGet();
+                statements.put(sql, pstmt);
+            }
+            return pstmt;
+        }
+
+        void close() throws SQLException {
+            if (!connection.isClosed()) {
+                connection.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.storage;
+
+/**
+ * Expands identifiers so the full text index can match them from any camelCase word boundary.
+ *
+ * <p>The FTS tokenizer already splits on underscores and dots, so {@code snake_case} words and
+ * package segments are separate tokens, but {@code OrderServiceImpl} is one token that only a search
+ * starting with {@code Order} can match. The expansion adds the identifier's suffixes that start at
+ * each inner word boundary, {@code ServiceImpl} and {@code Impl}, so searches for {@code Service},
+ * {@code ServiceImpl} or {@code Impl} match it by prefix.
+ */
+final class Subwords {
+    private Subwords() {
+    }
+
+    /**
+     * The identifier followed by its suffixes at camelCase boundaries, or {@code null} if it has no
+     * inner boundary and is indexed as it is.
+     */
+    static String expand(String identifier) {
+        if (identifier == null) {
+            return null;
+        }
+        StringBuilder expanded = null;
+        for (int i = 1; i < identifier.length(); i++) {
+            if (isBoundary(identifier, i)) {
+                if (expanded == null) {
+                    expanded = new StringBuilder(identifier);
+                }
+                expanded.append(' ').append(identifier, i, identifier.length());
+            }
+        }
+        return expanded != null ? expanded.toString() : null;
+    }
+
+    /**
+     * Whether a new word starts at {@code i}: an upper case letter after a lower case letter or digit
+     * ({@code orderId}), or the last capital of an acronym followed by a lower case letter
+     * ({@code HTTPServer}).
+     */
+    private static boolean isBoundary(String identifier, int i) {
+        final var current = identifier.charAt(i);
+        if (!Character.isUpperCase(current)) {
+            return false;
+        }
+        final var previous = identifier.charAt(i - 1);
+        if (Character.isLowerCase(previous) || Character.isDigit(previous)) {
+            return true;
+        }
+        return Character.isUpperCase(previous)
+                && i + 1 < identifier.length()
+                && Character.isLowerCase(identifier.charAt(i + 1));
+    }
+}
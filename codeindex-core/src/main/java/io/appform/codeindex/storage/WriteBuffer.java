@@ -0,0 +1,141 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.storage;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Groups file updates into shared transactions instead of committing every file on its own.
+ *
+ * <p>A batch is committed once it holds {@code maxSymbols} symbols or its oldest update is older
+ * than {@code maxAge}, whichever comes first, and whatever is left is committed on {@link #close()}.
+ * If a batch cannot be committed, its files are retried one transaction each so that a single bad
+ * file does not take the others down with it. Updates that still fail are kept in {@link #getFailed()}.
+ * A file written in parts that fails in one batch also fails its parts in later batches.
+ *
+ * <p>Not thread-safe: it is meant to be owned by the single writer thread.
+ */
+@Slf4j
+public class WriteBuffer implements AutoCloseable {
+    private final SQLiteStorage storage;
+    private final int maxSymbols;
+    private final long maxAgeNanos;
+    private final List<FileUpdate> pending = new ArrayList<>();
+    private final List<FileUpdate> failed = new ArrayList<>();
+    private final Set<String> failedFiles = new HashSet<>();
+    private int pendingSymbols;
+    private long oldestNanos;
+
+    public WriteBuffer(SQLiteStorage storage, int maxSymbols, Duration maxAge) {
+        if (maxSymbols < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + maxSymbols);
+        }
+        this.storage = storage;
+        this.maxSymbols = maxSymbols;
+        this.maxAgeNanos = maxAge.toNanos();
+    }
+
+    public void add(FileUpdate update) {
+        if (pending.isEmpty()) {
+            oldestNanos = System.nanoTime();
+        }
+        pending.add(update);
+        // Manifest-only updates still cost a row, so they count towards the batch size as well
+        pendingSymbols += Math.max(1, update.symbolCount());
+        if (pendingSymbols >= maxSymbols) {
+            flush();
+        } else {
+            flushIfExpired();
+        }
+    }
+
+    public void flushIfExpired() {
+        if (!pending.isEmpty() && System.nanoTime() - oldestNanos >= maxAgeNanos) {
+            flush();
+        }
+    }
+
+    /**
+     * Time until the pending updates are due to be committed, or the maximum age if nothing is pending.
+     */
+    public long nanosUntilDue() {
+        if (pending.isEmpty()) {
+            return maxAgeNanos;
+        }
+        return Math.max(0, oldestNanos + maxAgeNanos - System.nanoTime());
+    }
+
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        final var batch = new ArrayList<FileUpdate>(pending.size());
+        for (FileUpdate update : pending) {
+            if (!update.isFirst() && failedFiles.contains(update.getRecord().getPath())) {
+                fail(update);
+            } else {
+                batch.add(update);
+            }
+        }
+        pending.clear();
+        pendingSymbols = 0;
+        try {
+            storage.applyUpdates(batch).forEach(this::fail);
+        }
+        catch (SQLException e) {
+            log.warn("Failed to commit a batch of {} files, retrying them one by one", batch.size(), e);
+            for (FileUpdate update : batch) {
+                if (!update.isFirst() && failedFiles.contains(update.getRecord().getPath())) {
+                    fail(update);
+                    continue;
+                }
+                try {
+                    storage.applyUpdates(List.of(update)).forEach(this::fail);
+                }
+                catch (SQLException fileEx) {
+                    log.error("Failed to write file: {}", update.getRecord().getPath(), fileEx);
+                    fail(update);
+                }
+            }
+        }
+    }
+
+    private void fail(FileUpdate update) {
+        failed.add(update);
+        if (update.isLast()) {
+            failedFiles.remove(update.getRecord().getPath());
+        } else {
+            failedFiles.add(update.getRecord().getPath());
+        }
+    }
+
+    public List<FileUpdate> getFailed() {
+        return failed;
+    }
+
+    @Override
+    public void close() {
+        flush();
+    }
+}
@@ -29,6 +29,8 @@ import java.nio.file.Path;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -90,4 +92,37 @@ class ParserRegistryTest {
         assertFalse(files.stream().anyMatch(p -> p.toString().endsWith("C.txt")));
         assertFalse(files.stream().anyMatch(p -> p.toString().endsWith("D")));
     }
+
+    @Test
+    void testFileCrawlerStreamsMatchingFiles() throws IOException {
+        Path src = tempDir.resolve("src");
+        Files.createDirectories(src.resolve("a/b"));
+        Files.createFile(src.resolve("A.java"));
+        Files.createFile(src.resolve("a/b/B.java"));
+        Files.createFile(src.resolve("a/C.javax"));
+        Files.createFile(src.resolve("a/b/java"));
+        Files.createDirectories(src.resolve("dir.java"));
+
+        FileCrawler crawler = new FileCrawler();
+        try (Stream<Path> files = crawler.stream(src.toString(), Set.of("java"))) {
+            assertEquals(Set.of(src.resolve("A.java"), src.resolve("a/b/B.java")),
+                    files.collect(Collectors.toSet()));
+        }
+    }
+
+    @Test
+    void testFirstRegisteredParserOwnsExtension() {
+        ParserRegistry registry = new ParserRegistry();
+        Parser first = mock(Parser.class);
+        when(first.supportedExtensions()).thenReturn(Set.of("java"));
+        Parser second = mock(Parser.class);
+        when(second.supportedExtensions()).thenReturn(Set.of("java", "kt"));
+
+        registry.register(first);
+        registry.register(second);
+
+        assertEquals(first, registry.getParserForFile(Path.of("src", "Test.java")));
+        assertEquals(second, registry.getParserForFile(Path.of("Test.kt")));
+        assertNull(registry.getParserForFile(Path.of("Test.kts")));
+    }
 }
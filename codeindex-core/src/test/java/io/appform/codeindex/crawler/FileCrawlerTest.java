@@ -0,0 +1,152 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.crawler;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.AccessDeniedException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileCrawlerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testIgnoredDirectoriesArePruned() throws Exception {
+        touch("src/main/java/App.java");
+        touch("target/generated-sources/Gen.java");
+        touch("node_modules/pkg/setup.py");
+        touch(".git/hooks/hook.py");
+        touch("module/out/Out.java");
+        touch("module/src/Skipped.java");
+        touch("module/src/Kept.java");
+        touch("scripts/tool.py");
+        Files.writeString(tempDir.resolve(".gitignore"), "out/\n*.log\n");
+        Files.writeString(tempDir.resolve("module/.gitignore"), "Skipped.java\n");
+
+        try (Crawl crawl = new FileCrawler().open(tempDir.toString(), Set.of("java", "py"))) {
+            final var files = new HashSet<Path>();
+            crawl.forEach(files::add);
+
+            assertEquals(Set.of(
+                    tempDir.resolve("src/main/java/App.java"),
+                    tempDir.resolve("module/src/Kept.java"),
+                    tempDir.resolve("scripts/tool.py")), files);
+            assertEquals(3, crawl.getFilesFound());
+            assertEquals(1, crawl.getFilesIgnored());
+            assertEquals(4, crawl.getDirectoriesPruned());
+        }
+    }
+
+    @Test
+    void testCodeIndexIgnoreOverridesGitignore() throws Exception {
+        touch("build/Generated.java");
+        touch("fixtures/Fixture.java");
+        touch("src/A.java");
+        Files.writeString(tempDir.resolve(".gitignore"), "fixtures/\n");
+        Files.writeString(tempDir.resolve(".codeindexignore"), "!build/\nsrc/\n");
+
+        assertEquals(Set.of(tempDir.resolve("build/Generated.java")),
+                new HashSet<>(new FileCrawler().crawl(tempDir.toString(), Set.of("java"))));
+    }
+
+    @Test
+    void testBuildOutputIsOnlyIgnoredInsideModules() throws Exception {
+        touch("build/Generated.java");
+        touch("src/main/java/io/foo/build/Builder.java");
+        touch("module/pom.xml");
+        touch("module/target/Compiled.java");
+        touch("module/src/main/java/io/foo/target/Target.java");
+        touch("docs/target/Example.java");
+
+        assertEquals(Set.of(tempDir.resolve("src/main/java/io/foo/build/Builder.java"),
+                        tempDir.resolve("module/src/main/java/io/foo/target/Target.java"),
+                        tempDir.resolve("docs/target/Example.java")),
+                new HashSet<>(new FileCrawler().crawl(tempDir.toString(), Set.of("java"))));
+    }
+
+    @Test
+    void testCodeIndexIgnoreOverridesNestedGitignore() throws Exception {
+        touch("module/Generated.java");
+        touch("module/Wanted.java");
+        Files.writeString(tempDir.resolve("module/.gitignore"), "*.java\n");
+        Files.writeString(tempDir.resolve(".codeindexignore"), "!Wanted.java\n");
+
+        assertEquals(List.of(tempDir.resolve("module/Wanted.java")),
+                new FileCrawler().crawl(tempDir.toString(), Set.of("java")));
+    }
+
+    @Test
+    void testMalformedNestedPatternDoesNotStopTheCrawl() throws Exception {
+        touch("module/A.java");
+        touch("module/B.java");
+        Files.writeString(tempDir.resolve("module/.gitignore"), "[z-a]\nB.java\n");
+
+        assertEquals(List.of(tempDir.resolve("module/A.java")), assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> new FileCrawler().crawl(tempDir.toString(), Set.of("java"))));
+    }
+
+    @Test
+    void testUnreadablePathsAreCounted() throws Exception {
+        touch("module/A.java");
+        touch("notes.txt");
+        final var visitor = new SourceTreeVisitor(tempDir, ExtensionLookup.of(Set.of("java")), IgnoreRules.none()) {
+            @Override
+            protected FileVisitResult acceptFile(Path file) {
+                return FileVisitResult.CONTINUE;
+            }
+        };
+        visitor.visitFileFailed(tempDir.resolve("notes.txt"), new AccessDeniedException("notes.txt"));
+        assertEquals(0, visitor.getPathsUnreadable());
+        visitor.visitFileFailed(tempDir.resolve("module/A.java"), new AccessDeniedException("A.java"));
+        visitor.visitFileFailed(tempDir.resolve("module"), new AccessDeniedException("module"));
+        assertEquals(2, visitor.getPathsUnreadable());
+
+        try (Crawl crawl = new FileCrawler().open(tempDir.toString(), Set.of("java"))) {
+            crawl.forEach(path -> { });
+            assertTrue(crawl.isComplete());
+        }
+    }
+
+    @Test
+    void testCrawlCanOnlyBeIteratedOnce() throws Exception {
+        touch("A.java");
+        try (Crawl crawl = new FileCrawler().open(tempDir.toString(), Set.of("java"))) {
+            crawl.forEach(path -> { });
+            assertThrows(IllegalStateException.class, crawl::iterator);
+        }
+    }
+
+    private void touch(String path) throws Exception {
+        final var file = tempDir.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, "");
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.crawler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IgnoreRulesTest {
+
+    @Test
+    void testUnanchoredPatternsMatchAtAnyDepth() {
+        final var rules = IgnoreRules.none().with("", List.of("*.gen.java", "out/"));
+        assertTrue(rules.isIgnored("Foo.gen.java", false));
+        assertTrue(rules.isIgnored("a/b/Foo.gen.java", false));
+        assertFalse(rules.isIgnored("a/b/Foo.java", false));
+        assertTrue(rules.isIgnored("a/out", true));
+        assertFalse(rules.isIgnored("a/out", false));
+    }
+
+    @Test
+    void testAnchoredPatternsMatchFromTheirDirectory() {
+        final var rules = IgnoreRules.none()
+                .with("", List.of("/Root.java", "docs/*.py"))
+                .with("module", List.of("/gen/"));
+        assertTrue(rules.isIgnored("Root.java", false));
+        assertFalse(rules.isIgnored("a/Root.java", false));
+        assertTrue(rules.isIgnored("docs/conf.py", false));
+        assertFalse(rules.isIgnored("docs/api/conf.py", false));
+        assertTrue(rules.isIgnored("module/gen", true));
+        assertFalse(rules.isIgnored("gen", true));
+        assertFalse(rules.isIgnored("other/module/gen", true));
+    }
+
+    @Test
+    void testDoubleStarAndCharacterClasses() {
+        final var rules = IgnoreRules.none().with("", List.of("**/fixtures/**", "a/**/z.py", "Test[0-9].java", "?.py"));
+        assertTrue(rules.isIgnored("x/fixtures/y/A.java", false));
+        assertTrue(rules.isIgnored("fixtures/A.java", false));
+        assertTrue(rules.isIgnored("a/z.py", false));
+        assertTrue(rules.isIgnored("a/b/c/z.py", false));
+        assertTrue(rules.isIgnored("Test7.java", false));
+        assertFalse(rules.isIgnored("TestX.java", false));
+        assertTrue(rules.isIgnored("x.py", false));
+        assertFalse(rules.isIgnored("xy.py", false));
+    }
+
+    @Test
+    void testLastMatchingRuleWins() {
+        final var rules = IgnoreRules.none()
+                .with("", List.of("# comment", "", "*.py", "!keep.py", "\\#literal.py"))
+                .with("sub", List.of("keep.py"));
+        assertTrue(rules.isIgnored("drop.py", false));
+        assertFalse(rules.isIgnored("keep.py", false));
+        assertTrue(rules.isIgnored("sub/keep.py", false));
+        assertTrue(rules.isIgnored("#literal.py", false));
+    }
+
+    @Test
+    void testDefaultsCanBeReincluded() {
+        final var defaults = IgnoreRules.none()
+                .with("", IgnoreRules.DEFAULT_PATTERNS)
+                .with("", IgnoreRules.BUILD_OUTPUT_PATTERNS)
+                .with("module", IgnoreRules.BUILD_OUTPUT_PATTERNS);
+        assertTrue(defaults.isIgnored("node_modules", true));
+        assertTrue(defaults.isIgnored("a/b/node_modules", true));
+        assertTrue(defaults.isIgnored("target", true));
+        assertTrue(defaults.isIgnored("module/target", true));
+        assertTrue(defaults.isIgnored(".git", true));
+        assertFalse(defaults.isIgnored("src/main/java", true));
+        // Build output names deeper down are ordinary packages
+        assertFalse(defaults.isIgnored("module/src/main/java/io/foo/build", true));
+        assertFalse(defaults.isIgnored("docs/target", true));
+        assertFalse(defaults.overriddenBy(List.of("!build/")).isIgnored("build", true));
+    }
+
+    @Test
+    void testOverridesWinOverLaterRules() {
+        final var rules = IgnoreRules.none()
+                .with("", List.of("*.log"))
+                .overriddenBy(List.of("!keep.py", "generated/"))
+                .with("sub", List.of("*.py", "!generated/"));
+        assertTrue(rules.isIgnored("sub/drop.py", false));
+        assertFalse(rules.isIgnored("sub/keep.py", false));
+        assertTrue(rules.isIgnored("sub/generated", true));
+        assertTrue(rules.isIgnored("a.log", false));
+    }
+
+    @Test
+    void testUnmatchablePatternsAreSkipped() {
+        final var rules = IgnoreRules.none().with("", List.of("*.log", "[z-a].py", "Gen[9-0]*.java"));
+        assertTrue(rules.isIgnored("a.log", false));
+        assertFalse(rules.isIgnored("z.py", false));
+        assertFalse(rules.isIgnored("Gen1.java", false));
+    }
+}
@@ -0,0 +1,621 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.service;
+
+import io.appform.codeindex.models.IndexRequest;
+import io.appform.codeindex.models.Symbol;
+import io.appform.codeindex.models.SymbolKind;
+import io.appform.codeindex.parser.Parser;
+import io.appform.codeindex.parser.ParserRegistry;
+import io.appform.codeindex.parser.ResolutionBudget;
+import io.appform.codeindex.parser.SymbolSink;
+import io.appform.codeindex.storage.SQLiteStorage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IndexingPipelineTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testResultsIndependentOfThreadCount() throws Exception {
+        final var projectDir = createProject(50);
+
+        final var single = indexWith(projectDir, 1, 256, "single.db");
+        final var parallel = indexWith(projectDir, 8, 2, "parallel.db");
+
+        assertEquals(100, single.size());
+        assertEquals(single, parallel);
+    }
+
+    @Test
+    void testSummaryCountsFailures() throws Exception {
+        final var projectDir = createProject(10);
+        Files.writeString(projectDir.resolve("Broken.fake"), "broken");
+
+        final var registry = new ParserRegistry();
+        registry.register(new FakeParser());
+        final var indexer = new CodeIndexer(tempDir.resolve("summary.db").toString(), registry);
+        final var summary = indexer.index(IndexRequest.builder()
+                .projectPath(projectDir.toString())
+                .threads(4)
+                .build());
+
+        assertEquals(10, summary.getFilesIndexed());
+        assertEquals(1, summary.getFilesFailed());
+        assertEquals(20, summary.getSymbolsWritten());
+    }
+
+    @Test
+    void testIncrementalReindex() throws Exception {
+        final var projectDir = createProject(5);
+        final var dbPath = tempDir.resolve("incremental.db").toString();
+        final var registry = new ParserRegistry();
+        registry.register(new FakeParser());
+        final var indexer = new CodeIndexer(dbPath, registry);
+
+        final var first = indexer.index(projectDir.toString());
+        assertEquals(5, first.getFilesIndexed());
+
+        final var unchanged = indexer.index(projectDir.toString());
+        assertEquals(0, unchanged.getFilesIndexed());
+        assertEquals(5, unchanged.getFilesSkipped());
+
+        Files.writeString(projectDir.resolve("File0.fake"), "file 0 changed");
+        Files.setLastModifiedTime(projectDir.resolve("File1.fake"), FileTime.fromMillis(0));
+        Files.delete(projectDir.resolve("File2.fake"));
+        Files.writeString(projectDir.resolve("File5.fake"), "file 5");
+
+        final var second = indexer.index(projectDir.toString());
+        assertEquals(2, second.getFilesIndexed());
+        assertEquals(3, second.getFilesSkipped());
+        assertEquals(1, second.getFilesRemoved());
+        assertEquals(0, second.getFilesFailed());
+
+        try (SQLiteStorage storage = new SQLiteStorage(dbPath)) {
+            final var symbols = storage.getAllSymbols(null);
+            assertEquals(10, symbols.size());
+            assertEquals(2, symbols.stream().filter(s -> s.getFilePath().equals("File0.fake")).count());
+            assertTrue(symbols.stream().noneMatch(s -> s.getFilePath().equals("File2.fake")));
+            assertTrue(storage.search("File2").isEmpty());
+            assertEquals(1, storage.search("File0").stream()
+                    .filter(s -> s.getKind() == SymbolKind.CLASS)
+                    .count());
+            assertEquals(5, storage.getFileRecords().size());
+        }
+    }
+
+    @Test
+    void testNonThreadSafeParserIsSerialized() throws Exception {
+        final var projectDir = createProject(20);
+        final var parser = new FakeParser() {
+            private final AtomicInteger active = new AtomicInteger();
+
+            @Override
+            public boolean isThreadSafe() {
+                return false;
+            }
+
+            @Override
+            public List<Symbol> parse(Path path, Path sourceRoot) {
+                assertEquals(1, active.incrementAndGet());
+                try {
+                    return super.parse(path, sourceRoot);
+                }
+                finally {
+                    active.decrementAndGet();
+                }
+            }
+        };
+        final var registry = new ParserRegistry();
+        registry.register(parser);
+        final var indexer = new CodeIndexer(tempDir.resolve("serial.db").toString(), registry);
+        final var summary = indexer.index(IndexRequest.builder()
+                .projectPath(projectDir.toString())
+                .threads(4)
+                .build());
+
+        assertEquals(20, summary.getFilesIndexed());
+        assertEquals(0, summary.getFilesFailed());
+    }
+
+    @Test
+    void testParseCacheSharedAcrossCheckouts() throws Exception {
+        final var first = createProject(5);
+        final var second = Files.createDirectories(tempDir.resolve("checkout"));
+        for (int i = 0; i < 5; i++) {
+            Files.copy(first.resolve("File" + i + ".fake"), second.resolve("File" + i + ".fake"));
+        }
+        Files.writeString(second.resolve("File4.fake"), "file 4 on another branch");
+        final var cachePath = tempDir.resolve("parse-cache.db").toString();
+        final var registry = new ParserRegistry();
+        registry.register(new FakeParser());
+
+        final var cold = new CodeIndexer(tempDir.resolve("first.db").toString(), registry).index(IndexRequest.builder()
+                .projectPath(first.toString())
+                .parseCachePath(cachePath)
+                .build());
+        assertEquals(0, cold.getCacheHits());
+        assertEquals(5, cold.getCacheMisses());
+
+        final var warmDb = tempDir.resolve("second.db").toString();
+        final var warm = new CodeIndexer(warmDb, registry).index(IndexRequest.builder()
+                .projectPath(second.toString())
+                .parseCachePath(cachePath)
+                .build());
+        assertEquals(4, warm.getCacheHits());
+        assertEquals(1, warm.getCacheMisses());
+        assertEquals(5, warm.getFilesIndexed());
+
+        try (SQLiteStorage storage = new SQLiteStorage(warmDb)) {
+            assertEquals(indexWith(second, 1, 256, "uncached.db"), storage.getAllSymbols(null));
+        }
+    }
+
+    @Test
+    void testSlowFileIsDegraded() throws Exception {
+        final var projectDir = createProject(5);
+        Files.writeString(projectDir.resolve("Slow.fake"), "slow");
+        final var parser = new FakeParser() {
+            @Override
+            public List<Symbol> parse(Path path, Path sourceRoot) {
+                if (path.getFileName().toString().startsWith("Slow")) {
+                    final var giveUp = System.nanoTime() + 10_000_000_000L;
+                    while (!ResolutionBudget.isExhausted() && System.nanoTime() < giveUp) {
+                        Thread.onSpinWait();
+                    }
+                }
+                return super.parse(path, sourceRoot);
+            }
+        };
+        final var registry = new ParserRegistry();
+        registry.register(parser);
+        final var cachePath = tempDir.resolve("parse-cache.db").toString();
+        final var request = IndexRequest.builder()
+                .projectPath(projectDir.toString())
+                .parseCachePath(cachePath)
+                .fileResolutionBudgetMs(50)
+                .build();
+
+        final var summary = new CodeIndexer(tempDir.resolve("slow.db").toString(), registry).index(request);
+        assertEquals(6, summary.getFilesIndexed());
+        assertEquals(1, summary.getFilesDegraded());
+        assertEquals(12, summary.getSymbolsWritten());
+
+        // Degraded symbols are not cached, so the slow file is parsed again
+        final var again = new CodeIndexer(tempDir.resolve("again.db").toString(), registry).index(request);
+        assertEquals(5, again.getCacheHits());
+        assertEquals(1, again.getFilesDegraded());
+    }
+
+    @Test
+    void testDegradedFileIsParsedAgain() throws Exception {
+        final var projectDir = createProject(5);
+        Files.writeString(projectDir.resolve("Slow.fake"), "slow");
+        final var slow = new AtomicBoolean(true);
+        final var parser = new FakeParser() {
+            @Override
+            public List<Symbol> parse(Path path, Path sourceRoot) {
+                if (slow.get() && path.getFileName().toString().startsWith("Slow")) {
+                    final var giveUp = System.nanoTime() + 10_000_000_000L;
+                    while (!ResolutionBudget.isExhausted() && System.nanoTime() < giveUp) {
+                        Thread.onSpinWait();
+                    }
+                }
+                return super.parse(path, sourceRoot);
+            }
+        };
+        final var registry = new ParserRegistry();
+        registry.register(parser);
+        final var dbPath = tempDir.resolve("degraded.db").toString();
+        final var indexer = new CodeIndexer(dbPath, registry);
+        final var request = IndexRequest.builder()
+                .projectPath(projectDir.toString())
+                .fileResolutionBudgetMs(50)
+                .build();
+
+        assertEquals(1, indexer.index(request).getFilesDegraded());
+        try (SQLiteStorage storage = new SQLiteStorage(dbPath)) {
+            assertEquals(List.of("Slow.fake"), storage.getDegradedFiles());
+        }
+
+        // Unchanged, but its references are incomplete, so it is parsed again
+        final var again = indexer.index(request);
+        assertEquals(1, again.getFilesIndexed());
+        assertEquals(5, again.getFilesSkipped());
+        assertEquals(1, again.getFilesDegraded());
+
+        slow.set(false);
+        assertEquals(1, indexer.resolveReferences(request));
+        try (SQLiteStorage storage = new SQLiteStorage(dbPath)) {
+            assertTrue(storage.getDegradedFiles().isEmpty());
+        }
+        final var settled = indexer.index(request);
+        assertEquals(0, settled.getFilesIndexed());
+        assertEquals(6, settled.getFilesSkipped());
+    }
+
+    @Test
+    void testDeadlineKeepsIndexedFiles() throws Exception {
+        final var projectDir = createProject(5);
+        final var dbPath = tempDir.resolve("deadline.db").toString();
+        final var registry = new ParserRegistry();
+        registry.register(new FakeParser());
+        new CodeIndexer(dbPath, registry).index(projectDir.toString());
+        Files.delete(projectDir.resolve("File0.fake"));
+        Files.writeString(projectDir.resolve("File5.fake"), "file 5");
+
+        final var pipeline = new IndexingPipeline(registry, projectDir, IndexRequest.builder().build());
+        try (SQLiteStorage storage = new SQLiteStorage(dbPath);
+                var files = Files.list(projectDir)) {
+            final var summary = pipeline.run(files.sorted().collect(Collectors.toList()), storage,
+                    storage.getFileRecords(), Instant.now());
+            assertTrue(summary.isTimedOut());
+            assertEquals(0, summary.getFilesIndexed());
+            assertEquals(5, summary.getFilesDeferred());
+            assertEquals(0, summary.getFilesRemoved());
+            assertTrue(storage.getFileRecords().containsKey("File0.fake"));
+        }
+
+        final var resumed = new CodeIndexer(dbPath, registry).index(projectDir.toString());
+        assertFalse(resumed.isTimedOut());
+        assertEquals(1, resumed.getFilesIndexed());
+        assertEquals(1, resumed.getFilesRemoved());
+    }
+
+    @Test
+    void testIncompleteCrawlRemovesNothing() throws Exception {
+        final var projectDir = createProject(5);
+        final var dbPath = tempDir.resolve("incomplete.db").toString();
+        final var registry = new ParserRegistry();
+        registry.register(new FakeParser());
+        new CodeIndexer(dbPath, registry).index(projectDir.toString());
+        Files.delete(projectDir.resolve("File0.fake"));
+
+        final var pipeline = new IndexingPipeline(registry, projectDir, IndexRequest.builder().build());
+        try (SQLiteStorage storage = new SQLiteStorage(dbPath);
+                var files = Files.list(projectDir)) {
+            final var summary = pipeline.run(files.sorted().collect(Collectors.toList()), storage,
+                    storage.getFileRecords(), null, () -> false);
+            assertTrue(summary.isCrawlIncomplete());
+            assertEquals(4, summary.getFilesSkipped());
+            assertEquals(0, summary.getFilesRemoved());
+            assertTrue(storage.getFileRecords().containsKey("File0.fake"));
+        }
+    }
+
+    @Test
+    void testLargeFilesAreWrittenInParts() throws Exception {
+        final var projectDir = createProject(3);
+        final var streamed = new AtomicInteger();
+        final var parser = new FakeParser() {
+            @Override
+            public void parse(Path path, Path sourceRoot, SymbolSink sink) {
+                streamed.incrementAndGet();
+                final var className = path.getFileName().toString().replace(".fake", "");
+                for (int i = 0; i < 25; i++) {
+                    sink.accept(Symbol.builder()
+                            .name("member" + i)
+                            .className(className)
+                            .kind(SymbolKind.FIELD)
+                            .filePath(sourceRoot.relativize(path).toString())
+                            .line(i + 1)
+                            .build());
+                }
+            }
+        };
+        final var registry = new ParserRegistry();
+        registry.register(parser);
+        final var dbPath = tempDir.resolve("parts.db").toString();
+        final var cachePath = tempDir.resolve("parse-cache.db").toString();
+        final var summary = new CodeIndexer(dbPath, registry).index(IndexRequest.builder()
+                .projectPath(projectDir.toString())
+                .batchSymbols(10)
+                .parseCachePath(cachePath)
+                .build());
+
+        assertEquals(3, streamed.get());
+        assertEquals(3, summary.getFilesIndexed());
+        assertEquals(75, summary.getSymbolsWritten());
+        try (SQLiteStorage storage = new SQLiteStorage(dbPath)) {
+            final var symbols = storage.getAllSymbols(null);
+            assertEquals(75, symbols.size());
+            assertEquals(25, symbols.stream().filter(s -> s.getFilePath().equals("File1.fake")).count());
+            assertEquals(3, storage.getFileRecords().size());
+        }
+
+        // Files split into parts are not cached
+        final var again = new CodeIndexer(tempDir.resolve("again.db").toString(), registry).index(IndexRequest.builder()
+                .projectPath(projectDir.toString())
+                .parseCachePath(cachePath)
+                .build());
+        assertEquals(0, again.getCacheHits());
+    }
+
+    @Test
+    void testFailedFileDiscardsWrittenParts() throws Exception {
+        final var projectDir = createProject(3);
+        final var failing = new AtomicBoolean();
+        final var parser = new FakeParser() {
+            @Override
+            public void parse(Path path, Path sourceRoot, SymbolSink sink) {
+                final var className = path.getFileName().toString().replace(".fake", "");
+                for (int i = 0; i < 25; i++) {
+                    if (i == 15 && failing.get() && className.equals("File1")) {
+                        throw new IllegalStateException("Cannot parse " + className);
+                    }
+                    sink.accept(Symbol.builder()
+                            .name("member" + i)
+                            .className(className)
+                            .kind(SymbolKind.FIELD)
+                            .filePath(sourceRoot.relativize(path).toString())
+                            .line(i + 1)
+                            .build());
+                }
+            }
+        };
+        final var registry = new ParserRegistry();
+        registry.register(parser);
+        final var dbPath = tempDir.resolve("discard.db").toString();
+        final var indexer = new CodeIndexer(dbPath, registry);
+        final var request = IndexRequest.builder()
+                .projectPath(projectDir.toString())
+                .batchSymbols(10)
+                .build();
+        assertEquals(3, indexer.index(request).getFilesIndexed());
+
+        Files.writeString(projectDir.resolve("File1.fake"), "file 1 changed");
+        failing.set(true);
+        final var failed = indexer.index(request);
+        assertEquals(1, failed.getFilesFailed());
+        assertEquals(0, failed.getFilesIndexed());
+        assertEquals(0, failed.getSymbolsWritten());
+        try (SQLiteStorage storage = new SQLiteStorage(dbPath)) {
+            final var symbols = storage.getAllSymbols(null);
+            assertEquals(50, symbols.size());
+            assertTrue(symbols.stream().noneMatch(s -> s.getFilePath().equals("File1.fake")));
+        }
+
+        // The file is not marked as indexed, so it is parsed again once it can be
+        failing.set(false);
+        final var retried = indexer.index(request);
+        assertEquals(1, retried.getFilesIndexed());
+        assertEquals(25, retried.getSymbolsWritten());
+    }
+
+    @Test
+    void testFailedFileAfterCommittedPartIsParsedAgain() throws Exception {
+        final var projectDir = createProject(3);
+        final var dbPath = tempDir.resolve("committed-part.db").toString();
+        final var failing = new AtomicBoolean();
+        final var partCommitted = new AtomicBoolean();
+        final var parser = new FakeParser() {
+            @Override
+            public void parse(Path path, Path sourceRoot, SymbolSink sink) {
+                final var className = path.getFileName().toString().replace(".fake", "");
+                final var prefix = failing.get() ? "changed" : "member";
+                for (int i = 0; i < 25; i++) {
+                    if (i == 15 && failing.get() && className.equals("File1")) {
+                        partCommitted.set(awaitCommitted(dbPath,
+                                "SELECT 1 FROM symbols WHERE file_path = ? AND name = 'changed0'", "File1.fake"));
+                        throw new IllegalStateException("Cannot parse " + className);
+                    }
+                    sink.accept(Symbol.builder()
+                            .name(prefix + i)
+                            .className(className)
+                            .kind(SymbolKind.FIELD)
+                            .filePath(sourceRoot.relativize(path).toString())
+                            .line(i + 1)
+                            .build());
+                }
+            }
+        };
+        final var registry = new ParserRegistry();
+        registry.register(parser);
+        final var indexer = new CodeIndexer(dbPath, registry);
+        final var request = IndexRequest.builder()
+                .projectPath(projectDir.toString())
+                .batchSymbols(10)
+                .batchAgeMs(10)
+                .build();
+        assertEquals(3, indexer.index(request).getFilesIndexed());
+
+        Files.writeString(projectDir.resolve("File1.fake"), "file 1 changed");
+        failing.set(true);
+        assertEquals(1, indexer.index(request).getFilesFailed());
+        assertTrue(partCommitted.get(), "The first part of File1.fake was not committed before it failed");
+        // The committed part already replaced the old symbols, so the file is left out of the index
+        try (SQLiteStorage storage = new SQLiteStorage(dbPath)) {
+            assertTrue(storage.getAllSymbols(null).stream().noneMatch(s -> s.getFilePath().equals("File1.fake")));
+            assertFalse(storage.getFileRecords().containsKey("File1.fake"));
+        }
+
+        // Even with the contents it was last indexed with, the file is parsed again
+        Files.writeString(projectDir.resolve("File1.fake"), "file 1");
+        failing.set(false);
+        final var retried = indexer.index(request);
+        assertEquals(1, retried.getFilesIndexed());
+        assertEquals(25, retried.getSymbolsWritten());
+    }
+
+    @Test
+    void testSlowFileDoesNotHoldBackCommits() throws Exception {
+        final var projectDir = createProject(1);
+        Files.writeString(projectDir.resolve("Slow.fake"), "slow");
+        final var dbPath = tempDir.resolve("age.db").toString();
+        final var committedWhileSlow = new AtomicBoolean();
+        final var parser = new FakeParser() {
+            @Override
+            public List<Symbol> parse(Path path, Path sourceRoot) {
+                if (path.getFileName().toString().startsWith("Slow")) {
+                    committedWhileSlow.set(awaitCommitted(dbPath, "File0.fake"));
+                }
+                return super.parse(path, sourceRoot);
+            }
+        };
+        final var registry = new ParserRegistry();
+        registry.register(parser);
+
+        final var pipeline = new IndexingPipeline(registry, projectDir, IndexRequest.builder()
+                .threads(2)
+                .batchAgeMs(50)
+                .build());
+        try (SQLiteStorage storage = new SQLiteStorage(dbPath)) {
+            final var summary = pipeline.run(List.of(projectDir.resolve("File0.fake"), projectDir.resolve("Slow.fake")),
+                    storage, storage.getFileRecords());
+            assertEquals(2, summary.getFilesIndexed());
+        }
+        assertTrue(committedWhileSlow.get(), "File0.fake was not committed while Slow.fake was parsed");
+    }
+
+    @Test
+    void testInvalidThreadCount() {
+        final var registry = new ParserRegistry();
+        assertThrows(IllegalArgumentException.class, () -> new IndexingPipeline(registry, tempDir,
+                IndexRequest.builder().threads(0).build()));
+        assertThrows(IllegalArgumentException.class, () -> new IndexingPipeline(registry, tempDir,
+                IndexRequest.builder().queueCapacity(0).build()));
+        assertThrows(IllegalArgumentException.class, () -> new IndexingPipeline(registry, tempDir,
+                IndexRequest.builder().batchSymbols(0).build()));
+    }
+
+    private Path createProject(int fileCount) throws Exception {
+        final var projectDir = Files.createDirectories(tempDir.resolve("project"));
+        for (int i = 0; i < fileCount; i++) {
+            Files.writeString(projectDir.resolve("File" + i + ".fake"), "file " + i);
+        }
+        return projectDir;
+    }
+
+    private static boolean awaitCommitted(String dbPath, String filePath) {
+        return awaitCommitted(dbPath, "SELECT 1 FROM files WHERE path = ?", filePath);
+    }
+
+    /**
+     * Waits until {@code query} finds a row for {@code filePath} in a separate connection.
+     */
+    private static boolean awaitCommitted(String dbPath, String query, String filePath) {
+        final var deadline = System.currentTimeMillis() + 5_000;
+        while (System.currentTimeMillis() < deadline) {
+            try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + dbPath);
+                    PreparedStatement pstmt = connection.prepareStatement(query)) {
+                pstmt.setString(1, filePath);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        return true;
+                    }
+                }
+                Thread.sleep(10);
+            }
+            catch (SQLException e) {
+                // The index may not have been created yet
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private List<Symbol> indexWith(Path projectDir, int threads, int queueCapacity, String dbName) throws Exception {
+        final var dbPath = tempDir.resolve(dbName).toString();
+        final var registry = new ParserRegistry();
+        registry.register(new FakeParser());
+        new CodeIndexer(dbPath, registry).index(IndexRequest.builder()
+                .projectPath(projectDir.toString())
+                .threads(threads)
+                .queueCapacity(queueCapacity)
+                .build());
+        try (SQLiteStorage storage = new SQLiteStorage(dbPath)) {
+            return storage.getAllSymbols(null);
+        }
+    }
+
+    private static class FakeParser implements Parser {
+        @Override
+        public Set<String> supportedExtensions() {
+            return Set.of("fake");
+        }
+
+        @Override
+        public boolean isThreadSafe() {
+            return true;
+        }
+
+        @Override
+        public String cacheKey() {
+            return "fake/1";
+        }
+
+        @Override
+        public List<Symbol> parse(Path path, Path sourceRoot) {
+            final var fileName = path.getFileName().toString();
+            if (fileName.startsWith("Broken")) {
+                throw new IllegalStateException("Cannot parse " + fileName);
+            }
+            try {
+                // Finish out of order so the writer has to keep files in crawl order
+                Thread.sleep(ThreadLocalRandom.current().nextInt(5));
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            final var className = fileName.substring(0, fileName.indexOf('.'));
+            final var filePath = sourceRoot.relativize(path).toString();
+            return List.of(
+                    Symbol.builder()
+                            .name(className)
+                            .className(className)
+                            .kind(SymbolKind.CLASS)
+                            .filePath(filePath)
+                            .line(1)
+                            .signature("class " + className)
+                            .build(),
+                    Symbol.builder()
+                            .name("run")
+                            .className(className)
+                            .kind(SymbolKind.METHOD)
+                            .filePath(filePath)
+                            .line(2)
+                            .signature("run()")
+                            .build());
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.service;
+
+import io.appform.codeindex.models.IndexRequest;
+import io.appform.codeindex.models.Symbol;
+import io.appform.codeindex.models.SymbolKind;
+import io.appform.codeindex.parser.Parser;
+import io.appform.codeindex.parser.ParserRegistry;
+import io.appform.codeindex.storage.SQLiteStorage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProjectWatcherTest {
+    private static final long TIMEOUT_MS = 10_000;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testChangesAreAppliedWhileWatching() throws Exception {
+        final var projectDir = Files.createDirectories(tempDir.resolve("project"));
+        for (int i = 0; i < 3; i++) {
+            Files.writeString(projectDir.resolve("File" + i + ".fake"), "file " + i);
+        }
+        final var dbPath = tempDir.resolve("watch.db").toString();
+        final var parser = new RecordingParser();
+        final var registry = new ParserRegistry();
+        registry.register(parser);
+        final var indexer = new CodeIndexer(dbPath, registry);
+
+        try (ProjectWatcher watcher = indexer.watch(IndexRequest.builder()
+                .projectPath(projectDir.toString())
+                .threads(2)
+                .build(), Duration.ofMillis(50))) {
+            assertEquals(Set.of("File0.fake", "File1.fake", "File2.fake"), indexedFiles(dbPath));
+            final var running = CompletableFuture.runAsync(() -> {
+                try {
+                    watcher.run();
+                }
+                catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+
+            Files.writeString(projectDir.resolve("File0.fake"), "file 0 changed");
+            Files.delete(projectDir.resolve("File1.fake"));
+            Files.createDirectories(projectDir.resolve("sub/deeper"));
+            Files.writeString(projectDir.resolve("sub/deeper/Nested.fake"), "nested");
+            Files.createDirectories(projectDir.resolve("build"));
+            Files.writeString(projectDir.resolve("build/Generated.fake"), "generated");
+
+            awaitIndexedFiles(dbPath, Set.of("File0.fake", "File2.fake", "sub/deeper/Nested.fake"));
+            try (SQLiteStorage storage = new SQLiteStorage(dbPath)) {
+                assertEquals(6, storage.getAllSymbols(null).size());
+            }
+            assertTrue(parser.changed.contains(projectDir.resolve("File1.fake")));
+            assertEquals(5, parser.parsed.get());
+
+            Files.writeString(projectDir.resolve("sub/deeper/Nested.fake"), "nested changed");
+            Files.writeString(projectDir.resolve("sub/Second.fake"), "second");
+            awaitIndexedFiles(dbPath, Set.of("File0.fake", "File2.fake", "sub/deeper/Nested.fake", "sub/Second.fake"));
+
+            watcher.close();
+            running.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Test
+    void testRemovedDirectoryIsDropped() throws Exception {
+        final var projectDir = Files.createDirectories(tempDir.resolve("project"));
+        Files.createDirectories(projectDir.resolve("gone/inner"));
+        Files.writeString(projectDir.resolve("Kept.fake"), "kept");
+        Files.writeString(projectDir.resolve("gone/inner/Lost.fake"), "lost");
+        final var dbPath = tempDir.resolve("removed.db").toString();
+        final var registry = new ParserRegistry();
+        registry.register(new RecordingParser());
+
+        try (ProjectWatcher watcher = new CodeIndexer(dbPath, registry).watch(IndexRequest.builder()
+                .projectPath(projectDir.toString())
+                .build(), Duration.ofMillis(50))) {
+            final var running = CompletableFuture.runAsync(() -> {
+                try {
+                    watcher.run();
+                }
+                catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+
+            // A move out of the tree only reports the top directory
+            Files.move(projectDir.resolve("gone"), tempDir.resolve("moved"));
+            awaitIndexedFiles(dbPath, Set.of("Kept.fake"));
+
+            watcher.close();
+            running.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Test
+    void testFailedBatchDoesNotStopTheWatcher() throws Exception {
+        final var projectDir = Files.createDirectories(tempDir.resolve("project"));
+        Files.writeString(projectDir.resolve("First.fake"), "first");
+        final var dbPath = tempDir.resolve("failing.db").toString();
+        final var parser = new RecordingParser();
+        final var registry = new ParserRegistry();
+        registry.register(parser);
+
+        try (ProjectWatcher watcher = new CodeIndexer(dbPath, registry).watch(IndexRequest.builder()
+                .projectPath(projectDir.toString())
+                .build(), Duration.ofMillis(50))) {
+            final var running = CompletableFuture.runAsync(() -> {
+                try {
+                    watcher.run();
+                }
+                catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+
+            parser.failNextChange.set(true);
+            Files.writeString(projectDir.resolve("Second.fake"), "second");
+            final var deadline = System.currentTimeMillis() + TIMEOUT_MS;
+            while (parser.failNextChange.get() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertFalse(running.isDone());
+
+            // The next change re-scans the project, which also picks up the file of the failed batch
+            Files.writeString(projectDir.resolve("Third.fake"), "third");
+            awaitIndexedFiles(dbPath, Set.of("First.fake", "Second.fake", "Third.fake"));
+
+            watcher.close();
+            running.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static void awaitIndexedFiles(String dbPath, Set<String> expected) throws Exception {
+        final var deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        var actual = indexedFiles(dbPath);
+        while (!actual.equals(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            actual = indexedFiles(dbPath);
+        }
+        assertEquals(expected, actual);
+    }
+
+    private static Set<String> indexedFiles(String dbPath) throws Exception {
+        try (SQLiteStorage storage = new SQLiteStorage(dbPath)) {
+            return storage.getFileRecords().keySet();
+        }
+    }
+
+    private static class RecordingParser implements Parser {
+        private final Set<Path> changed = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger parsed = new AtomicInteger();
+        private final AtomicBoolean failNextChange = new AtomicBoolean();
+
+        @Override
+        public Set<String> supportedExtensions() {
+            return Set.of("fake");
+        }
+
+        @Override
+        public boolean isThreadSafe() {
+            return true;
+        }
+
+        @Override
+        public void filesChanged(Collection<Path> files) {
+            if (failNextChange.compareAndSet(true, false)) {
+                throw new IllegalStateException("Simulated failure");
+            }
+            changed.addAll(files);
+        }
+
+        @Override
+        public List<Symbol> parse(Path path, Path sourceRoot) {
+            parsed.incrementAndGet();
+            final var fileName = path.getFileName().toString();
+            final var className = fileName.substring(0, fileName.indexOf('.'));
+            final var filePath = sourceRoot.relativize(path).toString();
+            return List.of(
+                    Symbol.builder()
+                            .name(className)
+                            .kind(SymbolKind.CLASS)
+                            .filePath(filePath)
+                            .line(1)
+                            .build(),
+                    Symbol.builder()
+                            .name("run")
+                            .className(className)
+                            .kind(SymbolKind.METHOD)
+                            .filePath(filePath)
+                            .line(2)
+                            .build());
+        }
+    }
+}
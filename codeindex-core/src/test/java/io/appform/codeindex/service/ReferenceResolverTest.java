@@ -0,0 +1,210 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.service;
+
+import io.appform.codeindex.models.IndexRequest;
+import io.appform.codeindex.models.ResolutionMode;
+import io.appform.codeindex.models.Symbol;
+import io.appform.codeindex.models.SymbolKind;
+import io.appform.codeindex.parser.Parser;
+import io.appform.codeindex.parser.ParserRegistry;
+import io.appform.codeindex.storage.SQLiteStorage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReferenceResolverTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testLazyIndexResolvesReferencesInSecondPass() throws Exception {
+        final var projectDir = createProject(5);
+        final var dbPath = tempDir.resolve("lazy.db").toString();
+        final var parser = new ModalParser();
+        final var summary = indexer(dbPath, parser).index(request(projectDir, ResolutionMode.LAZY));
+
+        assertEquals(5, summary.getFilesIndexed());
+        assertEquals(5, summary.getFilesResolved());
+        assertEquals(5, parser.resolved.get());
+        try (SQLiteStorage storage = new SQLiteStorage(dbPath)) {
+            assertTrue(storage.getFilesWithUnresolvedReferences().isEmpty());
+            final var references = storage.getAllSymbols(Set.of(SymbolKind.REFERENCE));
+            assertEquals(5, references.size());
+            assertTrue(references.stream().allMatch(s -> s.getReferenceTo().equals("target.run")));
+            assertEquals(5, storage.getAllSymbols(Set.of(SymbolKind.CLASS)).size());
+            assertEquals(ResolutionMode.LAZY, storage.getResolutionMode());
+        }
+    }
+
+    @Test
+    void testChangedFilesAreLeftForTheNextIndex() throws Exception {
+        final var projectDir = createProject(3);
+        final var dbPath = tempDir.resolve("stale.db").toString();
+        final var parser = new ModalParser();
+        parser.setResolutionMode(ResolutionMode.LAZY);
+        final var registry = new ParserRegistry();
+        registry.register(parser);
+        // Index without the second pass, then change a file before resolving
+        final var pipeline = new IndexingPipeline(registry, projectDir, IndexRequest.builder().build());
+        try (SQLiteStorage storage = new SQLiteStorage(dbPath)) {
+            pipeline.run(List.of(projectDir.resolve("File0.fake"), projectDir.resolve("File1.fake"),
+                    projectDir.resolve("File2.fake")), storage);
+            Files.writeString(projectDir.resolve("File1.fake"), "changed");
+
+            final var resolver = new ReferenceResolver(registry, projectDir, 2);
+            assertEquals(2, resolver.resolvePending(storage));
+            assertEquals(List.of("File1.fake"), storage.getFilesWithUnresolvedReferences());
+        }
+    }
+
+    @Test
+    void testSwitchingFromNoneReparsesEveryFile() throws Exception {
+        final var projectDir = createProject(4);
+        final var dbPath = tempDir.resolve("upgrade.db").toString();
+
+        final var none = indexer(dbPath, new ModalParser()).index(request(projectDir, ResolutionMode.NONE));
+        assertEquals(4, none.getFilesIndexed());
+        final var unchanged = indexer(dbPath, new ModalParser()).index(request(projectDir, ResolutionMode.NONE));
+        assertEquals(4, unchanged.getFilesSkipped());
+
+        Files.delete(projectDir.resolve("File3.fake"));
+        final var full = indexer(dbPath, new ModalParser()).index(request(projectDir, ResolutionMode.FULL));
+        assertEquals(3, full.getFilesIndexed());
+        assertEquals(1, full.getFilesRemoved());
+        assertEquals(0, full.getFilesResolved());
+        try (SQLiteStorage storage = new SQLiteStorage(dbPath)) {
+            final var references = storage.getAllSymbols(Set.of(SymbolKind.REFERENCE));
+            assertEquals(3, references.size());
+            assertTrue(references.stream().noneMatch(s -> s.getFilePath().equals("File3.fake")));
+        }
+    }
+
+    @Test
+    void testResolveReferencesOnDemand() throws Exception {
+        final var projectDir = createProject(2);
+        final var dbPath = tempDir.resolve("demand.db").toString();
+        try (SQLiteStorage storage = new SQLiteStorage(dbPath)) {
+            final var parser = new ModalParser();
+            parser.setResolutionMode(ResolutionMode.LAZY);
+            final var registry = new ParserRegistry();
+            registry.register(parser);
+            new IndexingPipeline(registry, projectDir, IndexRequest.builder().build())
+                    .run(List.of(projectDir.resolve("File0.fake"), projectDir.resolve("File1.fake")), storage);
+            assertEquals(2, storage.getFilesWithUnresolvedReferences().size());
+        }
+
+        assertEquals(2, indexer(dbPath, new ModalParser()).resolveReferences(request(projectDir, ResolutionMode.FULL)));
+        try (SQLiteStorage storage = new SQLiteStorage(dbPath)) {
+            assertTrue(storage.getFilesWithUnresolvedReferences().isEmpty());
+            assertNull(storage.getResolutionMode());
+        }
+    }
+
+    private Path createProject(int fileCount) throws Exception {
+        final var projectDir = Files.createDirectories(tempDir.resolve("project"));
+        for (int i = 0; i < fileCount; i++) {
+            Files.writeString(projectDir.resolve("File" + i + ".fake"), "file " + i);
+        }
+        return projectDir;
+    }
+
+    private static CodeIndexer indexer(String dbPath, Parser parser) {
+        final var registry = new ParserRegistry();
+        registry.register(parser);
+        return new CodeIndexer(dbPath, registry);
+    }
+
+    private static IndexRequest request(Path projectDir, ResolutionMode mode) {
+        return IndexRequest.builder()
+                .projectPath(projectDir.toString())
+                .threads(2)
+                .resolution(mode)
+                .build();
+    }
+
+    /**
+     * Emits a class and one call per file; the call's target is only known with full resolution.
+     */
+    private static class ModalParser implements Parser {
+        private final AtomicInteger resolved = new AtomicInteger();
+        private volatile ResolutionMode mode = ResolutionMode.FULL;
+
+        @Override
+        public Set<String> supportedExtensions() {
+            return Set.of("fake");
+        }
+
+        @Override
+        public boolean isThreadSafe() {
+            return true;
+        }
+
+        @Override
+        public void setResolutionMode(ResolutionMode mode) {
+            this.mode = mode;
+        }
+
+        @Override
+        public List<Symbol> parse(Path path, Path sourceRoot) {
+            return parse(path, sourceRoot, mode);
+        }
+
+        private List<Symbol> parse(Path path, Path sourceRoot, ResolutionMode mode) {
+            final var fileName = path.getFileName().toString();
+            final var className = fileName.substring(0, fileName.indexOf('.'));
+            final var filePath = sourceRoot.relativize(path).toString();
+            final var symbols = new ArrayList<Symbol>();
+            symbols.add(Symbol.builder()
+                    .name(className)
+                    .className(className)
+                    .kind(SymbolKind.CLASS)
+                    .filePath(filePath)
+                    .line(1)
+                    .build());
+            if (mode != ResolutionMode.NONE) {
+                symbols.add(Symbol.builder()
+                        .name("run")
+                        .className(className)
+                        .kind(SymbolKind.REFERENCE)
+                        .filePath(filePath)
+                        .line(2)
+                        .signature("target.run()")
+                        .referenceTo(mode == ResolutionMode.FULL ? "target.run" : null)
+                        .build());
+            }
+            return symbols;
+        }
+
+        @Override
+        public List<Symbol> resolveReferences(Path path, Path sourceRoot) {
+            resolved.incrementAndGet();
+            return parse(path, sourceRoot, ResolutionMode.FULL).subList(1, 2);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.storage;
+
+import io.appform.codeindex.models.Symbol;
+import io.appform.codeindex.models.SymbolKind;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static io.appform.codeindex.storage.SQLiteStorageBulkLoadTest.symbols;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParseCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testEntriesSurviveReopenWithPathFilledIn() throws Exception {
+        final var cachePath = tempDir.resolve("cache.db").toString();
+        final var symbols = List.of(
+                Symbol.builder()
+                        .name("Foo")
+                        .kind(SymbolKind.CLASS)
+                        .filePath("old/Foo.java")
+                        .line(3)
+                        .build(),
+                Symbol.builder()
+                        .name("bar")
+                        .className("Foo")
+                        .packageName("com.example")
+                        .kind(SymbolKind.REFERENCE)
+                        .filePath("old/Foo.java")
+                        .line(7)
+                        .signature("bar(\"ünïcode\")")
+                        .referenceTo("com.example.Foo.bar")
+                        .build());
+        final var key = ParseCache.key("test/1", "abc");
+        try (ParseCache cache = new ParseCache(cachePath, 1 << 20)) {
+            cache.put(key, symbols);
+            assertEquals(symbols, cache.get(key, "old/Foo.java").orElseThrow());
+        }
+        try (ParseCache cache = new ParseCache(cachePath, 1 << 20)) {
+            final var loaded = cache.get(key, "new/Foo.java").orElseThrow();
+            assertEquals(2, loaded.size());
+            assertTrue(loaded.stream().allMatch(s -> s.getFilePath().equals("new/Foo.java")));
+            loaded.forEach(s -> s.setFilePath("old/Foo.java"));
+            assertEquals(symbols, loaded);
+            assertTrue(cache.get(ParseCache.key("test/2", "abc"), "new/Foo.java").isEmpty());
+        }
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntriesAreEvicted() throws Exception {
+        final var entrySize = ParseCache.encode(symbols("Entry0", 10)).length;
+        try (ParseCache cache = new ParseCache(tempDir.resolve("lru.db").toString(), entrySize * 4L)) {
+            cache.put("a", symbols("Entry0", 10));
+            cache.put("b", symbols("Entry1", 10));
+            cache.put("c", symbols("Entry2", 10));
+            cache.flush();
+            Thread.sleep(5);
+            assertTrue(cache.get("a", "A.java").isPresent());
+            cache.flush();
+            Thread.sleep(5);
+            cache.put("d", symbols("Entry3", 10));
+            cache.put("e", symbols("Entry4", 10));
+            cache.flush();
+
+            assertFalse(cache.get("b", "B.java").isPresent());
+            assertFalse(cache.get("c", "C.java").isPresent());
+            assertTrue(cache.get("a", "A.java").isPresent());
+            assertTrue(cache.get("e", "E.java").isPresent());
+            assertEquals(entrySize * 3L, cache.getSizeBytes());
+        }
+    }
+
+    @Test
+    void testInvalidSize() {
+        assertThrows(IllegalArgumentException.class, () -> new ParseCache(tempDir.resolve("bad.db").toString(), 0));
+    }
+}
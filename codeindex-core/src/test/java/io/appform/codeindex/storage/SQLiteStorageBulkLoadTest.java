@@ -0,0 +1,146 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.storage;
+
+import io.appform.codeindex.models.FileRecord;
+import io.appform.codeindex.models.SearchRequest;
+import io.appform.codeindex.models.Symbol;
+import io.appform.codeindex.models.SymbolKind;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SQLiteStorageBulkLoadTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testBulkLoadMatchesRegularPath() throws Exception {
+        final var regularDb = tempDir.resolve("regular.db").toString();
+        try (SQLiteStorage storage = new SQLiteStorage(regularDb)) {
+            writeFiles(storage, 50);
+        }
+
+        final var bulkDb = tempDir.resolve("bulk.db").toString();
+        try (SQLiteStorage storage = new SQLiteStorage(bulkDb)) {
+            assertTrue(storage.isEmpty());
+            storage.beginBulkLoad();
+            assertTrue(storage.isBulkLoadPending());
+            writeFiles(storage, 50);
+            storage.finishBulkLoad();
+            assertFalse(storage.isBulkLoadPending());
+            assertFalse(storage.isEmpty());
+        }
+
+        try (SQLiteStorage regular = new SQLiteStorage(regularDb);
+                SQLiteStorage bulk = new SQLiteStorage(bulkDb)) {
+            assertEquals(regular.getAllSymbols(null), bulk.getAllSymbols(null));
+            assertEquals(regular.search("Class7"), bulk.search("Class7"));
+            assertEquals(regular.search("Class7::method3"), bulk.search("Class7::method3"));
+            final var byClass = SearchRequest.builder().className("Class12").build();
+            assertEquals(regular.search(byClass), bulk.search(byClass));
+        }
+        assertEquals(List.of("idx_symbols_class_id", "idx_symbols_file_line", "idx_symbols_name",
+                        "idx_symbols_package_id", "idx_symbols_reference_to", "popularity_ad", "popularity_ai",
+                        "symbols_ad", "symbols_ai"),
+                schemaObjects(bulkDb));
+    }
+
+    @Test
+    void testInterruptedBulkLoadIsReported() throws Exception {
+        final var dbPath = tempDir.resolve("interrupted.db").toString();
+        try (SQLiteStorage storage = new SQLiteStorage(dbPath)) {
+            storage.beginBulkLoad();
+            storage.replaceFile(fileRecord("Interrupted.java"), symbols("Interrupted", 3));
+        }
+
+        try (SQLiteStorage storage = new SQLiteStorage(dbPath)) {
+            assertTrue(storage.isBulkLoadPending());
+            assertTrue(storage.search("Interrupted").isEmpty());
+            storage.beginBulkLoad();
+            storage.replaceFile(fileRecord("Kept.java"), symbols("Kept", 3));
+            storage.finishBulkLoad();
+            assertFalse(storage.isBulkLoadPending());
+            assertEquals(3, storage.search("Interrupted").size());
+            assertEquals(3, storage.search("Kept").size());
+        }
+    }
+
+    private static void writeFiles(SQLiteStorage storage, int fileCount) throws SQLException {
+        for (int i = 0; i < fileCount; i++) {
+            storage.replaceFile(fileRecord("Class" + i + ".java"), symbols("Class" + i, 10));
+        }
+    }
+
+    static FileRecord fileRecord(String path) {
+        return FileRecord.builder()
+                .path(path)
+                .size(1)
+                .mtime(1)
+                .contentHash(path)
+                .build();
+    }
+
+    static List<Symbol> symbols(String className, int methodCount) {
+        final var symbols = new ArrayList<Symbol>();
+        final var filePath = className + ".java";
+        symbols.add(Symbol.builder()
+                .name(className)
+                .className(className)
+                .packageName("io.appform.bulk")
+                .kind(SymbolKind.CLASS)
+                .filePath(filePath)
+                .line(1)
+                .signature("class " + className)
+                .build());
+        for (int i = 1; i < methodCount; i++) {
+            symbols.add(Symbol.builder()
+                    .name("method" + i)
+                    .className(className)
+                    .packageName("io.appform.bulk")
+                    .kind(SymbolKind.METHOD)
+                    .filePath(filePath)
+                    .line(i + 1)
+                    .signature("void method" + i + "()")
+                    .build());
+        }
+        return symbols;
+    }
+
+    private static List<String> schemaObjects(String dbPath) throws SQLException {
+        final var names = new ArrayList<String>();
+        try (var connection = DriverManager.getConnection("jdbc:sqlite:" + dbPath);
+                var stmt = connection.createStatement();
+                var rs = stmt.executeQuery("SELECT name FROM sqlite_master WHERE type IN ('index', 'trigger') "
+                        + "AND tbl_name = 'symbol_rows' AND sql IS NOT NULL ORDER BY name")) {
+            while (rs.next()) {
+                names.add(rs.getString(1));
+            }
+        }
+        return names;
+    }
+}
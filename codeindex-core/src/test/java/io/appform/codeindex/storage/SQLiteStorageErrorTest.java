@@ -25,6 +25,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.List;
@@ -47,6 +48,9 @@ class SQLiteStorageErrorTest {
     @Mock
     private PreparedStatement preparedStatement;
 
+    @Mock
+    private ResultSet resultSet;
+
     @Test
     void testInitializeSchemaFailure() throws SQLException {
         when(connection.createStatement()).thenReturn(statement);
@@ -59,6 +63,7 @@ class SQLiteStorageErrorTest {
     @Test
     void testSaveSymbolsRollback() throws SQLException {
         when(connection.createStatement()).thenReturn(statement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
         when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
         
         SQLiteStorage storage = new SQLiteStorage(connection);
@@ -80,6 +85,7 @@ class SQLiteStorageErrorTest {
     @Test
     void testSaveSymbolsRollbackFailure() throws SQLException {
         when(connection.createStatement()).thenReturn(statement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
         when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
         
         SQLiteStorage storage = new SQLiteStorage(connection);
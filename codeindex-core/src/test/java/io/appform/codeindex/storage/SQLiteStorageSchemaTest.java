@@ -0,0 +1,234 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.storage;
+
+import io.appform.codeindex.models.SearchRequest;
+import io.appform.codeindex.models.Symbol;
+import io.appform.codeindex.models.SymbolKind;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static io.appform.codeindex.storage.SQLiteStorageBulkLoadTest.fileRecord;
+import static io.appform.codeindex.storage.SQLiteStorageBulkLoadTest.symbols;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SQLiteStorageSchemaTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testNamesAreStoredOnce() throws Exception {
+        final var dbPath = tempDir.resolve("normalized.db").toString();
+        try (SQLiteStorage storage = new SQLiteStorage(dbPath)) {
+            for (int i = 0; i < 20; i++) {
+                storage.replaceFile(fileRecord("Class" + i + ".java"), symbols("Class" + i, 5));
+            }
+            storage.removeFiles(IntStream.range(0, 5).mapToObj(i -> "Class" + i + ".java").toList());
+
+            assertEquals(75, storage.getAllSymbols(null).size());
+            assertEquals(5, storage.search(SearchRequest.builder()
+                            .filePathGlob("Class7.*")
+                            .build())
+                    .size());
+            assertEquals(15, storage.search(SearchRequest.builder()
+                            .packageName("appform.bulk")
+                            .kinds(Set.of(SymbolKind.CLASS))
+                            .build())
+                    .size());
+        }
+        assertEquals(15, count(dbPath, "SELECT COUNT(*) FROM file_paths"));
+        assertEquals(20, count(dbPath, "SELECT COUNT(*) FROM classes"));
+        assertEquals(1, count(dbPath, "SELECT COUNT(*) FROM packages"));
+        assertEquals(75, count(dbPath, "SELECT COUNT(*) FROM symbol_rows WHERE typeof(kind_id) = 'integer'"));
+    }
+
+    @Test
+    void testReadOnlyOpen() throws Exception {
+        final var dbPath = tempDir.resolve("readonly.db").toString();
+        assertThrows(SQLException.class, () -> SQLiteStorage.openReadOnly(dbPath));
+        try (SQLiteStorage storage = new SQLiteStorage(dbPath)) {
+            storage.replaceFile(fileRecord("Reader.java"), symbols("Reader", 3));
+        }
+
+        try (SQLiteStorage storage = SQLiteStorage.openReadOnly(dbPath)) {
+            assertEquals(3, storage.search("Reader").size());
+            assertEquals(3, storage.getAllSymbols(null).size());
+            assertThrows(SQLException.class, () -> storage.replaceFile(fileRecord("Other.java"), symbols("Other", 2)));
+        }
+    }
+
+    @Test
+    void testLegacyIndexIsConverted() throws Exception {
+        final var dbPath = tempDir.resolve("legacy.db").toString();
+        try (var connection = DriverManager.getConnection("jdbc:sqlite:" + dbPath);
+                var stmt = connection.createStatement()) {
+            stmt.execute("""
+                    CREATE TABLE symbols (
+                        id INTEGER PRIMARY KEY AUTOINCREMENT,
+                        name TEXT NOT NULL,
+                        class_name TEXT,
+                        package_name TEXT,
+                        kind TEXT NOT NULL,
+                        file_path TEXT NOT NULL,
+                        line INTEGER NOT NULL,
+                        signature TEXT,
+                        reference_to TEXT
+                    )
+                    """);
+            stmt.execute("""
+                    CREATE VIRTUAL TABLE symbols_fts USING fts5(
+                        name, class_name, package_name, content='symbols', content_rowid='id')
+                    """);
+            stmt.execute("CREATE TABLE files (path TEXT PRIMARY KEY, size INTEGER NOT NULL, mtime INTEGER NOT NULL, "
+                    + "content_hash TEXT NOT NULL)");
+            stmt.execute("CREATE INDEX idx_symbols_class_name ON symbols(class_name)");
+            stmt.execute("""
+                    INSERT INTO symbols (name, class_name, package_name, kind, file_path, line, signature, reference_to)
+                    VALUES ('Legacy', 'Legacy', 'io.appform.old', 'CLASS', 'Legacy.java', 1, 'class Legacy', NULL),
+                           ('run', 'Legacy', 'io.appform.old', 'METHOD', 'Legacy.java', 2, 'void run()', NULL),
+                           ('run', NULL, NULL, 'REFERENCE', 'Legacy.java', 3, NULL, 'io.appform.old.Legacy.run()')
+                    """);
+            stmt.execute("INSERT INTO symbols_fts(symbols_fts) VALUES ('rebuild')");
+            stmt.execute("INSERT INTO files VALUES ('Legacy.java', 10, 20, 'hash')");
+        }
+
+        try (SQLiteStorage storage = SQLiteStorage.openReadOnly(dbPath)) {
+            final var symbols = storage.getAllSymbols(null);
+            assertEquals(3, symbols.size());
+            assertEquals(Symbol.builder()
+                            .name("run")
+                            .className("Legacy")
+                            .packageName("io.appform.old")
+                            .kind(SymbolKind.METHOD)
+                            .filePath("Legacy.java")
+                            .line(2)
+                            .signature("void run()")
+                            .build(),
+                    symbols.get(1));
+            assertEquals("io.appform.old.Legacy.run()", symbols.get(2).getReferenceTo());
+            assertEquals(2, storage.search("Legacy").size());
+            assertEquals(1, storage.getFileRecords().size());
+        }
+        try (SQLiteStorage storage = new SQLiteStorage(dbPath)) {
+            storage.replaceFile(fileRecord("Legacy.java"), symbols("Legacy", 4));
+            assertEquals(4, storage.search("Legacy").size());
+        }
+        assertEquals(1, count(dbPath, "SELECT COUNT(*) FROM sqlite_master WHERE type = 'view' AND name = 'symbols'"));
+    }
+
+    @Test
+    void testIndexWithoutSubwordsIsUpgraded() throws Exception {
+        final var dbPath = tempDir.resolve("upgrade.db").toString();
+        try (SQLiteStorage storage = new SQLiteStorage(dbPath)) {
+            storage.replaceFile(fileRecord("OrderService.java"), symbols("OrderService", 3));
+        }
+        downgradeToNormalizedSchema(dbPath);
+
+        try (SQLiteStorage storage = new SQLiteStorage(dbPath)) {
+            assertEquals(3, storage.search("Service").size());
+            assertEquals(3, storage.search(SearchRequest.builder().className("Service").build()).size());
+            storage.removeFiles(List.of("OrderService.java"));
+            assertEquals(0, storage.search("Service").size());
+        }
+    }
+
+    @Test
+    void testReadOnlyOpenUpgradesOlderSchema() throws Exception {
+        final var dbPath = tempDir.resolve("readonly-upgrade.db").toString();
+        try (SQLiteStorage storage = new SQLiteStorage(dbPath)) {
+            storage.replaceFile(fileRecord("OrderService.java"), symbols("OrderService", 3));
+        }
+        downgradeToNormalizedSchema(dbPath);
+
+        try (SQLiteStorage storage = SQLiteStorage.openReadOnly(dbPath)) {
+            assertEquals(3, storage.search("Service").size());
+            assertEquals(3, storage.search(SearchRequest.builder().className("Service").build()).size());
+            assertEquals(3, storage.search(SearchRequest.builder().packageName("appform.bulk").build()).size());
+        }
+        assertEquals(1, count(dbPath, "SELECT COUNT(*) FROM metadata WHERE key = 'schema_version' AND value = '5'"));
+    }
+
+    @Test
+    void testAllSymbolsAreReadInIndexOrder() throws Exception {
+        final var dbPath = tempDir.resolve("ordered.db").toString();
+        try (SQLiteStorage storage = new SQLiteStorage(dbPath)) {
+            // Written out of path order, so the ids of files and symbols do not give the order
+            storage.replaceFile(fileRecord("Second.java"), symbols("Second", 3));
+            storage.replaceFile(fileRecord("First.java"), symbols("First", 3));
+            final var paths = storage.getAllSymbols(null).stream().map(Symbol::getFilePath).distinct().toList();
+            assertEquals(List.of("First.java", "Second.java"), paths);
+        }
+        try (var connection = DriverManager.getConnection("jdbc:sqlite:" + dbPath)) {
+            for (int kinds : List.of(0, 2)) {
+                final var plan = new StringBuilder();
+                try (var pstmt = connection.prepareStatement("EXPLAIN QUERY PLAN " + SQLiteStorage.allSymbolsSql(kinds))) {
+                    for (int i = 1; i <= kinds; i++) {
+                        pstmt.setString(i, SymbolKind.values()[i].name());
+                    }
+                    try (var rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            plan.append(rs.getString("detail")).append('\n');
+                        }
+                    }
+                }
+                assertFalse(plan.toString().contains("TEMP B-TREE"), plan.toString());
+            }
+        }
+    }
+
+    /**
+     * Puts back the schema of an index written before names were indexed by subword and references
+     * were counted: no subword table, no class and package full text indexes, no reference counts and
+     * no recorded schema version.
+     */
+    static void downgradeToNormalizedSchema(String dbPath) throws SQLException {
+        try (var connection = DriverManager.getConnection("jdbc:sqlite:" + dbPath);
+                var stmt = connection.createStatement()) {
+            for (String trigger : List.of("symbols_ai", "symbols_ad", "classes_ai", "packages_ai",
+                    "popularity_ai", "popularity_ad")) {
+                stmt.execute("DROP TRIGGER " + trigger);
+            }
+            for (String table : List.of("symbols_fts", "classes_fts", "packages_fts", "name_terms", "symbol_popularity")) {
+                stmt.execute("DROP TABLE " + table);
+            }
+            stmt.execute("DROP VIEW symbol_terms");
+            stmt.execute("DROP VIEW class_terms");
+            stmt.execute("DELETE FROM metadata WHERE key = 'schema_version'");
+            stmt.execute("CREATE VIRTUAL TABLE symbols_fts USING fts5(name, class_name, package_name, "
+                    + "content='symbols', content_rowid='id')");
+            stmt.execute("INSERT INTO symbols_fts(symbols_fts) VALUES ('rebuild')");
+        }
+    }
+
+    private static long count(String dbPath, String sql) throws SQLException {
+        try (var connection = DriverManager.getConnection("jdbc:sqlite:" + dbPath);
+                var stmt = connection.createStatement();
+                var rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+}
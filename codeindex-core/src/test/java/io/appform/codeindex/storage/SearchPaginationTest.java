@@ -0,0 +1,189 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.storage;
+
+import io.appform.codeindex.models.SearchPage;
+import io.appform.codeindex.models.SearchRequest;
+import io.appform.codeindex.models.Symbol;
+import io.appform.codeindex.models.SymbolKind;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static io.appform.codeindex.storage.SQLiteStorageBulkLoadTest.fileRecord;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SearchPaginationTest {
+
+    @TempDir
+    Path tempDir;
+
+    private String dbPath;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dbPath = tempDir.resolve("pages.db").toString();
+        try (SQLiteStorage storage = new SQLiteStorage(dbPath)) {
+            for (int file = 0; file < 5; file++) {
+                final var symbols = new ArrayList<Symbol>();
+                for (int i = 0; i < 10; i++) {
+                    symbols.add(Symbol.builder()
+                            .name(i % 3 == 0 ? "handle" : "handle" + file + i)
+                            .className("Handler" + file)
+                            .packageName("io.appform.app")
+                            .kind(i == 0 ? SymbolKind.CLASS : SymbolKind.METHOD)
+                            .filePath("Handler" + file + ".java")
+                            .line(i + 1)
+                            .build());
+                }
+                storage.replaceFile(fileRecord("Handler" + file + ".java"), symbols);
+            }
+        }
+    }
+
+    @Test
+    void testPagesContinueWhereTheLastEnded() throws Exception {
+        try (SQLiteStorage storage = SQLiteStorage.openReadOnly(dbPath)) {
+            for (SearchRequest request : List.of(
+                    SearchRequest.builder().query("handle").build(),
+                    SearchRequest.builder().kinds(Set.of(SymbolKind.METHOD)).build())) {
+                final var all = storage.search(request);
+                request.setLimit(7);
+                assertEquals(all, readAllPages(storage, request));
+            }
+            assertEquals(50, storage.search("handle").size());
+        }
+    }
+
+    @Test
+    void testLastPageHasNoCursor() throws Exception {
+        try (SQLiteStorage storage = SQLiteStorage.openReadOnly(dbPath)) {
+            final var request = SearchRequest.builder().query("handle").limit(50).build();
+            assertNull(storage.searchPage(request).getNextCursor());
+            request.setLimit(49);
+            assertNotNull(storage.searchPage(request).getNextCursor());
+        }
+    }
+
+    @Test
+    void testCursorOfAnotherRequestIsRejected() throws Exception {
+        try (SQLiteStorage storage = SQLiteStorage.openReadOnly(dbPath)) {
+            final var cursor = storage.searchPage(SearchRequest.builder().query("handle").limit(5).build())
+                    .getNextCursor();
+            assertThrows(IllegalArgumentException.class,
+                    () -> storage.search(SearchRequest.builder().className("Handler1").cursor(cursor).build()));
+            assertThrows(IllegalArgumentException.class,
+                    () -> storage.search(SearchRequest.builder().query("handle").cursor("not a cursor").build()));
+        }
+    }
+
+    @Test
+    void testStreamsReadTheSameRows() throws Exception {
+        try (SQLiteStorage storage = SQLiteStorage.openReadOnly(dbPath)) {
+            final var request = SearchRequest.builder().query("handle").limit(12).build();
+            try (Stream<Symbol> symbols = storage.searchStream(request)) {
+                assertEquals(storage.search(request), symbols.collect(Collectors.toList()));
+            }
+            try (Stream<Symbol> symbols = storage.streamAllSymbols(Set.of(SymbolKind.CLASS))) {
+                assertEquals(storage.getAllSymbols(Set.of(SymbolKind.CLASS)), symbols.collect(Collectors.toList()));
+            }
+        }
+    }
+
+    @Test
+    void testSessionStreamReturnsItsConnection() throws Exception {
+        try (SearchSession session = new SearchSession(dbPath, 1)) {
+            final var request = SearchRequest.builder().query("handle").limit(7).build();
+            try (Stream<Symbol> symbols = session.searchStream(request)) {
+                assertEquals(7, symbols.count());
+            }
+            final var page = session.searchPage(request);
+            request.setCursor(page.getNextCursor());
+            assertEquals(7, session.search(request).size());
+        }
+    }
+
+    @Test
+    void testPagesContinuePastTheCandidatesOfTheFirstPage() throws Exception {
+        final var path = tempDir.resolve("candidates.db").toString();
+        try (SQLiteStorage storage = new SQLiteStorage(path)) {
+            final var symbols = new ArrayList<Symbol>();
+            for (int i = 0; i < 1200; i++) {
+                symbols.add(method("handle" + i, "Worker", "Worker.java", i + 1));
+            }
+            // Weaker text matches, through the class name only, which references lift among the others
+            for (int i = 0; i < 300; i++) {
+                symbols.add(method("process" + i, "handleQueue", "Worker.java", 2000 + i));
+                for (int ref = 0; ref < i % 50; ref++) {
+                    symbols.add(Symbol.builder()
+                            .name("process" + i)
+                            .className("Caller")
+                            .packageName("io.appform.app")
+                            .kind(SymbolKind.REFERENCE)
+                            .filePath("Worker.java")
+                            .line(5000)
+                            .referenceTo("io.appform.app.handleQueue.process" + i)
+                            .build());
+                }
+            }
+            storage.replaceFile(fileRecord("Worker.java"), symbols);
+        }
+        try (SQLiteStorage storage = SQLiteStorage.openReadOnly(path)) {
+            final var request = SearchRequest.builder().query("handle").limit(1000).build();
+            final var first = storage.search(request);
+            request.setLimit(90);
+            final var paged = readAllPages(storage, request);
+            assertEquals(1500, paged.size());
+            assertEquals(1500, Set.copyOf(paged).size());
+            assertEquals(first, paged.subList(0, 1000));
+            assertEquals(Set.copyOf(storage.search(SearchRequest.builder().query("handle").limit(2000).build())),
+                    Set.copyOf(paged));
+        }
+    }
+
+    private static Symbol method(String name, String className, String filePath, int line) {
+        return Symbol.builder()
+                .name(name)
+                .className(className)
+                .packageName("io.appform.app")
+                .kind(SymbolKind.METHOD)
+                .filePath(filePath)
+                .line(line)
+                .build();
+    }
+
+    private static List<Symbol> readAllPages(SQLiteStorage storage, SearchRequest request) throws Exception {
+        final var symbols = new ArrayList<Symbol>();
+        SearchPage page;
+        do {
+            page = storage.searchPage(request);
+            symbols.addAll(page.getSymbols());
+            request.setCursor(page.getNextCursor());
+        } while (page.getNextCursor() != null);
+        return symbols;
+    }
+}
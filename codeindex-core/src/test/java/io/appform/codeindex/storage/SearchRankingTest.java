@@ -0,0 +1,129 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.storage;
+
+import io.appform.codeindex.models.SearchRequest;
+import io.appform.codeindex.models.Symbol;
+import io.appform.codeindex.models.SymbolKind;
+import io.appform.codeindex.parser.ParserRegistry;
+import io.appform.codeindex.service.CodeIndexer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static io.appform.codeindex.storage.SQLiteStorageBulkLoadTest.fileRecord;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SearchRankingTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testExactNameMatchesComeFirst() throws Exception {
+        try (SQLiteStorage storage = new SQLiteStorage(tempDir.resolve("exact.db").toString())) {
+            storage.replaceFile(fileRecord("Processor.java"), List.of(
+                    symbol("Processor", "Processor", SymbolKind.CLASS, "Processor.java", null),
+                    symbol("processAll", "Processor", SymbolKind.METHOD, "Processor.java", null),
+                    symbol("processed", "Processor", SymbolKind.FIELD, "Processor.java", null),
+                    symbol("process", "Processor", SymbolKind.METHOD, "Processor.java", null)));
+
+            assertEquals("process", storage.search("process", 1).get(0).getName());
+            assertEquals(SymbolKind.CLASS, storage.search("Processor", 1).get(0).getKind());
+            assertEquals(4, storage.search("process").size());
+        }
+    }
+
+    @Test
+    void testReferencedSymbolsRankHigher() throws Exception {
+        final var regular = tempDir.resolve("regular.db").toString();
+        try (SQLiteStorage storage = new SQLiteStorage(regular)) {
+            writeHandlers(storage);
+            assertEquals("Busy", storage.search("handle", 1).get(0).getClassName());
+            assertEquals("Busy", storage.search(SearchRequest.builder()
+                            .query("Busy")
+                            .kinds(Set.of(SymbolKind.CLASS))
+                            .build())
+                    .get(0).getName());
+
+            // Callers that move to the other handler move the ranking with them
+            storage.removeFiles(List.of("Caller.java"));
+            storage.replaceFile(fileRecord("Caller.java"), callers("io.appform.app.Idle.handle", 4));
+            assertEquals("Idle", storage.search("handle", 1).get(0).getClassName());
+        }
+
+        final var bulk = tempDir.resolve("bulk.db").toString();
+        try (SQLiteStorage storage = new SQLiteStorage(bulk)) {
+            storage.beginBulkLoad();
+            writeHandlers(storage);
+            storage.finishBulkLoad();
+            assertEquals("Busy", storage.search("handle", 1).get(0).getClassName());
+        }
+    }
+
+    @Test
+    void testIndexFromBeforeRankingIsUpgradedOnSearch() throws Exception {
+        final var dbPath = tempDir.resolve("unranked.db").toString();
+        try (SQLiteStorage storage = new SQLiteStorage(dbPath)) {
+            writeHandlers(storage);
+        }
+        SQLiteStorageSchemaTest.downgradeToNormalizedSchema(dbPath);
+
+        final var indexer = new CodeIndexer(dbPath, new ParserRegistry());
+        final var results = indexer.search(SearchRequest.builder()
+                .query("handle")
+                .kinds(Set.of(SymbolKind.METHOD))
+                .build());
+        assertEquals(List.of("Busy", "Idle"), results.stream().map(Symbol::getClassName).collect(Collectors.toList()));
+    }
+
+    private static void writeHandlers(SQLiteStorage storage) throws SQLException {
+        storage.replaceFile(fileRecord("Idle.java"), List.of(
+                symbol("Idle", "Idle", SymbolKind.CLASS, "Idle.java", null),
+                symbol("handle", "Idle", SymbolKind.METHOD, "Idle.java", null)));
+        storage.replaceFile(fileRecord("Busy.java"), List.of(
+                symbol("Busy", "Busy", SymbolKind.CLASS, "Busy.java", null),
+                symbol("handle", "Busy", SymbolKind.METHOD, "Busy.java", null)));
+        storage.replaceFile(fileRecord("Caller.java"), callers("io.appform.app.Busy.handle", 3));
+    }
+
+    private static List<Symbol> callers(String target, int count) {
+        final var symbols = new ArrayList<Symbol>();
+        for (int i = 0; i < count; i++) {
+            symbols.add(symbol("handle", "Caller", SymbolKind.REFERENCE, "Caller.java", target));
+        }
+        return symbols;
+    }
+
+    private static Symbol symbol(String name, String className, SymbolKind kind, String filePath, String referenceTo) {
+        return Symbol.builder()
+                .name(name)
+                .className(className)
+                .packageName("io.appform.app")
+                .kind(kind)
+                .filePath(filePath)
+                .line(1)
+                .referenceTo(referenceTo)
+                .build();
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.storage;
+
+import io.appform.codeindex.models.SearchRequest;
+import io.appform.codeindex.models.SymbolKind;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+
+import static io.appform.codeindex.storage.SQLiteStorageBulkLoadTest.fileRecord;
+import static io.appform.codeindex.storage.SQLiteStorageBulkLoadTest.symbols;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SearchSessionTest {
+
+    @TempDir
+    Path tempDir;
+
+    private String dbPath;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        dbPath = tempDir.resolve("session.db").toString();
+        try (SQLiteStorage storage = new SQLiteStorage(dbPath)) {
+            for (int i = 0; i < 20; i++) {
+                storage.replaceFile(fileRecord("Class" + i + ".java"), symbols("Class" + i, 5));
+            }
+        }
+    }
+
+    @Test
+    void testMatchesStorageSearch() throws Exception {
+        final var requests = List.of(
+                SearchRequest.builder().query("Class1").build(),
+                SearchRequest.builder().query("Class3::method2").build(),
+                SearchRequest.builder().className("Class12").build(),
+                SearchRequest.builder().filePathGlob("Class1*").kinds(Set.of(SymbolKind.METHOD)).limit(7).build(),
+                SearchRequest.builder().query("method").packageName("bulk").kinds(Set.of(SymbolKind.METHOD, SymbolKind.CLASS)).build());
+        try (SQLiteStorage storage = new SQLiteStorage(dbPath);
+                SearchSession session = new SearchSession(dbPath, 2)) {
+            for (SearchRequest request : requests) {
+                assertEquals(storage.search(request), session.search(request));
+            }
+        }
+    }
+
+    @Test
+    void testStatementsAreReusedPerShape() throws Exception {
+        try (SearchSession session = new SearchSession(dbPath, 1)) {
+            for (int i = 10; i < 20; i++) {
+                assertEquals(5, session.search("Class" + i).size());
+                assertEquals(1, session.search(SearchRequest.builder().className("Class" + i).kinds(Set.of(SymbolKind.CLASS)).build()).size());
+            }
+            assertEquals(2, session.statementsPrepared());
+        }
+    }
+
+    @Test
+    void testConcurrentSearches() throws Exception {
+        final var executor = Executors.newFixedThreadPool(4);
+        try (SearchSession session = new SearchSession(dbPath, 2)) {
+            final var tasks = new ArrayList<Callable<Integer>>();
+            for (int i = 0; i < 200; i++) {
+                final var className = "Class" + (10 + i % 10);
+                tasks.add(() -> session.search(SearchRequest.builder().className(className).build()).size());
+            }
+            for (var result : executor.invokeAll(tasks)) {
+                assertEquals(5, result.get());
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testSeesLaterWrites() throws Exception {
+        try (SearchSession session = new SearchSession(dbPath, 1)) {
+            assertEquals(0, session.search("Added").size());
+            try (SQLiteStorage storage = new SQLiteStorage(dbPath)) {
+                storage.replaceFile(fileRecord("Added.java"), symbols("Added", 3));
+            }
+            assertEquals(3, session.search("Added").size());
+        }
+    }
+
+    @Test
+    void testClosedSessionRejectsSearches() throws Exception {
+        final var session = new SearchSession(dbPath, 1);
+        session.close();
+        assertThrows(SQLException.class, () -> session.search("Class1"));
+        assertThrows(IllegalArgumentException.class, () -> new SearchSession(dbPath, 0));
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.storage;
+
+import io.appform.codeindex.models.Symbol;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.appform.codeindex.storage.SQLiteStorageBulkLoadTest.fileRecord;
+import static io.appform.codeindex.storage.SQLiteStorageBulkLoadTest.symbols;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Writes the same files through per-file transactions, group commits and a bulk load, and checks
+ * that all three produce the same index. Their throughput is measured by
+ * {@code StorageWriteBenchmark} in the benchmarks module.
+ */
+class StorageWritePathsTest {
+
+    private static final int FILE_COUNT = 200;
+    private static final int SYMBOLS_PER_FILE = 50;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testWritePathsProduceTheSameIndex() throws Exception {
+        final var files = new ArrayList<List<Symbol>>();
+        for (int i = 0; i < FILE_COUNT; i++) {
+            files.add(symbols("PerfClass" + i, SYMBOLS_PER_FILE));
+        }
+
+        final var regularDb = tempDir.resolve("regular.db").toString();
+        try (SQLiteStorage storage = new SQLiteStorage(regularDb)) {
+            for (List<Symbol> symbols : files) {
+                storage.replaceFile(fileRecord(symbols.get(0).getFilePath()), symbols);
+            }
+        }
+
+        final var groupedDb = tempDir.resolve("grouped.db").toString();
+        try (SQLiteStorage storage = new SQLiteStorage(groupedDb);
+                WriteBuffer buffer = new WriteBuffer(storage, 1_000, Duration.ofSeconds(1))) {
+            for (List<Symbol> symbols : files) {
+                buffer.add(FileUpdate.replace(fileRecord(symbols.get(0).getFilePath()), symbols));
+            }
+            buffer.flush();
+            assertTrue(buffer.getFailed().isEmpty());
+        }
+
+        final var bulkDb = tempDir.resolve("bulk.db").toString();
+        try (SQLiteStorage storage = new SQLiteStorage(bulkDb)) {
+            storage.beginBulkLoad();
+            assertTrue(storage.isBulkLoading());
+            try (WriteBuffer buffer = new WriteBuffer(storage, 100_000, Duration.ofSeconds(1))) {
+                for (List<Symbol> symbols : files) {
+                    buffer.add(FileUpdate.replace(fileRecord(symbols.get(0).getFilePath()), symbols));
+                }
+            }
+            assertTrue(storage.isBulkLoadPending());
+            storage.finishBulkLoad();
+            assertFalse(storage.isBulkLoading());
+            assertFalse(storage.isBulkLoadPending());
+        }
+
+        try (SQLiteStorage regular = new SQLiteStorage(regularDb);
+                SQLiteStorage grouped = new SQLiteStorage(groupedDb);
+                SQLiteStorage bulk = new SQLiteStorage(bulkDb)) {
+            final var expected = regular.getAllSymbols(null);
+            assertEquals(FILE_COUNT * SYMBOLS_PER_FILE, expected.size());
+            assertEquals(FILE_COUNT, regular.getFileRecords().size());
+            assertEquals(expected, grouped.getAllSymbols(null));
+            assertEquals(expected, bulk.getAllSymbols(null));
+            assertEquals(regular.getFileRecords().keySet(), grouped.getFileRecords().keySet());
+            assertEquals(regular.getFileRecords().keySet(), bulk.getFileRecords().keySet());
+            assertEquals(regular.search("PerfClass42"), grouped.search("PerfClass42"));
+            assertEquals(regular.search("PerfClass42"), bulk.search("PerfClass42"));
+        }
+    }
+}
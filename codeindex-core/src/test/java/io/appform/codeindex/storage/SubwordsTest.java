@@ -0,0 +1,90 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.storage;
+
+import io.appform.codeindex.models.SearchRequest;
+import io.appform.codeindex.models.Symbol;
+import io.appform.codeindex.models.SymbolKind;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static io.appform.codeindex.storage.SQLiteStorageBulkLoadTest.fileRecord;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SubwordsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testExpand() {
+        assertEquals("OrderServiceImpl ServiceImpl Impl", Subwords.expand("OrderServiceImpl"));
+        assertEquals("getHTTPResponse HTTPResponse Response", Subwords.expand("getHTTPResponse"));
+        assertEquals("parseXML XML", Subwords.expand("parseXML"));
+        assertEquals("utf8Decoder Decoder", Subwords.expand("utf8Decoder"));
+        assertEquals("max_bufferSize Size", Subwords.expand("max_bufferSize"));
+        assertNull(Subwords.expand("order"));
+        assertNull(Subwords.expand("MAX_BUFFER_SIZE"));
+        assertNull(Subwords.expand("URL"));
+        assertNull(Subwords.expand(null));
+    }
+
+    @Test
+    void testSearchMatchesSubwords() throws Exception {
+        try (SQLiteStorage storage = new SQLiteStorage(tempDir.resolve("subwords.db").toString())) {
+            storage.replaceFile(fileRecord("OrderServiceImpl.java"), List.of(
+                    symbol("OrderServiceImpl", "OrderServiceImpl", SymbolKind.CLASS, 1),
+                    symbol("calculateTotalPrice", "OrderServiceImpl", SymbolKind.METHOD, 2),
+                    symbol("MAX_RETRY_COUNT", "OrderServiceImpl", SymbolKind.FIELD, 3)));
+
+            assertEquals(3, storage.search("Service").size());
+            assertEquals(3, storage.search("ServiceImpl").size());
+            assertEquals(1, storage.search("TotalPrice").size());
+            assertEquals(1, storage.search("Price").size());
+            assertEquals(1, storage.search("RETRY").size());
+            assertEquals(1, storage.search("Impl::total").size());
+            assertTrue(storage.search("rvice").isEmpty());
+
+            assertEquals(3, storage.search(SearchRequest.builder().className("Impl").build()).size());
+            assertEquals(3, storage.search(SearchRequest.builder().className("orderservice").build()).size());
+            assertEquals(3, storage.search(SearchRequest.builder().packageName("appform.shop").build()).size());
+            assertEquals(3, storage.search(SearchRequest.builder().packageName("shop").build()).size());
+            assertTrue(storage.search(SearchRequest.builder().packageName("appform.other").build()).isEmpty());
+
+            // Deleting the file removes it from the index under every subword
+            storage.removeFiles(List.of("OrderServiceImpl.java"));
+            assertTrue(storage.search("Service").isEmpty());
+            assertTrue(storage.search("Price").isEmpty());
+        }
+    }
+
+    private static Symbol symbol(String name, String className, SymbolKind kind, int line) {
+        return Symbol.builder()
+                .name(name)
+                .className(className)
+                .packageName("io.appform.shop")
+                .kind(kind)
+                .filePath("OrderServiceImpl.java")
+                .line(line)
+                .build();
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.storage;
+
+import io.appform.codeindex.models.Symbol;
+import io.appform.codeindex.models.SymbolKind;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.appform.codeindex.storage.SQLiteStorageBulkLoadTest.fileRecord;
+import static io.appform.codeindex.storage.SQLiteStorageBulkLoadTest.symbols;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WriteBufferTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testCommitsWhenSymbolLimitReached() throws Exception {
+        try (SQLiteStorage storage = new SQLiteStorage(tempDir.resolve("limit.db").toString())) {
+            final var buffer = new WriteBuffer(storage, 25, Duration.ofHours(1));
+            buffer.add(FileUpdate.replace(fileRecord("A.java"), symbols("A", 10)));
+            buffer.add(FileUpdate.replace(fileRecord("B.java"), symbols("B", 10)));
+            assertTrue(storage.getAllSymbols(null).isEmpty());
+
+            buffer.add(FileUpdate.replace(fileRecord("C.java"), symbols("C", 10)));
+            assertEquals(30, storage.getAllSymbols(null).size());
+
+            buffer.add(FileUpdate.replace(fileRecord("D.java"), symbols("D", 10)));
+            assertEquals(30, storage.getAllSymbols(null).size());
+            buffer.close();
+            assertEquals(40, storage.getAllSymbols(null).size());
+            assertEquals(4, storage.getFileRecords().size());
+        }
+    }
+
+    @Test
+    void testCommitsWhenBatchIsTooOld() throws Exception {
+        try (SQLiteStorage storage = new SQLiteStorage(tempDir.resolve("age.db").toString())) {
+            final var buffer = new WriteBuffer(storage, 10_000, Duration.ofMillis(20));
+            buffer.add(FileUpdate.replace(fileRecord("A.java"), symbols("A", 5)));
+            buffer.flushIfExpired();
+            assertTrue(storage.getAllSymbols(null).isEmpty());
+
+            Thread.sleep(50);
+            buffer.flushIfExpired();
+            assertEquals(5, storage.getAllSymbols(null).size());
+        }
+    }
+
+    @Test
+    void testFailedFileDoesNotLoseRestOfBatch() throws Exception {
+        try (SQLiteStorage storage = new SQLiteStorage(tempDir.resolve("failure.db").toString())) {
+            final var broken = new ArrayList<>(symbols("Broken", 3));
+            broken.add(Symbol.builder()
+                    .kind(SymbolKind.METHOD)
+                    .filePath("Broken.java")
+                    .line(99)
+                    .build());
+            final var brokenUpdate = FileUpdate.replace(fileRecord("Broken.java"), broken);
+            try (WriteBuffer buffer = new WriteBuffer(storage, 10_000, Duration.ofHours(1))) {
+                buffer.add(FileUpdate.replace(fileRecord("Good1.java"), symbols("Good1", 3)));
+                buffer.add(brokenUpdate);
+                buffer.add(FileUpdate.replace(fileRecord("Good2.java"), symbols("Good2", 3)));
+                buffer.flush();
+                assertEquals(List.of(brokenUpdate), buffer.getFailed());
+            }
+
+            assertEquals(6, storage.getAllSymbols(null).size());
+            assertEquals(3, storage.search("Good2").size());
+            assertTrue(storage.search("Broken").isEmpty());
+            assertFalse(storage.getFileRecords().containsKey("Broken.java"));
+        }
+    }
+
+    @Test
+    void testFailedPartFailsRestOfFile() throws Exception {
+        try (SQLiteStorage storage = new SQLiteStorage(tempDir.resolve("parts.db").toString())) {
+            final var record = fileRecord("Large.java");
+            final var broken = new ArrayList<>(symbols("Large", 2));
+            broken.add(Symbol.builder()
+                    .kind(SymbolKind.METHOD)
+                    .filePath("Large.java")
+                    .line(99)
+                    .build());
+            final var first = FileUpdate.part(record, symbols("Large", 3), true, false);
+            final var second = FileUpdate.part(record, broken, false, false);
+            final var third = FileUpdate.part(record, symbols("Large", 3), false, false);
+            final var last = FileUpdate.part(record, symbols("Large", 3), false, true);
+            try (WriteBuffer buffer = new WriteBuffer(storage, 3, Duration.ofHours(1))) {
+                buffer.add(first);
+                buffer.add(second);
+                buffer.add(third);
+                buffer.add(last);
+                buffer.add(FileUpdate.replace(fileRecord("Small.java"), symbols("Small", 3)));
+                buffer.flush();
+                assertEquals(List.of(second, third, last), buffer.getFailed());
+            }
+
+            // The first part stays, but without a manifest entry the file is parsed again next time
+            assertEquals(3, storage.getAllSymbols(null).stream()
+                    .filter(symbol -> symbol.getFilePath().equals("Large.java"))
+                    .count());
+            assertFalse(storage.getFileRecords().containsKey("Large.java"));
+            assertTrue(storage.getFileRecords().containsKey("Small.java"));
+        }
+    }
+
+    @Test
+    void testFailedCommitRetriesFilesIndividually() throws Exception {
+        final var storage = mock(SQLiteStorage.class);
+        final var good = FileUpdate.replace(fileRecord("Good.java"), symbols("Good", 3));
+        final var bad = FileUpdate.replace(fileRecord("Bad.java"), symbols("Bad", 3));
+        when(storage.applyUpdates(anyList())).thenAnswer(invocation -> {
+            final List<FileUpdate> updates = invocation.getArgument(0);
+            if (updates.size() > 1 || updates.contains(bad)) {
+                throw new SQLException("Commit failed");
+            }
+            return List.of();
+        });
+
+        final var buffer = new WriteBuffer(storage, 10_000, Duration.ofHours(1));
+        buffer.add(good);
+        buffer.add(bad);
+        buffer.close();
+
+        assertEquals(List.of(bad), buffer.getFailed());
+        verify(storage, times(1)).applyUpdates(argThat(updates -> updates.equals(List.of(good))));
+        verify(storage, times(3)).applyUpdates(anyList());
+    }
+
+    @Test
+    void testInvalidBatchSize() {
+        final var storage = mock(SQLiteStorage.class);
+        assertThrows(IllegalArgumentException.class, () -> new WriteBuffer(storage, 0, Duration.ofSeconds(1)));
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.parser;
+
+import com.github.javaparser.resolution.cache.Cache;
+import com.github.javaparser.resolution.cache.CacheStats;
+import com.github.javaparser.symbolsolver.cache.DefaultCacheStats;
+import io.appform.codeindex.models.CacheStatistics;
+
+import java.util.LinkedHashMap;
+import java.util.Optional;
+
+/**
+ * Cache that evicts its least recently used entries beyond a maximum size, and counts hits, misses and
+ * evictions. A maximum size of 0 means the cache is not bounded. All operations are synchronized.
+ */
+public class BoundedCache<K, V> implements Cache<K, V> {
+    private final String name;
+    private final LinkedHashMap<K, V> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long maxSize;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public BoundedCache(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Changes the maximum number of entries, evicting entries right away if there are more.
+     */
+    public synchronized void setMaxSize(long maxSize) {
+        this.maxSize = Math.max(0, maxSize);
+        trim();
+    }
+
+    @Override
+    public synchronized void put(K key, V value) {
+        entries.put(key, value);
+        trim();
+    }
+
+    @Override
+    public synchronized Optional<V> get(K key) {
+        final var value = entries.get(key);
+        if (value != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return Optional.ofNullable(value);
+    }
+
+    @Override
+    public synchronized void remove(K key) {
+        entries.remove(key);
+    }
+
+    @Override
+    public synchronized void removeAll() {
+        entries.clear();
+    }
+
+    @Override
+    public synchronized boolean contains(K key) {
+        return entries.containsKey(key);
+    }
+
+    @Override
+    public synchronized long size() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    @Override
+    public synchronized CacheStats stats() {
+        return new DefaultCacheStats(hits, misses, 0, 0, 0, evictions);
+    }
+
+    public synchronized CacheStatistics statistics() {
+        return CacheStatistics.builder()
+                .name(name)
+                .size(entries.size())
+                .maxSize(maxSize)
+                .hits(hits)
+                .misses(misses)
+                .evictions(evictions)
+                .build();
+    }
+
+    private void trim() {
+        if (maxSize == 0) {
+            return;
+        }
+        final var iterator = entries.values().iterator();
+        while (entries.size() > maxSize) {
+            iterator.next();
+            iterator.remove();
+            evictions++;
+        }
+    }
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.parser;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.zip.ZipFile;
+
+/**
+ * On-disk index of the classes in classpath jars, shared by every run on the machine.
+ *
+ * <p>Jars are identified by the SHA-256 of their content, so the same jar is scanned once no matter
+ * where it lives. A stamp of each jar's path, size and mtime maps it back to its hash, so unchanged
+ * jars are not even read on later runs. Lookups go to the database, and nothing about a jar is held
+ * in memory until one of its types is needed.
+ */
+@Slf4j
+public class ClasspathTypeIndex implements AutoCloseable {
+    /** System property that overrides the directory of the index. */
+    public static final String CACHE_DIR_PROPERTY = "codeindex.cache.dir";
+    private static final String FILE_NAME = "classpath-types.db";
+    private static final String CLASS_SUFFIX = ".class";
+
+    private final Connection connection;
+    private int jarsScanned;
+    private int jarsReused;
+
+    public ClasspathTypeIndex(Path path) throws SQLException, IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        this.connection = DriverManager.getConnection("jdbc:sqlite:" + path);
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA journal_mode = WAL");
+            stmt.execute("PRAGMA synchronous = NORMAL");
+            stmt.execute("PRAGMA busy_timeout = 10000");
+            stmt.execute("""
+                    CREATE TABLE IF NOT EXISTS jars (
+                        hash TEXT PRIMARY KEY,
+                        classes INTEGER NOT NULL
+                    )
+                    """);
+            stmt.execute("""
+                    CREATE TABLE IF NOT EXISTS jar_stamps (
+                        path TEXT PRIMARY KEY,
+                        size INTEGER NOT NULL,
+                        mtime INTEGER NOT NULL,
+                        hash TEXT NOT NULL
+                    )
+                    """);
+            stmt.execute("""
+                    CREATE TABLE IF NOT EXISTS types (
+                        name TEXT NOT NULL,
+                        jar TEXT NOT NULL,
+                        class_file TEXT NOT NULL,
+                        PRIMARY KEY (name, jar)
+                    ) WITHOUT ROWID
+                    """);
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_types_class_file ON types(class_file)");
+        }
+        catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    /**
+     * {@code classpath-types.db} in the directory named by the {@value #CACHE_DIR_PROPERTY} system
+     * property, or else in {@code codeindex} under {@code $XDG_CACHE_HOME} or {@code ~/.cache}.
+     */
+    public static Path defaultLocation() {
+        final var override = System.getProperty(CACHE_DIR_PROPERTY);
+        if (override != null && !override.isBlank()) {
+            return Path.of(override, FILE_NAME);
+        }
+        final var xdg = System.getenv("XDG_CACHE_HOME");
+        final var base = xdg != null && !xdg.isBlank()
+                ? Path.of(xdg)
+                : Path.of(System.getProperty("user.home"), ".cache");
+        return base.resolve("codeindex").resolve(FILE_NAME);
+    }
+
+    /**
+     * Makes sure the classes of a jar are in the index, scanning the jar only if no jar with the same
+     * content was indexed before.
+     *
+     * @return the content hash that identifies the jar in lookups
+     */
+    public synchronized String add(Path jar) throws IOException, SQLException {
+        final var path = jar.toAbsolutePath().normalize().toString();
+        final var attributes = Files.readAttributes(jar, BasicFileAttributes.class);
+        final var mtime = attributes.lastModifiedTime().toMillis();
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "SELECT s.hash FROM jar_stamps s JOIN jars j ON j.hash = s.hash WHERE s.path = ? AND s.size = ? AND s.mtime = ?")) {
+            pstmt.setString(1, path);
+            pstmt.setLong(2, attributes.size());
+            pstmt.setLong(3, mtime);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    jarsReused++;
+                    return rs.getString(1);
+                }
+            }
+        }
+        final var hash = contentHash(jar);
+        inTransaction(() -> {
+            if (!isIndexed(hash)) {
+                scan(jar, hash);
+                jarsScanned++;
+            } else {
+                jarsReused++;
+            }
+            try (PreparedStatement pstmt = connection.prepareStatement(
+                    "INSERT OR REPLACE INTO jar_stamps (path, size, mtime, hash) VALUES (?, ?, ?, ?)")) {
+                pstmt.setString(1, path);
+                pstmt.setLong(2, attributes.size());
+                pstmt.setLong(3, mtime);
+                pstmt.setString(4, hash);
+                pstmt.executeUpdate();
+            }
+        });
+        return hash;
+    }
+
+    /**
+     * Locations of a type by its canonical name, with nested classes separated by dots.
+     */
+    public synchronized List<Location> findByName(String name) throws SQLException {
+        return find("SELECT jar, class_file FROM types WHERE name = ?", name);
+    }
+
+    /**
+     * Locations of a class file, given as its path inside a jar.
+     */
+    public synchronized List<Location> findByClassFile(String classFile) throws SQLException {
+        return find("SELECT jar, class_file FROM types WHERE class_file = ?", classFile);
+    }
+
+    public synchronized int getJarsScanned() {
+        return jarsScanned;
+    }
+
+    public synchronized int getJarsReused() {
+        return jarsReused;
+    }
+
+    @Override
+    public synchronized void close() throws SQLException {
+        connection.close();
+    }
+
+    private List<Location> find(String sql, String value) throws SQLException {
+        final var locations = new ArrayList<Location>(1);
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setString(1, value);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    locations.add(new Location(rs.getString(1), rs.getString(2)));
+                }
+            }
+        }
+        return locations;
+    }
+
+    private boolean isIndexed(String hash) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement("SELECT 1 FROM jars WHERE hash = ?")) {
+            pstmt.setString(1, hash);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private void scan(Path jar, String hash) throws SQLException {
+        var classes = 0;
+        try (ZipFile zip = new ZipFile(jar.toFile());
+                PreparedStatement pstmt = connection.prepareStatement(
+                        "INSERT OR IGNORE INTO types (name, jar, class_file) VALUES (?, ?, ?)")) {
+            final var entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                final var entry = entries.nextElement();
+                final var classFile = entry.getName();
+                if (entry.isDirectory() || !classFile.endsWith(CLASS_SUFFIX)
+                        || classFile.endsWith("module-info.class") || classFile.startsWith("META-INF/")) {
+                    continue;
+                }
+                // Same naming as JarTypeSolver: packages and nested classes both separated by dots
+                final var name = classFile.substring(0, classFile.length() - CLASS_SUFFIX.length())
+                        .replace('/', '.')
+                        .replace('$', '.');
+                pstmt.setString(1, name);
+                pstmt.setString(2, hash);
+                pstmt.setString(3, classFile);
+                pstmt.addBatch();
+                if (++classes % 1000 == 0) {
+                    pstmt.executeBatch();
+                }
+            }
+            pstmt.executeBatch();
+        }
+        catch (IOException e) {
+            throw new SQLException("Cannot read jar " + jar, e);
+        }
+        try (PreparedStatement pstmt = connection.prepareStatement("INSERT INTO jars (hash, classes) VALUES (?, ?)")) {
+            pstmt.setString(1, hash);
+            pstmt.setInt(2, classes);
+            pstmt.executeUpdate();
+        }
+        log.debug("Indexed {} classes from {}", classes, jar);
+    }
+
+    private void inTransaction(SQLWork work) throws SQLException {
+        connection.setAutoCommit(false);
+        try {
+            work.run();
+            connection.commit();
+        }
+        catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        }
+        finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private static String contentHash(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            final var digest = MessageDigest.getInstance("SHA-256");
+            final var buffer = new byte[65536];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * A class file inside the jar with the given content hash.
+     */
+    @Value
+    public static class Location {
+        String jar;
+        String classFile;
+    }
+
+    @FunctionalInterface
+    private interface SQLWork {
+        void run() throws SQLException;
+    }
+}
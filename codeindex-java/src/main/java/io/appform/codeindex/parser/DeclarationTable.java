@@ -0,0 +1,386 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.parser;
+
+import com.github.javaparser.ast.CompilationUnit;
+import io.appform.codeindex.crawler.ExtensionLookup;
+import io.appform.codeindex.crawler.IgnoreRules;
+import io.appform.codeindex.crawler.SourceTreeVisitor;
+import io.appform.codeindex.models.CacheStatistics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Table of the types declared in the project sources, and of the compilation units parsed from them
+ * during a run.
+ *
+ * <p>The table is filled before any file is parsed, by a lexical scan that only picks up package and
+ * type declarations, so a type can be found in any file no matter where it sits in the tree. Members are
+ * read from the parsed file when the type is first needed. Files parsed for indexing are handed over
+ * once their symbols are extracted, so a file indexed before it is looked up is parsed only once per
+ * run. Parsed files are held through soft references, optionally up to a maximum number of files, and
+ * are parsed again only if they were evicted or memory ran short in between.
+ *
+ * <p>Since lookups go by name, one table serves every source root of a multi-module tree. The roots are
+ * still worked out from the package declarations, for reporting.
+ */
+@Slf4j
+public class DeclarationTable {
+    private static final Set<String> TYPE_KEYWORDS = Set.of("class", "interface", "enum");
+
+    private final Map<String, Path> types = new ConcurrentHashMap<>();
+    private final Map<Path, List<String>> declared = new ConcurrentHashMap<>();
+    private final BoundedCache<Path, SoftReference<CompilationUnit>> units = new BoundedCache<>("parsed sources");
+    private final Map<Path, Object> loadLocks = new ConcurrentHashMap<>();
+    private final AtomicInteger parses = new AtomicInteger();
+    private final AtomicInteger collected = new AtomicInteger();
+
+    /**
+     * Records the types declared in every Java file under a project root, skipping the files its
+     * ignore rules exclude, just as the crawl does. Whatever an earlier scan recorded is dropped.
+     */
+    public void scan(Path root) {
+        clear();
+        final var start = System.nanoTime();
+        final var files = new ArrayList<Path>();
+        final var visitor = new SourceTreeVisitor(root, ExtensionLookup.of(Set.of("java")), IgnoreRules.forProject(root)) {
+            @Override
+            protected FileVisitResult acceptFile(Path file) {
+                files.add(file);
+                return FileVisitResult.CONTINUE;
+            }
+        };
+        try {
+            Files.walkFileTree(root, visitor);
+        }
+        catch (IOException e) {
+            log.error("Failed to scan {} for declarations", root, e);
+        }
+        // Sorted so that the first of several files declaring the same type is always the same one
+        files.sort(null);
+        files.forEach(this::add);
+        final var roots = sourceRoots();
+        log.info("Collected {} type declarations from {} source files under {} source roots in {} ms",
+                types.size(), files.size(), roots.size(), (System.nanoTime() - start) / 1_000_000);
+        log.debug("Source roots: {}", roots);
+    }
+
+    /**
+     * Re-reads the declarations of changed, added or deleted files and drops their parsed contents.
+     */
+    public void update(Collection<Path> files) {
+        for (Path file : files) {
+            final var key = key(file);
+            final var old = declared.remove(key);
+            if (old != null) {
+                old.forEach(name -> types.remove(name, key));
+            }
+            units.remove(key);
+            if (file.toString().endsWith(".java") && Files.isRegularFile(file)) {
+                add(file);
+            }
+        }
+    }
+
+    /**
+     * The file declaring a type, given its canonical name, or {@code null} if no project file does.
+     */
+    public Path find(String typeName) {
+        return types.get(typeName);
+    }
+
+    /**
+     * The parsed contents of a file, parsing it with {@code parser} unless it was parsed before. Threads
+     * asking for the same file at the same time wait for a single parse.
+     */
+    public CompilationUnit compilationUnit(Path file, Function<Path, CompilationUnit> parser) {
+        final var key = key(file);
+        synchronized (loadLock(key)) {
+            final var cached = units.get(key);
+            if (cached.isPresent()) {
+                final var unit = cached.get().get();
+                if (unit != null) {
+                    return unit;
+                }
+                collected.incrementAndGet();
+            }
+            final var parsed = parser.apply(file);
+            parses.incrementAndGet();
+            units.put(key, new SoftReference<>(parsed));
+            return parsed;
+        }
+    }
+
+    /**
+     * Keeps a file parsed elsewhere for later lookups, in place of any copy parsed before. Nothing may
+     * be cached on its nodes, and the caller must not touch it any more.
+     */
+    public void share(Path file, CompilationUnit unit) {
+        final var key = key(file);
+        synchronized (loadLock(key)) {
+            units.put(key, new SoftReference<>(unit));
+        }
+    }
+
+    /**
+     * Drops every declaration and parsed file.
+     */
+    public void clear() {
+        types.clear();
+        declared.clear();
+        units.removeAll();
+    }
+
+    /**
+     * Drops every parsed file. Declarations are kept.
+     */
+    public void clearCompilationUnits() {
+        units.removeAll();
+    }
+
+    /**
+     * Limits the number of parsed files kept, or lifts the limit if it is 0.
+     */
+    public void setCacheLimit(int maxEntries) {
+        units.setMaxSize(maxEntries);
+    }
+
+    /**
+     * Usage of the parsed files. Files whose contents were reclaimed by the garbage collector count as
+     * misses and evictions.
+     */
+    public CacheStatistics cacheStatistics() {
+        final var statistics = units.statistics();
+        final var reclaimed = collected.get();
+        statistics.setHits(statistics.getHits() - reclaimed);
+        statistics.setMisses(statistics.getMisses() + reclaimed);
+        statistics.setEvictions(statistics.getEvictions() + reclaimed);
+        return statistics;
+    }
+
+    /**
+     * Directories at which the package paths of the scanned files start, such as {@code src/main/java}
+     * of each module. Files whose directory does not match their package are left out.
+     */
+    public Set<Path> sourceRoots() {
+        final var roots = new TreeSet<Path>();
+        declared.forEach((file, names) -> {
+            if (!names.isEmpty()) {
+                final var root = sourceRoot(file, names.get(0));
+                if (root != null) {
+                    roots.add(root);
+                }
+            }
+        });
+        return roots;
+    }
+
+    public int size() {
+        return types.size();
+    }
+
+    /**
+     * Number of files parsed through {@link #compilationUnit(Path, Function)}.
+     */
+    public int getParses() {
+        return parses.get();
+    }
+
+    private void add(Path file) {
+        final var key = key(file);
+        try {
+            final var names = declaredTypes(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+            names.forEach(name -> types.putIfAbsent(name, key));
+            declared.put(key, names);
+        }
+        catch (IOException e) {
+            log.debug("Cannot read {} for declarations", file, e);
+        }
+    }
+
+    /**
+     * The directory containing the package of a file, given the canonical name of its first top-level
+     * type, or {@code null} if the file is not in its package directory.
+     */
+    private static Path sourceRoot(Path file, String firstType) {
+        var directory = file.getParent();
+        final var segments = firstType.split("\\.");
+        for (int i = segments.length - 2; i >= 0; i--) {
+            final var name = directory != null ? directory.getFileName() : null;
+            if (name == null || !name.toString().equals(segments[i])) {
+                return null;
+            }
+            directory = directory.getParent();
+        }
+        return directory;
+    }
+
+    /**
+     * Lock held while a file is being loaded. Locks are kept per file for as long as the table lives,
+     * which costs far less than the parsed files themselves.
+     */
+    private Object loadLock(Path key) {
+        return loadLocks.computeIfAbsent(key, k -> new Object());
+    }
+
+    private static Path key(Path file) {
+        return file.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Canonical names of the classes, interfaces, enums, records and annotations declared in a source
+     * file. Comments and literals are skipped; nothing else about the code is checked.
+     */
+    static List<String> declaredTypes(String source) {
+        final var names = new ArrayList<String>();
+        // Canonical names of the types being declared, innermost first, and the depth of their bodies
+        final Deque<String> enclosing = new ArrayDeque<>();
+        final Deque<Integer> depths = new ArrayDeque<>();
+        var packageName = "";
+        var depth = 0;
+        String previous = null;
+        String candidate = null;
+        String pending = null;
+        var expectName = false;
+        var expectRecordName = false;
+        var i = 0;
+        final var length = source.length();
+        while (i < length) {
+            final var c = source.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+            if (c == '/' && i + 1 < length && source.charAt(i + 1) == '/') {
+                i = skipTo(source, i + 2, "\n");
+                continue;
+            }
+            if (c == '/' && i + 1 < length && source.charAt(i + 1) == '*') {
+                i = skipTo(source, i + 2, "*/");
+                continue;
+            }
+            if (c == '"' && source.startsWith("\"\"\"", i)) {
+                i = skipLiteral(source, i + 3, "\"\"\"");
+                previous = "\"";
+                continue;
+            }
+            if (c == '"' || c == '\'') {
+                i = skipLiteral(source, i + 1, String.valueOf(c));
+                previous = "\"";
+                continue;
+            }
+            if (Character.isJavaIdentifierStart(c)) {
+                final var end = identifierEnd(source, i);
+                final var word = source.substring(i, end);
+                i = end;
+                if (expectName) {
+                    pending = word;
+                    expectName = false;
+                } else if (expectRecordName) {
+                    candidate = word;
+                    expectRecordName = false;
+                } else if ("package".equals(word) && depth == 0 && names.isEmpty()) {
+                    final var semicolon = source.indexOf(';', i);
+                    if (semicolon > 0) {
+                        packageName = source.substring(i, semicolon).replaceAll("\\s+|/\\*.*?\\*/", "");
+                        i = semicolon + 1;
+                    }
+                } else if (!".".equals(previous)) {
+                    expectName = TYPE_KEYWORDS.contains(word);
+                    expectRecordName = "record".equals(word);
+                }
+                previous = word;
+                continue;
+            }
+            if (candidate != null) {
+                // A record name is followed by its components or type parameters
+                if (c == '(' || c == '<') {
+                    pending = candidate;
+                }
+                candidate = null;
+            }
+            if (c == '{') {
+                depth++;
+                if (pending != null) {
+                    final var prefix = enclosing.isEmpty() ? packageName : enclosing.peek();
+                    final var name = prefix.isEmpty() ? pending : prefix + "." + pending;
+                    names.add(name);
+                    enclosing.push(name);
+                    depths.push(depth);
+                    pending = null;
+                }
+            } else if (c == '}') {
+                if (!depths.isEmpty() && depths.peek() == depth) {
+                    depths.pop();
+                    enclosing.pop();
+                }
+                depth--;
+            } else if (c == ';') {
+                pending = null;
+            }
+            expectName = false;
+            expectRecordName = false;
+            previous = String.valueOf(c);
+            i++;
+        }
+        return names;
+    }
+
+    private static int identifierEnd(String source, int start) {
+        var i = start + 1;
+        while (i < source.length() && Character.isJavaIdentifierPart(source.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int skipTo(String source, int from, String end) {
+        final var index = source.indexOf(end, from);
+        return index < 0 ? source.length() : index + end.length();
+    }
+
+    private static int skipLiteral(String source, int from, String end) {
+        var i = from;
+        while (i < source.length()) {
+            if (source.charAt(i) == '\\') {
+                i += 2;
+            } else if (source.startsWith(end, i)) {
+                return i + end.length();
+            } else {
+                i++;
+            }
+        }
+        return i;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.parser;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.resolution.TypeSolver;
+import com.github.javaparser.resolution.declarations.ResolvedReferenceTypeDeclaration;
+import com.github.javaparser.resolution.model.SymbolReference;
+import com.github.javaparser.symbolsolver.javaparsermodel.JavaParserFacade;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.file.Path;
+import java.util.function.Function;
+
+/**
+ * Resolves types declared in the project sources through a {@link DeclarationTable}.
+ *
+ * <p>The table names the file that declares a type, and the type is taken from that file's parsed
+ * contents, which indexing hands over once it is done with a file. {@link #reset()} drops the parsed
+ * files so the next lookups see the current sources; the table itself is kept up to date with
+ * {@link DeclarationTable#update}.
+ */
+@Slf4j
+public class DeclarationTypeSolver implements TypeSolver {
+    private final DeclarationTable declarations;
+    private final Function<Path, CompilationUnit> parser;
+    private TypeSolver parent;
+
+    public DeclarationTypeSolver(DeclarationTable declarations, Function<Path, CompilationUnit> parser) {
+        this.declarations = declarations;
+        this.parser = parser;
+    }
+
+    public void reset() {
+        declarations.clearCompilationUnits();
+    }
+
+    @Override
+    public TypeSolver getParent() {
+        return parent;
+    }
+
+    @Override
+    public void setParent(TypeSolver parent) {
+        if (this.parent != null) {
+            throw new IllegalStateException("This type solver already has a parent");
+        }
+        this.parent = parent;
+    }
+
+    @Override
+    public SymbolReference<ResolvedReferenceTypeDeclaration> tryToSolveType(String name) {
+        final var file = declarations.find(name);
+        if (file == null) {
+            return SymbolReference.unsolved();
+        }
+        final CompilationUnit unit;
+        try {
+            unit = declarations.compilationUnit(file, parser);
+        }
+        catch (Exception e) {
+            log.debug("Cannot parse {} to resolve {}", file, name, e);
+            return SymbolReference.unsolved();
+        }
+        for (TypeDeclaration<?> type : unit.findAll(TypeDeclaration.class)) {
+            if (type.getFullyQualifiedName().map(name::equals).orElse(false)) {
+                return SymbolReference.solved(JavaParserFacade.get(getRoot()).getTypeDeclaration(type));
+            }
+        }
+        return SymbolReference.unsolved();
+    }
+}
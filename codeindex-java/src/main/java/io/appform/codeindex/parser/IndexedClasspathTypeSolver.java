@@ -0,0 +1,224 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.parser;
+
+import com.github.javaparser.resolution.TypeSolver;
+import com.github.javaparser.resolution.declarations.ResolvedReferenceTypeDeclaration;
+import com.github.javaparser.resolution.model.SymbolReference;
+import com.github.javaparser.symbolsolver.javassistmodel.JavassistFactory;
+import io.appform.codeindex.models.CacheStatistics;
+import javassist.ClassPath;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.NotFoundException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipFile;
+
+/**
+ * Type solver for all classpath jars at once, backed by a {@link ClasspathTypeIndex}.
+ *
+ * <p>Unlike {@code JarTypeSolver}, which lists every entry of its jar up front, this solver asks the
+ * index which jar holds a type and opens that jar only when one of its classes is first needed. When
+ * several jars contain the same class, the one that comes first on the classpath wins.
+ */
+@Slf4j
+public class IndexedClasspathTypeSolver implements TypeSolver, AutoCloseable {
+    private static final String CLASS_SUFFIX = ".class";
+
+    private final ClasspathTypeIndex index;
+    private final Map<String, Path> jars = new ConcurrentHashMap<>();
+    private final Map<String, Integer> order = new ConcurrentHashMap<>();
+    private final Map<String, ZipFile> openJars = new ConcurrentHashMap<>();
+    private final BoundedCache<String, CtClass> loadedClasses = new BoundedCache<>("classpath classes");
+    private final ClassPool classPool = new CachingClassPool();
+    private TypeSolver parent;
+
+    public IndexedClasspathTypeSolver(ClasspathTypeIndex index) {
+        this.index = index;
+        classPool.appendClassPath(new IndexedClassPath());
+    }
+
+    /**
+     * Adds a jar after the ones added so far, indexing its classes if they are not indexed yet.
+     */
+    public synchronized void add(Path jar) throws IOException, SQLException {
+        final var hash = index.add(jar);
+        if (jars.putIfAbsent(hash, jar) == null) {
+            order.put(hash, order.size());
+        }
+    }
+
+    /**
+     * Limits the number of loaded classes kept, or lifts the limit if it is 0. Evicted classes are
+     * read from their jar again when needed.
+     */
+    public void setCacheLimit(int maxEntries) {
+        loadedClasses.setMaxSize(maxEntries);
+    }
+
+    public CacheStatistics cacheStatistics() {
+        return loadedClasses.statistics();
+    }
+
+    @Override
+    public TypeSolver getParent() {
+        return parent;
+    }
+
+    @Override
+    public void setParent(TypeSolver parent) {
+        if (parent == this) {
+            throw new IllegalStateException("The parent of this TypeSolver cannot be itself.");
+        }
+        this.parent = parent;
+    }
+
+    @Override
+    public synchronized SymbolReference<ResolvedReferenceTypeDeclaration> tryToSolveType(String name) {
+        try {
+            final var location = first(index.findByName(name));
+            if (location == null) {
+                return SymbolReference.unsolved();
+            }
+            final var classFile = location.getClassFile();
+            final var poolName = classFile.substring(0, classFile.length() - CLASS_SUFFIX.length()).replace('/', '.');
+            return SymbolReference.solved(JavassistFactory.toTypeDeclaration(classPool.get(poolName), getRoot()));
+        }
+        catch (SQLException e) {
+            log.error("Failed to look up type {} in the classpath index", name, e);
+        }
+        catch (NotFoundException e) {
+            log.debug("Type {} is indexed but could not be loaded", name, e);
+        }
+        return SymbolReference.unsolved();
+    }
+
+    @Override
+    public void close() {
+        openJars.values().forEach(zip -> {
+            try {
+                zip.close();
+            }
+            catch (IOException e) {
+                log.warn("Failed to close jar {}", zip.getName(), e);
+            }
+        });
+        openJars.clear();
+    }
+
+    private ClasspathTypeIndex.Location first(List<ClasspathTypeIndex.Location> locations) {
+        ClasspathTypeIndex.Location first = null;
+        var firstOrder = Integer.MAX_VALUE;
+        for (ClasspathTypeIndex.Location location : locations) {
+            final var position = order.get(location.getJar());
+            if (position != null && position < firstOrder) {
+                first = location;
+                firstOrder = position;
+            }
+        }
+        return first;
+    }
+
+    private ClasspathTypeIndex.Location locate(String poolName) {
+        try {
+            return first(index.findByClassFile(poolName.replace('.', '/') + CLASS_SUFFIX));
+        }
+        catch (SQLException e) {
+            log.error("Failed to look up class {} in the classpath index", poolName, e);
+            return null;
+        }
+    }
+
+    private ZipFile open(String hash) {
+        return openJars.computeIfAbsent(hash, key -> {
+            try {
+                return new ZipFile(jars.get(key).toFile());
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Class pool that keeps loaded classes in a {@link BoundedCache} instead of an unbounded table.
+     */
+    private final class CachingClassPool extends ClassPool {
+        @Override
+        protected CtClass getCached(String classname) {
+            // Primitive types are put in the pool's own table when it is created
+            return loadedClasses.get(classname).orElseGet(() -> super.getCached(classname));
+        }
+
+        @Override
+        protected void cacheCtClass(String classname, CtClass c, boolean dynamic) {
+            loadedClasses.put(classname, c);
+        }
+
+        @Override
+        protected CtClass removeCached(String classname) {
+            loadedClasses.remove(classname);
+            return super.removeCached(classname);
+        }
+    }
+
+    /**
+     * Serves class files to javassist from whichever jar the index names.
+     */
+    private final class IndexedClassPath implements ClassPath {
+        @Override
+        public InputStream openClassfile(String classname) throws NotFoundException {
+            final var location = locate(classname);
+            if (location == null) {
+                return null;
+            }
+            try {
+                final var zip = open(location.getJar());
+                final var entry = zip.getEntry(location.getClassFile());
+                return entry != null ? zip.getInputStream(entry) : null;
+            }
+            catch (IOException | UncheckedIOException e) {
+                throw new NotFoundException("Cannot read " + classname + " from " + jars.get(location.getJar()), e);
+            }
+        }
+
+        @Override
+        public URL find(String classname) {
+            final var location = locate(classname);
+            if (location == null) {
+                return null;
+            }
+            try {
+                return new URL("jar:" + jars.get(location.getJar()).toUri() + "!/" + location.getClassFile());
+            }
+            catch (MalformedURLException e) {
+                return null;
+            }
+        }
+    }
+}
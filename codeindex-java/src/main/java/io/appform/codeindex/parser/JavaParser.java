@@ -16,60 +16,199 @@
 
 package io.appform.codeindex.parser;
 
+import com.github.javaparser.ParseProblemException;
+import com.github.javaparser.ParseResult;
 import com.github.javaparser.ParserConfiguration;
-import com.github.javaparser.StaticJavaParser;
-import com.github.javaparser.ast.body.CallableDeclaration;
-import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
-import com.github.javaparser.ast.body.FieldDeclaration;
-import com.github.javaparser.ast.body.MethodDeclaration;
-import com.github.javaparser.ast.body.VariableDeclarator;
-import com.github.javaparser.ast.expr.MethodCallExpr;
-import com.github.javaparser.ast.expr.NameExpr;
-import com.github.javaparser.resolution.declarations.ResolvedMethodDeclaration;
-import com.github.javaparser.resolution.declarations.ResolvedValueDeclaration;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.resolution.TypeSolver;
 import com.github.javaparser.symbolsolver.JavaSymbolSolver;
-import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
 import com.github.javaparser.symbolsolver.resolution.typesolvers.JarTypeSolver;
-import com.github.javaparser.symbolsolver.resolution.typesolvers.JavaParserTypeSolver;
 import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
+import io.appform.codeindex.models.CacheStatistics;
+import io.appform.codeindex.models.ResolutionMode;
+import io.appform.codeindex.models.ResolutionStatistics;
 import io.appform.codeindex.models.Symbol;
 import io.appform.codeindex.models.SymbolKind;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 @Slf4j
 @io.appform.codeindex.parser.annotation.DiscoverableParser
 public class JavaParser implements Parser {
 
-    private CombinedTypeSolver typeSolver;
+    /** Bump whenever a change to symbol extraction changes the symbols produced for a file. */
+    private static final String CACHE_VERSION = "java/1";
+
+    private final SharedTypeSolver typeSolver;
+    private final DeclarationTable declarations = new DeclarationTable();
+    private final ResolutionCounters resolutionCounters = new ResolutionCounters();
+    private final Set<String> classpathEntries = new LinkedHashSet<>();
+    private final ThreadLocal<com.github.javaparser.JavaParser> parsers;
+    private volatile ResolutionMode resolution = ResolutionMode.FULL;
+    private Path typeIndexPath = ClasspathTypeIndex.defaultLocation();
+    private int cacheLimit;
+    private ClasspathTypeIndex classpathIndex;
+    private IndexedClasspathTypeSolver classpathSolver;
 
     public JavaParser() {
-        this.typeSolver = new CombinedTypeSolver();
-        typeSolver.add(new ReflectionTypeSolver());
-        final var symbolSolver = new JavaSymbolSolver(typeSolver);
-        StaticJavaParser.getParserConfiguration().setSymbolResolver(symbolSolver);
+        this.typeSolver = new SharedTypeSolver(new ReflectionTypeSolver());
+        // Each thread gets its own parser and configuration; only the type solver chain is shared
+        this.parsers = ThreadLocal.withInitial(() -> new com.github.javaparser.JavaParser(new ParserConfiguration()
+                .setSymbolResolver(new JavaSymbolSolver(typeSolver))));
+    }
+
+    @Override
+    public void setResolutionMode(ResolutionMode mode) {
+        this.resolution = mode;
     }
 
+    /**
+     * Bounds the resolved types, the parsed project files and, with the type index, the classes loaded
+     * from jars, each to {@code maxEntries} entries.
+     */
     @Override
-    public void setup(Path sourceRoot, List<Path> classpath) {
+    public void setCacheLimit(int maxEntries) {
+        this.cacheLimit = maxEntries;
+        typeSolver.setCacheLimit(maxEntries);
+        declarations.setCacheLimit(maxEntries);
+    }
+
+    @Override
+    public List<CacheStatistics> cacheStatistics() {
+        if (resolution == ResolutionMode.NONE) {
+            return List.of();
+        }
+        final var statistics = new ArrayList<CacheStatistics>();
+        statistics.add(typeSolver.cacheStatistics());
+        statistics.add(declarations.cacheStatistics());
+        if (classpathSolver != null) {
+            statistics.add(classpathSolver.cacheStatistics());
+        }
+        return statistics;
+    }
+
+    @Override
+    public ResolutionStatistics resolutionStatistics() {
+        return resolutionCounters.statistics();
+    }
+
+    /**
+     * Sets where the classpath type index is kept, or {@code null} to load every jar with a
+     * {@code JarTypeSolver} instead. Defaults to {@link ClasspathTypeIndex#defaultLocation()}.
+     */
+    public void setTypeIndexPath(Path typeIndexPath) {
+        this.typeIndexPath = typeIndexPath;
+    }
+
+    /**
+     * Registers the source root and classpath jars with the type solver, in place of those of an earlier
+     * call, which are closed. The types declared under the source root are collected first, so that
+     * they can be found without parsing files. Without resolution none of them would be consulted, so
+     * they are not loaded at all.
+     */
+    @Override
+    public synchronized void setup(Path sourceRoot, List<Path> classpath) {
+        close();
+        if (resolution == ResolutionMode.NONE) {
+            return;
+        }
+        final var solvers = new ArrayList<TypeSolver>();
         if (sourceRoot != null) {
-            typeSolver.add(new JavaParserTypeSolver(sourceRoot));
+            declarations.scan(sourceRoot);
+            solvers.add(new DeclarationTypeSolver(declarations, this::parseFile));
         }
-        if (classpath != null) {
+        if (classpath != null && !classpath.isEmpty()) {
+            final var indexed = indexedSolver(classpath);
+            if (indexed != null) {
+                indexed.setCacheLimit(cacheLimit);
+                solvers.add(indexed);
+                classpathSolver = indexed;
+            }
             for (Path path : classpath) {
                 try {
-                    typeSolver.add(new JarTypeSolver(path));
+                    if (indexed == null) {
+                        solvers.add(new JarTypeSolver(path));
+                    }
+                    classpathEntries.add(path.getFileName() + ":" + Files.size(path));
                 }
                 catch (IOException e) {
                     log.error("Failed to load jar for type resolution: {}", path, e);
                 }
             }
         }
+        typeSolver.replace(solvers);
+    }
+
+    /**
+     * Drops the source and classpath solvers and closes the jars and type index they hold open.
+     */
+    @Override
+    public synchronized void close() {
+        typeSolver.replace(List.of());
+        declarations.clear();
+        classpathEntries.clear();
+        if (classpathSolver != null) {
+            classpathSolver.close();
+            classpathSolver = null;
+        }
+        if (classpathIndex != null) {
+            try {
+                classpathIndex.close();
+            }
+            catch (SQLException e) {
+                log.warn("Failed to close classpath type index {}", typeIndexPath, e);
+            }
+            classpathIndex = null;
+        }
+    }
+
+    /**
+     * One solver for the whole classpath, backed by the on-disk type index, so that jars seen before
+     * are not scanned again. Returns {@code null} if there is no index to use.
+     */
+    private IndexedClasspathTypeSolver indexedSolver(List<Path> classpath) {
+        if (typeIndexPath == null) {
+            return null;
+        }
+        final ClasspathTypeIndex index;
+        try {
+            index = new ClasspathTypeIndex(typeIndexPath);
+        }
+        catch (SQLException | IOException e) {
+            log.warn("Cannot open classpath type index {}, scanning jars instead", typeIndexPath, e);
+            return null;
+        }
+        classpathIndex = index;
+        final var start = System.nanoTime();
+        final var solver = new IndexedClasspathTypeSolver(index);
+        for (Path path : classpath) {
+            try {
+                solver.add(path);
+            }
+            catch (IOException | SQLException e) {
+                log.error("Failed to load jar for type resolution: {}", path, e);
+            }
+        }
+        log.info("Loaded {} classpath jars in {} ms ({} from the type index, {} scanned)",
+                classpath.size(), (System.nanoTime() - start) / 1_000_000,
+                index.getJarsReused(), index.getJarsScanned());
+        return solver;
     }
 
     @Override
@@ -77,138 +216,133 @@ public class JavaParser implements Parser {
         return Set.of("java");
     }
 
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    /**
+     * Resolved references depend on the classpath, so jars are part of the key. They are identified by
+     * name and size rather than location so that checkouts in different directories share entries.
+     * Declarations from other project sources are assumed to resolve the same way when a file's own
+     * content is unchanged. Modes other than full resolution produce different symbols and get keys of
+     * their own.
+     */
+    @Override
+    public String cacheKey() {
+        final var mode = resolution;
+        if (mode != ResolutionMode.FULL) {
+            // Unresolved references do not depend on the classpath
+            return CACHE_VERSION + "+" + mode.name().toLowerCase();
+        }
+        if (classpathEntries.isEmpty()) {
+            return CACHE_VERSION;
+        }
+        try {
+            final var digest = MessageDigest.getInstance("SHA-256")
+                    .digest(String.join(",", classpathEntries).getBytes(StandardCharsets.UTF_8));
+            return CACHE_VERSION + ":" + HexFormat.of().formatHex(digest);
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    @Override
+    public void filesChanged(Collection<Path> files) {
+        final var sources = files.stream()
+                .filter(file -> file.toString().endsWith(".java") || !Files.isRegularFile(file))
+                .collect(Collectors.toList());
+        if (!sources.isEmpty()) {
+            declarations.update(sources);
+            typeSolver.refreshSources();
+        }
+    }
+
     @Override
     public List<Symbol> parse(Path path, Path sourceRoot) {
         final var symbols = new ArrayList<Symbol>();
-        try {
-            final var cu = StaticJavaParser.parse(path);
-            final var packageName = cu.getPackageDeclaration()
-                    .map(pd -> pd.getName().asString())
-                    .orElse(null);
-            final var filePath = sourceRoot != null
-                    ? sourceRoot.relativize(path).toString()
-                    : path.toString();
-
-            // Classes/Interfaces
-            cu.findAll(ClassOrInterfaceDeclaration.class).forEach(cid -> {
-                final var className = cid.getNameAsString();
-                symbols.add(Symbol.builder()
-                        .name(className)
-                        .className(className)
-                        .packageName(packageName)
-                        .kind(SymbolKind.CLASS)
-                        .filePath(filePath)
-                        .line(cid.getBegin().map(p -> p.line).orElse(-1))
-                        .signature(cid.getNameAsString())
-                        .build());
-            });
-
-            // Methods
-            cu.findAll(MethodDeclaration.class).forEach(md -> {
-                final var className = md.findAncestor(ClassOrInterfaceDeclaration.class)
-                        .map(ClassOrInterfaceDeclaration::getNameAsString)
-                        .orElse(null);
-                symbols.add(Symbol.builder()
-                        .name(md.getNameAsString())
-                        .className(className)
-                        .packageName(packageName)
-                        .kind(SymbolKind.METHOD)
-                        .filePath(filePath)
-                        .line(md.getBegin().map(p -> p.line).orElse(-1))
-                        .signature(md.getSignature().asString())
-                        .build());
-            });
-
-            // Fields
-            cu.findAll(FieldDeclaration.class).forEach(fd -> {
-                final var className = fd.findAncestor(ClassOrInterfaceDeclaration.class)
-                        .map(ClassOrInterfaceDeclaration::getNameAsString)
-                        .orElse(null);
-                fd.getVariables().forEach(v -> {
-                    symbols.add(Symbol.builder()
-                            .name(v.getNameAsString())
-                            .className(className)
-                            .packageName(packageName)
-                            .kind(SymbolKind.FIELD)
-                            .filePath(filePath)
-                            .line(v.getBegin().map(p -> p.line).orElse(-1))
-                            .signature(v.getTypeAsString() + " " + v.getNameAsString())
-                            .build());
-                });
-            });
-
-            // Local Variables
-            cu.findAll(VariableDeclarator.class).forEach(vd -> {
-                // Filter out fields (they are handled above)
-                if (vd.getParentNode().map(p -> p instanceof FieldDeclaration).orElse(false)) {
-                    return;
-                }
-                final var className = vd.findAncestor(ClassOrInterfaceDeclaration.class)
-                        .map(ClassOrInterfaceDeclaration::getNameAsString)
-                        .orElse(null);
-                symbols.add(Symbol.builder()
-                        .name(vd.getNameAsString())
-                        .className(className)
-                        .packageName(packageName)
-                        .kind(SymbolKind.VARIABLE)
-                        .filePath(filePath)
-                        .line(vd.getBegin().map(p -> p.line).orElse(-1))
-                        .signature(vd.getTypeAsString() + " " + vd.getNameAsString())
-                        .build());
-            });
-
-            // Method Calls (References)
-            cu.findAll(MethodCallExpr.class).forEach(mce -> {
-                final var className = mce.findAncestor(ClassOrInterfaceDeclaration.class)
-                        .map(ClassOrInterfaceDeclaration::getNameAsString)
-                        .orElse(null);
-                try {
-                    final ResolvedMethodDeclaration resolved = mce.resolve();
-                    symbols.add(Symbol.builder()
-                            .name(mce.getNameAsString())
-                            .className(className)
-                            .packageName(packageName)
-                            .kind(SymbolKind.REFERENCE)
-                            .filePath(filePath)
-                            .line(mce.getBegin().map(p -> p.line).orElse(-1))
-                            .signature(mce.toString())
-                            .referenceTo(resolved.getQualifiedName())
-                            .build());
-                }
-                catch (Exception e) {
-                    log.debug("Could not resolve method call: {}", mce.getNameAsString());
-                }
-            });
+        parse(path, sourceRoot, symbols::add);
+        return symbols;
+    }
 
-            // Name Expressions (Variable References)
-            cu.findAll(NameExpr.class).forEach(ne -> {
-                final var className = ne.findAncestor(ClassOrInterfaceDeclaration.class)
-                        .map(ClassOrInterfaceDeclaration::getNameAsString)
-                        .orElse(null);
-                try {
-                    final ResolvedValueDeclaration resolved = ne.resolve();
-                    if (resolved.isVariable() || resolved.isField() || resolved.isEnumConstant()) {
-                        symbols.add(Symbol.builder()
-                                .name(ne.getNameAsString())
-                                .className(className)
-                                .packageName(packageName)
-                                .kind(SymbolKind.REFERENCE)
-                                .filePath(filePath)
-                                .line(ne.getBegin().map(p -> p.line).orElse(-1))
-                                .signature(ne.getNameAsString())
-                                .referenceTo(resolved.getName())
-                                .build());
-                    }
-                }
-                catch (Exception e) {
-                    log.debug("Could not resolve name expression: {}", ne.getNameAsString());
-                }
-            });
+    @Override
+    public void parse(Path path, Path sourceRoot, SymbolSink sink) {
+        parse(path, sourceRoot, resolution, sink);
+    }
 
+    /**
+     * Failures are left to the caller, which may already have been handed some of the symbols of the
+     * file and has to discard them.
+     *
+     * <p>Resolving a file caches types on its nodes, so every file is extracted from a tree of its own
+     * that no other thread can see. Once it is done, the tree is handed to the declaration table for
+     * later type lookups; a file that was looked up before it was reached is parsed a second time.
+     */
+    private void parse(Path path, Path sourceRoot, ResolutionMode mode, SymbolSink sink) {
+        final var unit = parseFile(path);
+        final var filePath = sourceRoot != null
+                ? sourceRoot.relativize(path).toString()
+                : path.toString();
+        JavaSymbolExtractor.extract(unit, filePath, mode, resolutionCounters, sink);
+        if (mode == ResolutionMode.NONE) {
+            return;
         }
-        catch (Exception e) {
-            log.error("Failed to parse file: {}", path, e);
+        if (mode == ResolutionMode.FULL) {
+            releaseResolvedTypes(unit);
         }
-        return symbols;
+        declarations.share(path, unit);
+    }
+
+    /**
+     * Drops the types the symbol solver cached on the nodes of a file while resolving it. They point to
+     * declarations in other files and would keep those files' trees reachable for as long as this one
+     * stays cached for type lookups, including older copies of files that were evicted and parsed
+     * again. The resolver itself is attached to the compilation unit and stays. The tree must not be
+     * shared yet, since other threads may cache types on it once it is.
+     */
+    private static void releaseResolvedTypes(CompilationUnit unit) {
+        for (Node child : unit.getChildNodes()) {
+            child.walk(node -> List.copyOf(node.getDataKeys()).forEach(node::removeData));
+        }
+    }
+
+    private CompilationUnit parseFile(Path path) {
+        final ParseResult<CompilationUnit> result;
+        try {
+            result = parsers.get().parse(path);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (!result.isSuccessful()) {
+            throw new ParseProblemException(result.getProblems());
+        }
+        return result.getResult().orElseThrow();
+    }
+
+    /**
+     * The declarations collected by {@link #setup(Path, List)}.
+     */
+    DeclarationTable declarations() {
+        return declarations;
+    }
+
+    /**
+     * The type solver chain shared by the parsers of every thread.
+     */
+    SharedTypeSolver typeSolver() {
+        return typeSolver;
+    }
+
+    @Override
+    public List<Symbol> resolveReferences(Path path, Path sourceRoot) {
+        final var references = new ArrayList<Symbol>();
+        parse(path, sourceRoot, ResolutionMode.FULL, symbol -> {
+            if (symbol.getKind() == SymbolKind.REFERENCE) {
+                references.add(symbol);
+            }
+        });
+        return references;
     }
 }
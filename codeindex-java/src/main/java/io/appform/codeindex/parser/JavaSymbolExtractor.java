@@ -0,0 +1,202 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.parser;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.FieldDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.VariableDeclarator;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.expr.NameExpr;
+import com.github.javaparser.resolution.declarations.ResolvedMethodDeclaration;
+import com.github.javaparser.resolution.declarations.ResolvedValueDeclaration;
+import io.appform.codeindex.models.ResolutionMode;
+import io.appform.codeindex.models.Symbol;
+import io.appform.codeindex.models.SymbolKind;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Extracts declarations and resolved references from a parsed compilation unit in a single pre-order
+ * walk of the AST.
+ *
+ * <p>The name of the innermost enclosing class or interface is passed down the walk, so no node has to
+ * look up its ancestors. Symbols are produced in source order and handed to a {@link SymbolSink} as
+ * soon as they are found.
+ *
+ * <p>How references are handled depends on the {@link ResolutionMode}: they are skipped, stored with
+ * an empty target for a later pass, or resolved on the spot, keeping only those that resolve. Once the
+ * {@link ResolutionBudget} of the thread runs out, the remaining references are skipped and only
+ * declarations are extracted.
+ */
+@Slf4j
+public final class JavaSymbolExtractor {
+    private final String packageName;
+    private final String filePath;
+    private final ResolutionMode mode;
+    private final ResolutionCounters counters;
+    private final SymbolSink sink;
+    private boolean abandoned;
+
+    private JavaSymbolExtractor(String packageName, String filePath, ResolutionMode mode,
+                                ResolutionCounters counters, SymbolSink sink) {
+        this.packageName = packageName;
+        this.filePath = filePath;
+        this.mode = mode;
+        this.counters = counters;
+        this.sink = sink;
+    }
+
+    /**
+     * Extracts the symbols of a compilation unit, resolving references through the symbol resolver
+     * the unit was parsed with.
+     */
+    public static List<Symbol> extract(CompilationUnit cu, String filePath) {
+        return extract(cu, filePath, ResolutionMode.FULL);
+    }
+
+    /**
+     * Extracts the symbols of a compilation unit, handling references as {@code mode} asks.
+     */
+    public static List<Symbol> extract(CompilationUnit cu, String filePath, ResolutionMode mode) {
+        final var symbols = new ArrayList<Symbol>();
+        extract(cu, filePath, mode, new ResolutionCounters(), symbols::add);
+        return symbols;
+    }
+
+    /**
+     * Hands the symbols of a compilation unit to {@code sink}, adding each attempt to resolve a
+     * reference to {@code counters}.
+     */
+    static void extract(CompilationUnit cu,
+                        String filePath,
+                        ResolutionMode mode,
+                        ResolutionCounters counters,
+                        SymbolSink sink) {
+        final var packageName = cu.getPackageDeclaration()
+                .map(pd -> pd.getName().asString())
+                .orElse(null);
+        new JavaSymbolExtractor(packageName, filePath, mode, counters, sink).visit(cu, null);
+    }
+
+    private void visit(Node node, String className) {
+        var enclosing = className;
+        if (node instanceof ClassOrInterfaceDeclaration cid) {
+            enclosing = cid.getNameAsString();
+            add(node, enclosing, enclosing, SymbolKind.CLASS, enclosing, null);
+        } else if (node instanceof MethodDeclaration md) {
+            add(md, md.getNameAsString(), enclosing, SymbolKind.METHOD, md.getSignature().asString(), null);
+        } else if (node instanceof FieldDeclaration fd) {
+            for (VariableDeclarator v : fd.getVariables()) {
+                add(v, v.getNameAsString(), enclosing, SymbolKind.FIELD,
+                        v.getTypeAsString() + " " + v.getNameAsString(), null);
+            }
+        } else if (node instanceof VariableDeclarator vd) {
+            // Fields were added with their declaration
+            if (!vd.getParentNode().map(p -> p instanceof FieldDeclaration).orElse(false)) {
+                add(vd, vd.getNameAsString(), enclosing, SymbolKind.VARIABLE,
+                        vd.getTypeAsString() + " " + vd.getNameAsString(), null);
+            }
+        } else if (node instanceof MethodCallExpr mce) {
+            methodCall(mce, enclosing);
+        } else if (node instanceof NameExpr ne) {
+            nameExpression(ne, enclosing);
+        }
+        for (Node child : node.getChildNodes()) {
+            visit(child, enclosing);
+        }
+    }
+
+    private void methodCall(MethodCallExpr mce, String className) {
+        if (mode != ResolutionMode.FULL) {
+            if (mode == ResolutionMode.LAZY) {
+                add(mce, mce.getNameAsString(), className, SymbolKind.REFERENCE, mce.toString(), null);
+            }
+            return;
+        }
+        if (outOfBudget()) {
+            return;
+        }
+        final var start = System.nanoTime();
+        try {
+            final ResolvedMethodDeclaration resolved = mce.resolve();
+            counters.resolved(System.nanoTime() - start);
+            add(mce, mce.getNameAsString(), className, SymbolKind.REFERENCE, mce.toString(),
+                    resolved.getQualifiedName());
+        }
+        catch (Exception e) {
+            counters.failed(System.nanoTime() - start);
+            if (!outOfBudget()) {
+                log.debug("Could not resolve method call: {}", mce.getNameAsString());
+            }
+        }
+    }
+
+    private void nameExpression(NameExpr ne, String className) {
+        if (mode != ResolutionMode.FULL) {
+            // Whether the name is a variable at all is only known once it is resolved
+            if (mode == ResolutionMode.LAZY) {
+                add(ne, ne.getNameAsString(), className, SymbolKind.REFERENCE, ne.getNameAsString(), null);
+            }
+            return;
+        }
+        if (outOfBudget()) {
+            return;
+        }
+        final var start = System.nanoTime();
+        try {
+            final ResolvedValueDeclaration resolved = ne.resolve();
+            counters.resolved(System.nanoTime() - start);
+            if (resolved.isVariable() || resolved.isField() || resolved.isEnumConstant()) {
+                add(ne, ne.getNameAsString(), className, SymbolKind.REFERENCE, ne.getNameAsString(),
+                        resolved.getName());
+            }
+        }
+        catch (Exception e) {
+            counters.failed(System.nanoTime() - start);
+            if (!outOfBudget()) {
+                log.debug("Could not resolve name expression: {}", ne.getNameAsString());
+            }
+        }
+    }
+
+    private boolean outOfBudget() {
+        if (!abandoned && ResolutionBudget.isExhausted()) {
+            log.debug("Resolution budget exhausted in {}, skipping the remaining references", filePath);
+            abandoned = true;
+        }
+        return abandoned;
+    }
+
+    private void add(Node node, String name, String className, SymbolKind kind, String signature,
+                     String referenceTo) {
+        sink.accept(Symbol.builder()
+                .name(name)
+                .className(className)
+                .packageName(packageName)
+                .kind(kind)
+                .filePath(filePath)
+                .line(node.getBegin().map(p -> p.line).orElse(-1))
+                .signature(signature)
+                .referenceTo(referenceTo)
+                .build());
+    }
+}
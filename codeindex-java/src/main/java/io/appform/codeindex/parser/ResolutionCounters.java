@@ -0,0 +1,53 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.parser;
+
+import io.appform.codeindex.models.ResolutionStatistics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts reference resolution attempts and their cost across the threads of a parser.
+ */
+class ResolutionCounters {
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+    private final LongAdder failedNanos = new LongAdder();
+
+    void resolved(long elapsedNanos) {
+        attempts.increment();
+        nanos.add(elapsedNanos);
+    }
+
+    void failed(long elapsedNanos) {
+        attempts.increment();
+        failures.increment();
+        nanos.add(elapsedNanos);
+        failedNanos.add(elapsedNanos);
+    }
+
+    ResolutionStatistics statistics() {
+        return ResolutionStatistics.builder()
+                .attempts(attempts.sum())
+                .failures(failures.sum())
+                .resolutionMillis(TimeUnit.NANOSECONDS.toMillis(nanos.sum()))
+                .failedMillis(TimeUnit.NANOSECONDS.toMillis(failedNanos.sum()))
+                .build();
+    }
+}
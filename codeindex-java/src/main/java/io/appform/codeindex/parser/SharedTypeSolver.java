@@ -0,0 +1,153 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.parser;
+
+import com.github.javaparser.resolution.TypeSolver;
+import com.github.javaparser.resolution.declarations.ResolvedReferenceTypeDeclaration;
+import com.github.javaparser.resolution.model.SymbolReference;
+import io.appform.codeindex.models.CacheStatistics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Type solver chain that can be shared by parsers running on several threads.
+ *
+ * <p>The stock solvers keep unsynchronized caches, so what is serialized here is the chain itself:
+ * every lookup by name through {@link #tryToSolveType(String)}, adding and replacing solvers and
+ * {@link #refreshSources()}. This solver is installed as the root of the chain, which means
+ * declarations handed out by the inner solvers also look up their supertypes and the types of their
+ * members through it, under the same lock.
+ *
+ * <p>The declarations a lookup returns are used by the calling thread without that lock. This is safe
+ * because of what they read, not because of anything done here:
+ * <ul>
+ *     <li>Declarations from project sources read parsed trees that no thread changes any more. Indexing
+ *     caches resolved types on the nodes of the file it is working on, which is why it works on a tree
+ *     of its own and hands it to the {@link DeclarationTable} only once it is done with it.</li>
+ *     <li>Declarations from jars read javassist classes, which load their class file and member tables
+ *     under a lock of their own.</li>
+ * </ul>
+ * Anything else that caches state on a declaration or a shared tree is not covered.
+ *
+ * <p>Every lookup also checks the {@link ResolutionBudget} of the calling thread, so resolving a
+ * single expression that needs many lookups is abandoned once the budget runs out.
+ */
+public class SharedTypeSolver implements TypeSolver {
+    private final BoundedCache<String, SymbolReference<ResolvedReferenceTypeDeclaration>> resolved =
+            new BoundedCache<>("resolved types");
+    // Asked in turn like a CombinedTypeSolver would, which cannot drop solvers, and cannot be rebuilt
+    // around the kept ones because a solver takes a parent only once
+    private final List<TypeSolver> solvers = new ArrayList<>();
+    private final List<DeclarationTypeSolver> sourceSolvers = new ArrayList<>();
+    private final int baseSolvers;
+
+    /**
+     * Creates a chain of {@code solvers}, which stay in it when the other solvers are replaced.
+     */
+    public SharedTypeSolver(TypeSolver... solvers) {
+        for (TypeSolver solver : solvers) {
+            add(solver);
+        }
+        this.baseSolvers = solvers.length;
+    }
+
+    public synchronized void add(TypeSolver solver) {
+        solver.setParent(this);
+        solvers.add(solver);
+        resolved.removeAll();
+        if (solver instanceof DeclarationTypeSolver sourceSolver) {
+            sourceSolvers.add(sourceSolver);
+        }
+    }
+
+    /**
+     * Replaces every solver added after construction with {@code added}, and forgets every type
+     * resolved so far. Closing the solvers that are dropped is left to the caller.
+     */
+    public synchronized void replace(List<? extends TypeSolver> added) {
+        solvers.subList(baseSolvers, solvers.size()).clear();
+        sourceSolvers.clear();
+        resolved.removeAll();
+        added.forEach(this::add);
+    }
+
+    /**
+     * The solvers of the chain, in the order they are asked.
+     */
+    synchronized List<TypeSolver> solvers() {
+        return List.copyOf(solvers);
+    }
+
+    /**
+     * Limits the number of resolved types kept, or lifts the limit if it is 0. Types that were evicted
+     * are looked up in the chain again.
+     */
+    public void setCacheLimit(int maxEntries) {
+        resolved.setMaxSize(maxEntries);
+    }
+
+    public CacheStatistics cacheStatistics() {
+        return resolved.statistics();
+    }
+
+    /**
+     * Forgets every type resolved so far and everything cached from project sources, so the next
+     * lookups see the current contents of the source roots. Classpath solvers keep their caches.
+     */
+    public synchronized void refreshSources() {
+        sourceSolvers.forEach(DeclarationTypeSolver::reset);
+        resolved.removeAll();
+    }
+
+    @Override
+    public TypeSolver getParent() {
+        return null;
+    }
+
+    /**
+     * Always fails: the lock that makes the chain safe to share is taken here, so lookups made by the
+     * declarations it returns must come back to this solver rather than to a parent that would bypass it.
+     */
+    @Override
+    public void setParent(TypeSolver parent) {
+        throw new IllegalStateException("A shared type solver must be the root of its chain, "
+                + "since it serializes the lookups of every solver below it; wrap other solvers in it instead");
+    }
+
+    @Override
+    public synchronized SymbolReference<ResolvedReferenceTypeDeclaration> tryToSolveType(String name) {
+        if (ResolutionBudget.isExhausted()) {
+            throw new CancellationException("Resolution budget exhausted while solving " + name);
+        }
+        final var cached = resolved.get(name);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        for (TypeSolver solver : solvers) {
+            final var reference = solver.tryToSolveType(name);
+            if (reference.isSolved()) {
+                resolved.put(name, reference);
+                return reference;
+            }
+        }
+        final SymbolReference<ResolvedReferenceTypeDeclaration> unsolved = SymbolReference.unsolved();
+        resolved.put(name, unsolved);
+        return unsolved;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.parser;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedCacheTest {
+
+    @Test
+    void testEvictsLeastRecentlyUsed() {
+        final var cache = new BoundedCache<String, Integer>("test");
+        cache.setMaxSize(2);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        assertEquals(Optional.of(1), cache.get("a"));
+        cache.put("c", 3);
+
+        assertFalse(cache.contains("b"));
+        assertTrue(cache.contains("a"));
+        assertTrue(cache.contains("c"));
+        assertEquals(Optional.empty(), cache.get("b"));
+
+        final var statistics = cache.statistics();
+        assertEquals("test", statistics.getName());
+        assertEquals(2, statistics.getSize());
+        assertEquals(2, statistics.getMaxSize());
+        assertEquals(1, statistics.getHits());
+        assertEquals(1, statistics.getMisses());
+        assertEquals(1, statistics.getEvictions());
+        assertEquals(0.5, statistics.getHitRate());
+        assertEquals(1, cache.stats().evictionCount());
+    }
+
+    @Test
+    void testLimitCanBeChanged() {
+        final var cache = new BoundedCache<Integer, Integer>("test");
+        for (int i = 0; i < 100; i++) {
+            cache.put(i, i);
+        }
+        assertEquals(100, cache.size());
+
+        cache.setMaxSize(10);
+        assertEquals(10, cache.size());
+        assertEquals(90, cache.statistics().getEvictions());
+        assertTrue(cache.contains(99));
+
+        cache.setMaxSize(0);
+        cache.put(100, 100);
+        assertEquals(11, cache.size());
+        cache.removeAll();
+        assertTrue(cache.isEmpty());
+        assertEquals(90, cache.statistics().getEvictions());
+    }
+}
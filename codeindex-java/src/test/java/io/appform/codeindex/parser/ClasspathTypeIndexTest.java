@@ -0,0 +1,167 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.parser;
+
+import io.appform.codeindex.models.Symbol;
+import io.appform.codeindex.models.SymbolKind;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Optional;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class ClasspathTypeIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testJarsAreScannedOncePerContent() throws Exception {
+        final var jar = copySlf4jJar("first.jar");
+        final var indexPath = tempDir.resolve("types.db");
+
+        final String hash;
+        try (ClasspathTypeIndex index = new ClasspathTypeIndex(indexPath)) {
+            hash = index.add(jar);
+            assertEquals(1, index.getJarsScanned());
+            assertEquals(0, index.getJarsReused());
+            final var locations = index.findByName("org.slf4j.LoggerFactory");
+            assertEquals(List.of(new ClasspathTypeIndex.Location(hash, "org/slf4j/LoggerFactory.class")), locations);
+            assertEquals(locations, index.findByClassFile("org/slf4j/LoggerFactory.class"));
+        }
+
+        // Reopened: the same path is recognized by its stamp, a copy elsewhere by its content
+        final var copy = Files.copy(jar, Files.createDirectories(tempDir.resolve("elsewhere")).resolve("second.jar"));
+        try (ClasspathTypeIndex index = new ClasspathTypeIndex(indexPath)) {
+            assertEquals(hash, index.add(jar));
+            assertEquals(hash, index.add(copy));
+            assertEquals(0, index.getJarsScanned());
+            assertEquals(2, index.getJarsReused());
+        }
+    }
+
+    @Test
+    void testNestedClassesUseCanonicalNames() throws Exception {
+        final var jar = tempDir.resolve("nested.jar");
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            for (String entry : List.of("a/b/Outer.class", "a/b/Outer$Inner.class", "module-info.class",
+                    "META-INF/versions/11/a/b/Outer.class", "a/b/readme.txt")) {
+                out.putNextEntry(new JarEntry(entry));
+                out.closeEntry();
+            }
+        }
+        try (ClasspathTypeIndex index = new ClasspathTypeIndex(tempDir.resolve("types.db"))) {
+            final var hash = index.add(jar);
+            assertEquals(List.of(new ClasspathTypeIndex.Location(hash, "a/b/Outer$Inner.class")),
+                    index.findByName("a.b.Outer.Inner"));
+            assertEquals(1, index.findByName("a.b.Outer").size());
+            assertTrue(index.findByName("module-info").isEmpty());
+            assertTrue(index.findByClassFile("META-INF/versions/11/a/b/Outer.class").isEmpty());
+            assertTrue(index.findByName("a.b.readme").isEmpty());
+        }
+    }
+
+    @Test
+    void testJavaParserResolvesThroughIndex() throws Exception {
+        final var jar = copySlf4jJar("resolve.jar");
+        final var javaFile = tempDir.resolve("ExternalTest.java");
+        Files.writeString(javaFile,
+                "import org.slf4j.Logger;\n" +
+                        "import org.slf4j.LoggerFactory;\n" +
+                        "\n" +
+                        "public class ExternalTest {\n" +
+                        "    private static final Logger log = LoggerFactory.getLogger(ExternalTest.class);\n" +
+                        "    public void doLog() {\n" +
+                        "        log.info(\"Hello\");\n" +
+                        "    }\n" +
+                        "}\n"
+        );
+        final var indexPath = tempDir.resolve("types.db");
+
+        final var cold = new JavaParser();
+        cold.setTypeIndexPath(indexPath);
+        cold.setup(tempDir, List.of(jar));
+        final var expected = references(cold.parse(javaFile, tempDir));
+        assertTrue(expected.contains("org.slf4j.LoggerFactory.getLogger"));
+        assertTrue(expected.contains("org.slf4j.Logger.info"));
+        final var classes = cold.cacheStatistics().stream()
+                .filter(cache -> cache.getName().equals("classpath classes"))
+                .findFirst()
+                .orElseThrow();
+        assertTrue(classes.getSize() > 0);
+
+        final var warm = new JavaParser();
+        warm.setTypeIndexPath(indexPath);
+        warm.setup(tempDir, List.of(jar));
+        assertEquals(expected, references(warm.parse(javaFile, tempDir)));
+
+        final var scanning = new JavaParser();
+        scanning.setTypeIndexPath(null);
+        scanning.setup(tempDir, List.of(jar));
+        assertEquals(expected, references(scanning.parse(javaFile, tempDir)));
+        assertEquals(cold.cacheKey(), scanning.cacheKey());
+    }
+
+    @Test
+    void testDefaultLocationHonoursOverride() {
+        final var location = ClasspathTypeIndex.defaultLocation();
+        assertNotNull(location);
+        assertEquals("classpath-types.db", location.getFileName().toString());
+        final var override = System.getProperty(ClasspathTypeIndex.CACHE_DIR_PROPERTY);
+        if (override != null) {
+            assertEquals(Path.of(override, "classpath-types.db"), location);
+        }
+        assertFalse(location.startsWith(tempDir));
+    }
+
+    private Path copySlf4jJar(String name) throws IOException {
+        final var jar = findSlf4jJar();
+        assumeTrue(jar.isPresent(), "slf4j-api jar not found in the local maven repository");
+        return Files.copy(jar.get(), tempDir.resolve(name));
+    }
+
+    private static List<String> references(List<Symbol> symbols) {
+        return symbols.stream()
+                .filter(s -> s.getKind() == SymbolKind.REFERENCE && s.getReferenceTo() != null)
+                .map(Symbol::getReferenceTo)
+                .collect(Collectors.toList());
+    }
+
+    private static Optional<Path> findSlf4jJar() throws IOException {
+        final var m2Repo = Paths.get(System.getProperty("user.home"), ".m2/repository/org/slf4j/slf4j-api");
+        if (!Files.isDirectory(m2Repo)) {
+            return Optional.empty();
+        }
+        try (var paths = Files.walk(m2Repo)) {
+            return paths.filter(p -> p.getFileName().toString().matches("slf4j-api-[0-9.]+\\.jar"))
+                    .findFirst();
+        }
+    }
+}
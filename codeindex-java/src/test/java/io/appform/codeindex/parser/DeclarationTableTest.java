@@ -0,0 +1,196 @@
+/*
+ * Copyright 2026 codeindex contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appform.codeindex.parser;
+
+import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import io.appform.codeindex.crawler.IgnoreRules;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class DeclarationTableTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testDeclaredTypes() {
+        final var source = """
+                /* package wrong; class Commented {} */
+                package com.acme . shop;
+
+                import java.util.List;
+import java.util.Set;
+
+                @SuppressWarnings("class Quoted {")
+                public class Order<T extends Comparable<T>> implements Runnable {
+                    private final Class<?> type = String.class;
+                    private final String text = \"""
+                            interface InTextBlock {
+                            \""";
+                    private final char brace = '{';
+
+                    public void run() {
+                        Runnable r = new Runnable() {
+                            public void run() {
+                            }
+                        };
+                        record(1);
+                    }
+
+                    enum Status { NEW { void x() {} }, DONE }
+
+                    record Line(String sku, int quantity) {
+                        interface Priced {
+                        }
+                    }
+
+                    @interface Audited {
+                    }
+                }
+
+                // class Trailing {}
+                final class Helper {
+                }
+                """;
+
+        assertEquals(List.of("com.acme.shop.Order",
+                        "com.acme.shop.Order.Status",
+                        "com.acme.shop.Order.Line",
+                        "com.acme.shop.Order.Line.Priced",
+                        "com.acme.shop.Order.Audited",
+                        "com.acme.shop.Helper"),
+                DeclarationTable.declaredTypes(source));
+    }
+
+    @Test
+    void testDefaultPackage() {
+        assertEquals(List.of("Main", "Main.Inner"),
+                DeclarationTable.declaredTypes("public class Main { static class Inner {} }"));
+    }
+
+    @Test
+    void testScanAndUpdate() throws Exception {
+        final var sources = Files.createDirectories(tempDir.resolve("module/src/main/java/pkg"));
+        final var hidden = Files.createDirectories(tempDir.resolve(".git/pkg"));
+        final var helper = sources.resolve("Helper.java");
+        Files.writeString(helper, "package pkg;\npublic class Helper {}\n");
+        Files.writeString(hidden.resolve("Hidden.java"), "package pkg;\npublic class Hidden {}\n");
+
+        final var table = new DeclarationTable();
+        table.scan(tempDir);
+        assertEquals(helper.toAbsolutePath(), table.find("pkg.Helper"));
+        assertNull(table.find("pkg.Hidden"));
+        assertEquals(1, table.size());
+
+        final var other = sources.resolve("Other.java");
+        Files.writeString(other, "package pkg;\nclass Other {}\n");
+        Files.delete(helper);
+        table.update(List.of(helper, other));
+        assertNull(table.find("pkg.Helper"));
+        assertEquals(other.toAbsolutePath(), table.find("pkg.Other"));
+    }
+
+    @Test
+    void testScanFollowsIgnoreRules() throws Exception {
+        final var sources = Files.createDirectories(tempDir.resolve("module/src/main/java/pkg"));
+        final var buildCopy = Files.createDirectories(tempDir.resolve("module/build/generated/pkg"));
+        final var excluded = Files.createDirectories(tempDir.resolve("samples/pkg"));
+        Files.writeString(tempDir.resolve(IgnoreRules.CODEINDEXIGNORE), "samples/\n");
+        Files.writeString(tempDir.resolve("module/pom.xml"), "<project/>\n");
+        final var helper = sources.resolve("Helper.java");
+        Files.writeString(helper, "package pkg;\npublic class Helper {}\n");
+        Files.writeString(buildCopy.resolve("Helper.java"), "package pkg;\npublic class Helper {}\n");
+        Files.writeString(excluded.resolve("Sample.java"), "package pkg;\npublic class Sample {}\n");
+
+        final var table = new DeclarationTable();
+        table.scan(tempDir);
+        // The build output sorts first, but is not part of the project sources
+        assertEquals(helper.toAbsolutePath(), table.find("pkg.Helper"));
+        assertNull(table.find("pkg.Sample"));
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    void testConcurrentLoadsParseOnce() throws Exception {
+        final var file = Files.createDirectories(tempDir.resolve("pkg")).resolve("Slow.java");
+        Files.writeString(file, "package pkg;\npublic class Slow {}\n");
+        final var table = new DeclarationTable();
+        final var started = new CountDownLatch(1);
+        final var parser = (Function<Path, CompilationUnit>) path -> {
+            started.countDown();
+            try {
+                Thread.sleep(100);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return StaticJavaParser.parse("package pkg;\npublic class Slow {}\n");
+        };
+
+        final var executor = Executors.newFixedThreadPool(4);
+        try {
+            final var futures = new ArrayList<Future<CompilationUnit>>();
+            futures.add(executor.submit(() -> table.compilationUnit(file, parser)));
+            started.await();
+            for (int i = 0; i < 3; i++) {
+                futures.add(executor.submit(() -> table.compilationUnit(file, parser)));
+            }
+            final var first = futures.get(0).get();
+            for (Future<CompilationUnit> future : futures) {
+                assertSame(first, future.get());
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, table.getParses());
+    }
+
+    @Test
+    void testSourceRoots() throws Exception {
+        final var main = Files.createDirectories(tempDir.resolve("api/src/main/java/com/acme/api"));
+        final var test = Files.createDirectories(tempDir.resolve("api/src/test/java/com/acme/api"));
+        final var other = Files.createDirectories(tempDir.resolve("impl/src/main/java/com/acme/impl"));
+        Files.writeString(main.resolve("Api.java"), "package com.acme.api;\npublic interface Api {}\n");
+        Files.writeString(test.resolve("ApiTest.java"), "package com.acme.api;\nclass ApiTest {}\n");
+        Files.writeString(other.resolve("Impl.java"), "package com.acme.impl;\nclass Impl { class Inner {} }\n");
+        Files.writeString(other.resolve("Misplaced.java"), "package com.acme.elsewhere;\nclass Misplaced {}\n");
+
+        final var table = new DeclarationTable();
+        table.scan(tempDir);
+        assertEquals(Set.of(tempDir.resolve("api/src/main/java").toAbsolutePath(),
+                        tempDir.resolve("api/src/test/java").toAbsolutePath(),
+                        tempDir.resolve("impl/src/main/java").toAbsolutePath()),
+                table.sourceRoots());
+        assertEquals(5, table.size());
+    }
+}
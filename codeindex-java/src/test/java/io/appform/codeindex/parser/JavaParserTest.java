@@ -16,6 +16,9 @@
 
 package io.appform.codeindex.parser;
 
+import com.github.javaparser.StaticJavaParser;
+import io.appform.codeindex.models.CacheStatistics;
+import io.appform.codeindex.models.ResolutionMode;
 import io.appform.codeindex.models.Symbol;
 import io.appform.codeindex.models.SymbolKind;
 import org.junit.jupiter.api.Test;
@@ -25,10 +28,17 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class JavaParserTest {
@@ -71,6 +81,39 @@ class JavaParserTest {
         assertTrue(symbols.stream().anyMatch(s -> s.getKind() == SymbolKind.FIELD && s.getName().equals("name")));
     }
 
+    @Test
+    void testMembersBelongToInnermostClass() throws IOException {
+        Path javaFile = tempDir.resolve("Outer.java");
+        Files.writeString(javaFile,
+                "public class Outer {\n" +
+                        "    int outerField;\n" +
+                        "    static class Inner {\n" +
+                        "        int innerField;\n" +
+                        "        void innerMethod() { int local = innerField; }\n" +
+                        "    }\n" +
+                        "    void outerMethod() {\n" +
+                        "        Runnable r = new Runnable() { public void run() { outerField++; } };\n" +
+                        "    }\n" +
+                        "}\n"
+        );
+
+        JavaParser parser = new JavaParser();
+        parser.setup(tempDir, List.of());
+        final var owners = parser.parse(javaFile, tempDir).stream()
+                .filter(s -> s.getKind() != SymbolKind.REFERENCE)
+                .collect(Collectors.toMap(s -> s.getKind() + " " + s.getName(), Symbol::getClassName));
+
+        assertEquals("Outer", owners.get("CLASS Outer"));
+        assertEquals("Outer", owners.get("FIELD outerField"));
+        assertEquals("Inner", owners.get("CLASS Inner"));
+        assertEquals("Inner", owners.get("FIELD innerField"));
+        assertEquals("Inner", owners.get("METHOD innerMethod"));
+        assertEquals("Inner", owners.get("VARIABLE local"));
+        assertEquals("Outer", owners.get("METHOD outerMethod"));
+        // Anonymous classes are not declarations of their own
+        assertEquals("Outer", owners.get("METHOD run"));
+    }
+
     @Test
     void testExternalLibraryResolution() throws IOException {
         Path srcDir = tempDir.resolve("io/appform/test");
@@ -117,4 +160,309 @@ class JavaParserTest {
             assertTrue(foundInfoRef, "Should have resolved Logger.info");
         }
     }
+
+    @Test
+    void testChangedSourcesAreResolvedAfterRefresh() throws IOException {
+        Path pkg = Files.createDirectories(tempDir.resolve("pkg"));
+        Path helper = pkg.resolve("Helper.java");
+        Path caller = pkg.resolve("Caller.java");
+        Files.writeString(helper, "package pkg;\npublic class Helper { public void work() {} }\n");
+        Files.writeString(caller, "package pkg;\npublic class Caller { void call() { new Helper().work(); } }\n");
+
+        JavaParser parser = new JavaParser();
+        parser.setup(tempDir, List.of());
+        assertTrue(references(parser.parse(caller, tempDir)).contains("pkg.Helper.work"));
+
+        Files.writeString(helper, "package pkg;\npublic class Helper { public void run() {} }\n");
+        Files.writeString(caller, "package pkg;\npublic class Caller { void call() { new Helper().run(); } }\n");
+        parser.filesChanged(List.of(helper, caller));
+
+        assertEquals(List.of("pkg.Helper.run"), references(parser.parse(caller, tempDir)));
+    }
+
+    @Test
+    void testIndexedFilesAreReusedForLookups() throws IOException {
+        // Sources of a module below the source root, where package paths do not start at the root
+        Path model = Files.createDirectories(tempDir.resolve("model/src/main/java/shop/model"));
+        Path service = Files.createDirectories(tempDir.resolve("service/src/main/java/shop/service"));
+        Files.writeString(model.resolve("Item.java"),
+                "package shop.model;\npublic class Item { public static class Price { public int cents() { return 1; } } "
+                        + "public Price price() { return new Price(); } }\n");
+        Files.writeString(model.resolve("Basket.java"),
+                "package shop.model;\npublic class Basket { public Item first() { return new Item(); } }\n");
+        Files.writeString(service.resolve("Checkout.java"),
+                "package shop.service;\nimport shop.model.Basket;\n"
+                        + "public class Checkout { int total(Basket basket) { return basket.first().price().cents(); } }\n");
+
+        JavaParser parser = new JavaParser();
+        parser.setup(tempDir, List.of());
+        assertEquals(4, parser.declarations().size());
+
+        // Every type is declared in a file indexed before the files that use it
+        parser.parse(model.resolve("Item.java"), tempDir);
+        parser.parse(model.resolve("Basket.java"), tempDir);
+        final var checkout = parser.parse(service.resolve("Checkout.java"), tempDir);
+        assertTrue(references(checkout).containsAll(List.of("shop.model.Basket.first", "shop.model.Item.price",
+                "shop.model.Item.Price.cents")));
+        assertEquals(0, parser.declarations().getParses());
+
+        final var resolution = parser.resolutionStatistics();
+        assertTrue(resolution.getAttempts() > 0);
+        assertEquals(0, resolution.getFailures());
+    }
+
+    @Test
+    void testBoundedCachesStillResolve() throws IOException {
+        Path pkg = Files.createDirectories(tempDir.resolve("pkg"));
+        final var files = new ArrayList<Path>();
+        for (int i = 0; i < 5; i++) {
+            final var next = i < 4 ? "new Step" + (i + 1) + "().run();" : "";
+            final var file = pkg.resolve("Step" + i + ".java");
+            Files.writeString(file, "package pkg;\npublic class Step" + i + " { public void run() { " + next + " } }\n");
+            files.add(file);
+        }
+
+        JavaParser parser = new JavaParser();
+        parser.setCacheLimit(1);
+        parser.setup(tempDir, List.of());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(List.of("pkg.Step" + (i + 1) + ".run"), references(parser.parse(files.get(i), tempDir)));
+        }
+
+        final var statistics = parser.cacheStatistics();
+        assertEquals(List.of("resolved types", "parsed sources"),
+                statistics.stream().map(CacheStatistics::getName).collect(Collectors.toList()));
+        for (CacheStatistics cache : statistics) {
+            assertEquals(1, cache.getMaxSize());
+            assertTrue(cache.getSize() <= 1);
+            assertTrue(cache.getEvictions() > 0, cache.getName());
+        }
+    }
+
+    @Test
+    void testExhaustedBudgetKeepsDeclarations() throws IOException {
+        Path pkg = Files.createDirectories(tempDir.resolve("pkg"));
+        Files.writeString(pkg.resolve("Helper.java"), "package pkg;\npublic class Helper { public void work() {} }\n");
+        Path caller = pkg.resolve("Caller.java");
+        Files.writeString(caller, "package pkg;\npublic class Caller { void call() { new Helper().work(); } }\n");
+
+        JavaParser parser = new JavaParser();
+        parser.setup(tempDir, List.of());
+        ResolutionBudget.start(Duration.ZERO);
+        final List<Symbol> symbols;
+        try {
+            symbols = parser.parse(caller, tempDir);
+        }
+        finally {
+            assertTrue(ResolutionBudget.end());
+        }
+        assertTrue(references(symbols).isEmpty());
+        assertEquals(List.of("Caller", "call"), symbols.stream().map(Symbol::getName).collect(Collectors.toList()));
+
+        ResolutionBudget.start(Duration.ofMinutes(1));
+        assertEquals(List.of("pkg.Helper.work"), references(parser.parse(caller, tempDir)));
+        assertFalse(ResolutionBudget.end());
+    }
+
+    @Test
+    void testResolutionModes() throws IOException {
+        Path pkg = Files.createDirectories(tempDir.resolve("pkg"));
+        Files.writeString(pkg.resolve("Helper.java"), "package pkg;\npublic class Helper { public int work() { return 1; } }\n");
+        Path caller = pkg.resolve("Caller.java");
+        Files.writeString(caller, "package pkg;\npublic class Caller {\n" +
+                "    int count;\n" +
+                "    int call() { return new Helper().work() + count; }\n" +
+                "}\n");
+
+        JavaParser full = new JavaParser();
+        full.setup(tempDir, List.of());
+        final var fullSymbols = full.parse(caller, tempDir);
+        assertEquals(List.of("pkg.Helper.work", "count"), references(fullSymbols));
+
+        JavaParser none = new JavaParser();
+        none.setResolutionMode(ResolutionMode.NONE);
+        none.setup(tempDir, List.of());
+        final var declarations = none.parse(caller, tempDir);
+        assertTrue(references(declarations).isEmpty());
+        assertEquals(fullSymbols.stream().filter(s -> s.getKind() != SymbolKind.REFERENCE).collect(Collectors.toList()),
+                declarations);
+
+        JavaParser lazy = new JavaParser();
+        lazy.setResolutionMode(ResolutionMode.LAZY);
+        lazy.setup(tempDir, List.of());
+        final var unresolved = lazy.parse(caller, tempDir).stream()
+                .filter(s -> s.getKind() == SymbolKind.REFERENCE)
+                .collect(Collectors.toList());
+        assertEquals(List.of("work", "count"), unresolved.stream().map(Symbol::getName).collect(Collectors.toList()));
+        assertTrue(unresolved.stream().allMatch(s -> s.getReferenceTo() == null));
+        assertEquals(references(fullSymbols), references(lazy.resolveReferences(caller, tempDir)));
+        assertFalse(lazy.cacheKey().equals(full.cacheKey()));
+    }
+
+    @Test
+    void testSetupReplacesEarlierSetup() throws IOException {
+        final var first = Files.createDirectories(tempDir.resolve("first/pkg"));
+        Files.writeString(first.resolve("Helper.java"), "package pkg;\npublic class Helper { public void work() {} }\n");
+        final var second = Files.createDirectories(tempDir.resolve("second/pkg"));
+        final var caller = second.resolve("Caller.java");
+        Files.writeString(caller, "package pkg;\npublic class Caller { void call() { new Helper().work(); } }\n");
+        final var classpath = findSlf4jJar().map(List::of).orElse(List.of());
+
+        JavaParser parser = new JavaParser();
+        parser.setTypeIndexPath(tempDir.resolve("types.db"));
+        parser.setup(tempDir.resolve("first"), classpath);
+        final var solvers = parser.typeSolver().solvers().size();
+        final var key = parser.cacheKey();
+        parser.setup(tempDir.resolve("first"), classpath);
+        assertEquals(solvers, parser.typeSolver().solvers().size());
+        assertEquals(key, parser.cacheKey());
+
+        // Types of the earlier source root are gone, and so are the jars
+        parser.setup(tempDir.resolve("second"), List.of());
+        assertEquals(1, parser.declarations().size());
+        assertFalse(references(parser.parse(caller, tempDir.resolve("second"))).contains("pkg.Helper.work"));
+        assertEquals(new JavaParser().cacheKey(), parser.cacheKey());
+        assertEquals(2, parser.cacheStatistics().size());
+
+        parser.close();
+        assertEquals(0, parser.declarations().size());
+        assertEquals(1, parser.typeSolver().solvers().size());
+        parser.setup(tempDir.resolve("first"), classpath);
+        assertEquals(solvers, parser.typeSolver().solvers().size());
+        parser.close();
+    }
+
+    private static List<String> references(List<Symbol> symbols) {
+        return symbols.stream()
+                .filter(s -> s.getKind() == SymbolKind.REFERENCE)
+                .map(Symbol::getReferenceTo)
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void testConcurrentParsingWithSharedClasspath() throws Exception {
+        final var srcDir = tempDir.resolve("io/appform/concurrent");
+        Files.createDirectories(srcDir);
+        final var files = new ArrayList<Path>();
+        for (int i = 0; i < 16; i++) {
+            final var javaFile = srcDir.resolve("Worker" + i + ".java");
+            Files.writeString(javaFile,
+                    "package io.appform.concurrent;\n" +
+                            "import org.slf4j.Logger;\n" +
+                            "import org.slf4j.LoggerFactory;\n" +
+                            "\n" +
+                            "public class Worker" + i + " {\n" +
+                            "    private static final Logger log = LoggerFactory.getLogger(Worker" + i + ".class);\n" +
+                            "    private final Worker" + ((i + 1) % 16) + " next = new Worker" + ((i + 1) % 16) + "();\n" +
+                            "    public int work(int depth) {\n" +
+                            "        int result = depth;\n" +
+                            "        log.info(\"depth {}\", depth);\n" +
+                            "        return depth > 0 ? next.work(depth - 1) : result;\n" +
+                            "    }\n" +
+                            "}\n"
+            );
+            files.add(javaFile);
+        }
+        final var classpath = findSlf4jJar().map(List::of).orElse(List.of());
+
+        final var sequential = new JavaParser();
+        sequential.setup(tempDir, classpath);
+        final var expected = new HashMap<Path, List<Symbol>>();
+        for (Path file : files) {
+            expected.put(file, sequential.parse(file, tempDir));
+        }
+
+        final var shared = new JavaParser();
+        shared.setup(tempDir, classpath);
+        final var executor = Executors.newFixedThreadPool(8);
+        try {
+            final var futures = new ArrayList<Future<List<Symbol>>>();
+            for (int round = 0; round < 4; round++) {
+                for (Path file : files) {
+                    futures.add(executor.submit(() -> shared.parse(file, tempDir)));
+                }
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                final var file = files.get(i % files.size());
+                assertEquals(expected.get(file), futures.get(i).get());
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(shared.isThreadSafe());
+        assertTrue(expected.values().stream()
+                .flatMap(List::stream)
+                .anyMatch(s -> s.getKind() == SymbolKind.REFERENCE && s.getReferenceTo() != null
+                        && s.getReferenceTo().endsWith(".work")));
+        // Parsers must not leak their resolver into the process-wide StaticJavaParser configuration
+        assertFalse(StaticJavaParser.getParserConfiguration().getSymbolResolver().isPresent());
+    }
+
+    @Test
+    void testConcurrentParsingOfFilesReferencingEachOther() throws Exception {
+        final var srcDir = Files.createDirectories(tempDir.resolve("io/appform/mesh"));
+        final var count = 24;
+        final var files = new ArrayList<Path>();
+        for (int i = 0; i < count; i++) {
+            final var next = "Node" + ((i + 1) % count);
+            final var other = "Node" + ((i * 7 + 3) % count);
+            final var javaFile = srcDir.resolve("Node" + i + ".java");
+            Files.writeString(javaFile,
+                    "package io.appform.mesh;\n" +
+                            "import java.util.List;\n" +
+                            "import java.util.stream.Collectors;\n" +
+                            "\n" +
+                            "public class Node" + i + " {\n" +
+                            "    private final " + next + " next = new " + next + "();\n" +
+                            "    public " + next + " next() { return next; }\n" +
+                            "    public String name() { return \"node" + i + "\"; }\n" +
+                            "    public String walk(List<" + other + "> others) {\n" +
+                            "        final var names = others.stream().map(o -> o.next().name()).collect(Collectors.toList());\n" +
+                            "        return next.next().name() + names + new " + other + "().walk(List.of());\n" +
+                            "    }\n" +
+                            "}\n"
+            );
+            files.add(javaFile);
+        }
+
+        final var sequential = new JavaParser();
+        sequential.setup(tempDir, List.of());
+        final var expected = new HashMap<Path, List<String>>();
+        for (Path file : files) {
+            expected.put(file, references(sequential.parse(file, tempDir)));
+        }
+        assertTrue(expected.values().stream().allMatch(references -> references.stream().noneMatch(r -> r == null)));
+
+        final var executor = Executors.newFixedThreadPool(8);
+        try {
+            for (int round = 0; round < 5; round++) {
+                // Every round starts from nothing parsed, so lookups and indexing compete for the same files
+                final var parser = new JavaParser();
+                parser.setup(tempDir, List.of());
+                final var futures = new ArrayList<Future<List<Symbol>>>();
+                for (Path file : files) {
+                    futures.add(executor.submit(() -> parser.parse(file, tempDir)));
+                }
+                for (int i = 0; i < files.size(); i++) {
+                    assertEquals(expected.get(files.get(i)), references(futures.get(i).get()), files.get(i).toString());
+                }
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Optional<Path> findSlf4jJar() throws IOException {
+        final var m2Repo = Paths.get(System.getProperty("user.home"), ".m2/repository");
+        if (!Files.isDirectory(m2Repo)) {
+            return Optional.empty();
+        }
+        try (var paths = Files.walk(m2Repo)) {
+            return paths.filter(p -> p.toString().contains("slf4j-api") && p.toString().endsWith(".jar"))
+                    .findFirst();
+        }
+    }
 }
@@ -19,30 +19,48 @@ package io.appform.codeindex.python.parser;
 import io.appform.codeindex.models.Symbol;
 import io.appform.codeindex.models.SymbolKind;
 import io.appform.codeindex.parser.Parser;
+import io.appform.codeindex.parser.SymbolSink;
 import io.appform.codeindex.parser.annotation.DiscoverableParser;
-import lombok.extern.slf4j.Slf4j;
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CommonTokenStream;
 import org.antlr.v4.runtime.tree.ParseTree;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
-@Slf4j
 @DiscoverableParser
 public class PythonParser implements Parser {
+    /** Bump whenever a change to the visitor changes the symbols extracted from a file. */
+    private static final String CACHE_KEY = "python/1";
 
     @Override
     public Set<String> supportedExtensions() {
         return Set.of("py");
     }
 
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    @Override
+    public String cacheKey() {
+        return CACHE_KEY;
+    }
+
     @Override
     public List<Symbol> parse(Path path, Path sourceRoot) {
         final var symbols = new ArrayList<Symbol>();
+        parse(path, sourceRoot, symbols::add);
+        return symbols;
+    }
+
+    @Override
+    public void parse(Path path, Path sourceRoot, SymbolSink sink) {
         final var filePath = sourceRoot != null
                 ? sourceRoot.toAbsolutePath().relativize(path.toAbsolutePath()).toString()
                 : path.toAbsolutePath().toString();
@@ -55,28 +73,27 @@ public class PythonParser implements Parser {
             parser.removeErrorListeners();
 
             ParseTree tree = parser.file_input();
-            var visitor = new PythonVisitor(symbols, filePath);
+            var visitor = new PythonVisitor(sink, filePath);
             visitor.visit(tree);
         }
         catch (IOException e) {
-            log.error("Error parsing python file: {}", path, e);
+            throw new UncheckedIOException(e);
         }
-        return symbols;
     }
 
     private static class PythonVisitor extends Python3ParserBaseVisitor<Void> {
-        private final List<Symbol> symbols;
+        private final SymbolSink sink;
         private final String filePath;
 
-        public PythonVisitor(List<Symbol> symbols, String filePath) {
-            this.symbols = symbols;
+        public PythonVisitor(SymbolSink sink, String filePath) {
+            this.sink = sink;
             this.filePath = filePath;
         }
 
         @Override
         public Void visitClassdef(Python3Parser.ClassdefContext ctx) {
             if (ctx.name() != null) {
-                symbols.add(Symbol.builder()
+                sink.accept(Symbol.builder()
                         .name(ctx.name().getText())
                         .kind(SymbolKind.CLASS)
                         .filePath(filePath)
@@ -90,7 +107,7 @@ public class PythonParser implements Parser {
         @Override
         public Void visitFuncdef(Python3Parser.FuncdefContext ctx) {
             if (ctx.name() != null) {
-                symbols.add(Symbol.builder()
+                sink.accept(Symbol.builder()
                         .name(ctx.name().getText())
                         .kind(SymbolKind.METHOD)
                         .filePath(filePath)